@@ -54,7 +54,7 @@ public class DealsPage extends JPanel {
         add(dealsInfoPanel, BorderLayout.NORTH);
 
         // Products Grid - Show all products as they all could have deals
-        productGrid = new ProductGrid();
+        productGrid = new ProductGrid(true);
         productGrid.displayProducts(products, () -> {});
 
         add(productGrid, BorderLayout.CENTER);
@@ -17,6 +17,7 @@ public class GUI extends JPanel implements ActionListener {
     private ArrayList<Product> products;
     private ShoppingCart shoppingCart;
     private Runnable cartChangeListener;
+    private java.util.function.Consumer<Product> stockChangeListener;
     private JLabel selectProductCategoryLabel, productDetailsLabel, selectProductLabel;
     private JComboBox<String> selectionBox;
     private JButton viewCartBtn, addToCart;
@@ -67,7 +68,14 @@ public class GUI extends JPanel implements ActionListener {
         topPanel.add(rightPanel, BorderLayout.EAST);
 
         // Product grid
-        productGrid = new ProductGrid();
+        // Virtualized: the shop can list the whole catalog, only the cards in view are built
+        productGrid = new ProductGrid(true);
+        // Add to Cart on a card buys it once it is selected (MainApp installs its own handler)
+        productGrid.setAddToCartHandler(product -> {
+            if (productGrid.getSelectedProduct() == product) {
+                handleAddToCart(product);
+            }
+        });
         displayProductsInGrid("All");
 
         // Details panel
@@ -133,21 +141,11 @@ public class GUI extends JPanel implements ActionListener {
         }
 
         productGrid.displayProducts(filteredProducts, () -> updateDetailsPanel());
-        
-        // Attach action listeners to add-to-cart buttons in cards
-        for (ProductCard card : productGrid.getProductCards()) {
-            card.getAddToCartButton().addActionListener(e -> {
-                if (card.isCardSelected()) {
-                    handleAddToCart(card.getProduct());
-                }
-            });
-        }
     }
 
     public void updateDetailsPanel() {
-        ProductCard selectedCard = productGrid.getSelectedCard();
-        if (selectedCard != null) {
-            Product product = selectedCard.getProduct();
+        Product product = productGrid.getSelectedProduct();
+        if (product != null) {
             String details = generateProductDetails(product);
             selectProductLabel.setText(details);
         } else {
@@ -196,6 +194,7 @@ public class GUI extends JPanel implements ActionListener {
                 }
                 
                 product.decreaseQuantity(quantity);
+                if (stockChangeListener != null) stockChangeListener.accept(product);
                 shoppingCart.addProduct(product, quantity);
                 productGrid.updateCardQuantities();
                 if (cartChangeListener != null) cartChangeListener.run();
@@ -313,9 +312,9 @@ public class GUI extends JPanel implements ActionListener {
         if (e.getSource() == viewCartBtn) {
             shoppingCartFrame();
         } else if (e.getSource() == addToCart) {
-            ProductCard selectedCard = productGrid.getSelectedCard();
-            if (selectedCard != null) {
-                handleAddToCart(selectedCard.getProduct());
+            Product selectedProduct = productGrid.getSelectedProduct();
+            if (selectedProduct != null) {
+                handleAddToCart(selectedProduct);
             } else {
                 JOptionPane.showMessageDialog(null, "Please select a product first!");
             }
@@ -336,8 +335,15 @@ public class GUI extends JPanel implements ActionListener {
         this.cartChangeListener = listener;
     }
 
+    // Called after the stock of a product was taken for the cart
+    public void setStockChangeListener(java.util.function.Consumer<Product> listener) {
+        this.stockChangeListener = listener;
+    }
+
     private void incrementUserPurchaseCount() {
         currentUser.incrementPurchaseCount();
+        // Saved to users.txt by the write-behind thread
+        IDandPassword.shared().markUserChanged(currentUser.getUserName());
     }
     public JPanel getMainPanel() {
         return this;
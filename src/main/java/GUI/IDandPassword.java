@@ -1,20 +1,42 @@
 package GUI;
 
+import org.example.AtomicFiles;
 import org.example.User;
+import org.example.WriteBehind;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.Set;
 
 public class IDandPassword {
     HashMap<String, String> loginInfo = new HashMap<>();
     HashMap<String, User> users = new HashMap<>();
 
-    IDandPassword() {
+    // One instance for the whole app, so every page sees the same users and one thread saves them
+    private static IDandPassword shared;
+
+    // Users changed since the last save; a burst of changes is written once by the write-behind thread
+    private final Set<String> dirtyUsers = new HashSet<>();
+    // Started by the first change, see markUserChanged
+    private WriteBehind writeBehind;
+
+    static synchronized IDandPassword shared() {
+        if (shared == null) {
+            shared = new IDandPassword();
+        }
+        return shared;
+    }
+
+    private IDandPassword() {
         loginInfo.put("Bro", "Pizza");
         loginInfo.put("Shakthi", "Shakthi123");
         loginInfo.put("Buddhima", "Buddhima123");
@@ -24,12 +46,53 @@ public class IDandPassword {
         }
     }
 
-    public void saveUsers() throws IOException {
-        try (FileWriter writer = new FileWriter("users.txt")) {
+    // Replaces users.txt atomically, a crash mid-save keeps the previous file
+    public synchronized void saveUsers() throws IOException {
+        AtomicFiles.write(Paths.get("users.txt"), out -> {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
             for (Map.Entry<String, User> entry : users.entrySet()) {
                 User user = entry.getValue();
                 writer.write(user.getUserName() + ":" + user.getPassword() + ":" + user.getPurchaseCount() + "\n");
             }
+            writer.flush();
+        });
+        dirtyUsers.clear();
+    }
+
+    // The registered user with this name, so changes to it are saved; a new one for the built-in logins
+    public synchronized User userFor(String userName, String password) {
+        User user = users.get(userName);
+        return user != null ? user : new User(userName, password);
+    }
+
+    // Records a change to a registered user (e.g. its purchase count), saved within a couple of seconds
+    public synchronized void markUserChanged(String userName) {
+        if (users.containsKey(userName)) {
+            dirtyUsers.add(userName);
+            if (writeBehind == null) {
+                writeBehind = new WriteBehind("users-write-behind", 2000, 100, this::saveDirtyUsers);
+            }
+            writeBehind.markDirty();
+        }
+    }
+
+    // Stops the write-behind thread and saves the users changed since the last save
+    public void close() throws IOException {
+        WriteBehind closing;
+        synchronized (this) {
+            closing = writeBehind;
+            writeBehind = null;
+        }
+        // Outside the lock: the write-behind thread may be waiting for it in saveDirtyUsers
+        if (closing != null) {
+            closing.close();
+        }
+    }
+
+    // users.txt is small, so the changed users are saved by rewriting it once for the whole batch
+    private synchronized void saveDirtyUsers() throws IOException {
+        if (!dirtyUsers.isEmpty()) {
+            saveUsers();
         }
     }
 
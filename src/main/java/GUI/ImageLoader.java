@@ -0,0 +1,133 @@
+package GUI;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Loads and scales product images off the Event Dispatch Thread.
+ *
+ * Requests go to a small pool of daemon threads through a priority queue: {@link #VISIBLE}
+ * loads run before {@link #HIDDEN} ones, and requests of the same priority run in the order
+ * they were made. The result is delivered on the EDT. A request that is cancelled before a
+ * worker picks it up is skipped, and one cancelled during decoding is not delivered. To change
+ * a request's priority, cancel it and make a new one.
+ *
+ * Scaled images are kept in a small LRU cache, so a card that shows a product again (scrolling
+ * back, a filter that brings it back) gets its image at once, without a request.
+ */
+public final class ImageLoader {
+
+    // Priorities, lower runs first
+    public static final int VISIBLE = 0;
+    public static final int HIDDEN = 1;
+
+    private static final int CACHE_SIZE = 256;
+    private static final ImageLoader SHARED = new ImageLoader(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1)));
+
+    private final ThreadPoolExecutor pool;
+    private final AtomicLong sequence = new AtomicLong();
+    // Path and box size -> scaled image; access order, the eldest entry goes first
+    private final Map<String, ImageIcon> cache = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ImageIcon> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private ImageLoader(int threads) {
+        pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new PriorityBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "image-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+    }
+
+    public static ImageLoader shared() {
+        return SHARED;
+    }
+
+    /**
+     * Loads the image scaled to fit the box, as {@link ImageUtils#loadImagePreserveAspect} does
+     * (a solid placeholder when the file is missing), and hands it to onLoaded on the EDT.
+     * A cached image is handed over right away on the calling thread and null is returned;
+     * otherwise the returned ticket cancels the request.
+     */
+    public Ticket load(String imagePath, int maxWidth, int maxHeight, Color placeholderColor,
+                       int priority, Consumer<ImageIcon> onLoaded) {
+        String key = imagePath + "@" + maxWidth + "x" + maxHeight;
+        ImageIcon cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached != null) {
+            onLoaded.accept(cached);
+            return null;
+        }
+        Ticket ticket = new Ticket(priority, sequence.getAndIncrement(), () -> {
+            ImageIcon icon = ImageUtils.loadImagePreserveAspect(imagePath, maxWidth, maxHeight, placeholderColor);
+            synchronized (cache) {
+                cache.put(key, icon);
+            }
+            return icon;
+        }, onLoaded);
+        pool.execute(ticket);
+        return ticket;
+    }
+
+    // A queued or running load; ordered by priority, then by request order
+    public static final class Ticket implements Runnable, Comparable<Ticket> {
+        private final int priority;
+        private final long sequence;
+        private final Supplier<ImageIcon> decode;
+        private final Consumer<ImageIcon> onLoaded;
+        private volatile boolean cancelled;
+
+        private Ticket(int priority, long sequence, Supplier<ImageIcon> decode, Consumer<ImageIcon> onLoaded) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.decode = decode;
+            this.onLoaded = onLoaded;
+        }
+
+        public int getPriority() {
+            return priority;
+        }
+
+        // The image is not delivered after this; call on the EDT so a result already posted is dropped too
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+            ImageIcon icon = decode.get();
+            SwingUtilities.invokeLater(() -> {
+                if (!cancelled) {
+                    onLoaded.accept(icon);
+                }
+            });
+        }
+
+        @Override
+        public int compareTo(Ticket other) {
+            int cmp = Integer.compare(priority, other.priority);
+            return cmp != 0 ? cmp : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -1,8 +1,6 @@
 package GUI;
 
 import org.example.User;
-import org.example.Product;
-import java.util.ArrayList;
 
 import javax.swing.*;
 import java.awt.*;
@@ -103,11 +101,11 @@ public class LogInPage implements ActionListener {
                     messageLabel.setForeground(Color.GREEN);
                     messageLabel.setText("Login Successful");
 
-                    User user = new User(userID, password);
+                    // The registered user, so its purchase count is carried on and saved
+                    User user = IDandPassword.shared().userFor(userID, password);
                     frame.dispose();
                     ShoppingPage shoppingPage = new ShoppingPage(user);
-                    ArrayList<Product> products = shoppingPage.getProducts();
-                    SwingUtilities.invokeLater(() -> new MainApp(products, user));
+                    SwingUtilities.invokeLater(() -> new MainApp(shoppingPage.getShoppingManager(), user));
                 } else {
                     messageLabel.setForeground(Color.RED);
                     messageLabel.setText("Wrong Password");
@@ -120,7 +118,7 @@ public class LogInPage implements ActionListener {
 
         if (e.getSource() == signUpButton) {
             frame.dispose();
-            SignUpPage signUpPage = new SignUpPage(new IDandPassword());
+            SignUpPage signUpPage = new SignUpPage(IDandPassword.shared());
         }
     }
 }
@@ -25,7 +25,7 @@ public class Main {
         }
 
         // Start the login UI
-        IDandPassword iDandPassword = new IDandPassword();
+        IDandPassword iDandPassword = IDandPassword.shared();
         SwingUtilities.invokeLater(() -> new LogInPage(iDandPassword.getLoginInfo()));
     }
 
@@ -34,7 +34,7 @@ public class Main {
     }
 
     public void init() {
-        IDandPassword iDandPassword = new IDandPassword();
+        IDandPassword iDandPassword = IDandPassword.shared();
         SwingUtilities.invokeLater(() -> new LogInPage(iDandPassword.getLoginInfo()));
     }
 }
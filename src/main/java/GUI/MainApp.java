@@ -1,7 +1,17 @@
 package GUI;
 
 import org.example.Product;
+import org.example.ProductFacets;
+import org.example.ProductQuery;
+import org.example.ProductRangeIndex;
+import org.example.ProductSearchIndex;
+import org.example.ProductSortIndex;
+import org.example.QueryPlanner;
+import org.example.QueryResultCache;
+import org.example.SearchPipeline;
+import org.example.SearchSuggestions;
 import org.example.User;
+import org.example.WestminsterShoppingManager;
 
 import javax.swing.*;
 import javax.swing.event.DocumentEvent;
@@ -9,7 +19,10 @@ import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.BitSet;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
 import org.example.ShoppingCart;
 
 public class MainApp extends JFrame {
@@ -24,8 +37,12 @@ public class MainApp extends JFrame {
     private JButton activeNavButton;
     private Map<String, JButton> navButtons = new HashMap<>();
     private JTextField searchField;
+    private JLabel didYouMeanLabel;
+    private String correctedQuery;
     private JComboBox<String> sortBox;
     private JComboBox<String> categoryFilterBox;
+    private JComboBox<FacetChoice> attributeFilterBox;
+    private PriceRangeFilter priceFilter;
     private JLabel cartSummaryLabel;
     private JButton cartButton;
     private JLabel cartBadge;
@@ -33,9 +50,40 @@ public class MainApp extends JFrame {
     private ArrayList<Product> products;
     private User currentUser;
     private ShoppingCart sharedCart;
-
-    public MainApp(ArrayList<Product> products, User currentUser) {
-        this.products = products;
+    private final WestminsterShoppingManager shoppingManager;
+    private final ProductSearchIndex searchIndex;
+    private final QueryPlanner queryPlanner;
+    private final ProductFacets facets;
+    private final ProductRangeIndex rangeIndex;
+    // Recent results by (normalized text, category, attribute, sort); dropped when a change touches them
+    private final QueryResultCache<FilterRequest, FilterResult> resultCache = new QueryResultCache<>(RESULT_CACHE_SIZE);
+    private static final int RESULT_CACHE_SIZE = 64;
+    private static final int NEW_ARRIVALS_COUNT = 24;
+    private final SearchSuggestions searchSuggestions;
+    private SearchSuggestionPopup suggestionPopup;
+    // Debounced, cancellable search off the EDT; only the newest result reaches the grid
+    private final SearchPipeline<FilterRequest, FilterResult> searchPipeline;
+    private static final long SEARCH_DEBOUNCE_MILLIS = 150;
+    // Set while a picked suggestion is written into the search field
+    private boolean applyingSuggestion;
+    // Facet counts of the last result, shown next to the dropdown entries
+    private Map<String, Integer> categoryCounts = new HashMap<>();
+    private Map<String, Map<String, Integer>> attributeCounts = new HashMap<>();
+    private int countWithoutCategory;
+    // Set while the attribute dropdown is refilled for a new category
+    private boolean updatingFacetChoices;
+
+    public MainApp(WestminsterShoppingManager shoppingManager, User currentUser) {
+        this.shoppingManager = shoppingManager;
+        this.products = new ArrayList<>(shoppingManager.getAllProducts());
+        this.searchIndex = shoppingManager.getSearchIndex();
+        this.queryPlanner = shoppingManager.getQueryPlanner();
+        this.facets = shoppingManager.getFacets();
+        this.rangeIndex = shoppingManager.getRangeIndex();
+        shoppingManager.addCatalogListener(resultCache);
+        this.searchSuggestions = shoppingManager.getSearchSuggestions();
+        this.searchPipeline = new SearchPipeline<>(SEARCH_DEBOUNCE_MILLIS, this::runFilters, this::showResults,
+                SwingUtilities::invokeLater);
         this.currentUser = currentUser;
 
         // Apply a global UI font so the app looks consistent.
@@ -45,7 +93,14 @@ public class MainApp extends JFrame {
         setTitle("Kolshi Shopping Center");
         setSize(1200, 800);
         setLocationRelativeTo(null);
-        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        // Closing saves what the write-behind threads still hold before the app exits
+        setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent e) {
+                shutdown();
+            }
+        });
 
         // Background + cards (unified to reduce flicker)
         Image baseBg = ImageUtils.loadBackgroundImage("backgrounds/bg1.jpg");
@@ -68,7 +123,8 @@ public class MainApp extends JFrame {
         sharedCart = new ShoppingCart();
         homePage = new HomePage(() -> navigateTo("shopping"));
         shoppingPageGui = new GUI(products, currentUser, sharedCart);
-        newArrivalsPage = new NewArrivalsPage(products);
+        // Top-K by arrival instead of sorting the whole catalog
+        newArrivalsPage = new NewArrivalsPage(new ArrayList<>(shoppingManager.getNewestProducts(NEW_ARRIVALS_COUNT)));
         dealsPage = new DealsPage(products);
         feedbackPage = new FeedbackPage();
 
@@ -93,6 +149,7 @@ public class MainApp extends JFrame {
 
         // Wire cart change callback so nav summary updates when cart changes
         shoppingPageGui.setCartChangeListener(() -> updateCartSummary(sharedCart));
+        shoppingPageGui.setStockChangeListener(product -> shoppingManager.markProductChanged(product.getProductID()));
         // initial summary
         updateCartSummary(sharedCart);
 
@@ -103,7 +160,6 @@ public class MainApp extends JFrame {
         setVisible(true);
     }
 
-    private boolean arrivalsLoaded = false;
     private boolean dealsLoaded = false;
 
     private JPanel createNavigationPanel() {
@@ -185,20 +241,69 @@ public class MainApp extends JFrame {
             @Override public void focusGained(java.awt.event.FocusEvent e) { searchField.setBorder(focusSearchBorder); }
             @Override public void focusLost(java.awt.event.FocusEvent e) { searchField.setBorder(defaultSearchBorder); }
         });
-        sortBox = new JComboBox<>(new String[]{"Default", "Price: Low → High", "Price: High → Low", "Name A-Z", "Name Z-A"});
+        sortBox = new JComboBox<>(new String[]{"Default", "Relevance", "Price: Low → High", "Price: High → Low", "Name A-Z", "Name Z-A"});
         categoryFilterBox = new JComboBox<>(new String[]{"All", "Electronics", "Clothing", "Books", "Home & Garden"});
-        categoryFilterBox.setPreferredSize(new Dimension(110, 26));
+        categoryFilterBox.setPreferredSize(new Dimension(130, 26));
+        categoryFilterBox.setRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                String category = (String) value;
+                int count = "All".equals(category) ? countWithoutCategory : categoryCounts.getOrDefault(category, 0);
+                return super.getListCellRendererComponent(list, category + " (" + count + ")", index, isSelected, cellHasFocus);
+            }
+        });
+        // Brand, size, color, genre, ... of the selected category
+        attributeFilterBox = new JComboBox<>();
+        attributeFilterBox.setPreferredSize(new Dimension(150, 26));
+        attributeFilterBox.setRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                FacetChoice choice = (FacetChoice) value;
+                String text = choice == null ? "" : choice.toString();
+                if (choice != null && choice.facet() != null) {
+                    int count = attributeCounts.getOrDefault(choice.facet(), Map.of()).getOrDefault(choice.value(), 0);
+                    text += " (" + count + ")";
+                }
+                return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+            }
+        });
+        refreshFacetChoices();
         sortBox.setPreferredSize(new Dimension(110, 26));
         JLabel searchLabel = new JLabel("🔎");
         searchLabel.setForeground(Color.WHITE);
         searchLabel.setFont(new Font("Segoe UI Emoji", Font.PLAIN, 14));
         centerPanel.add(searchLabel);
         centerPanel.add(searchField);
+        // Shown when a mistyped search was answered for a corrected query; click to take it over
+        didYouMeanLabel = new JLabel();
+        didYouMeanLabel.setForeground(new Color(255, 235, 160));
+        didYouMeanLabel.setFont(new Font("Segoe UI", Font.ITALIC, 12));
+        didYouMeanLabel.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+        didYouMeanLabel.setVisible(false);
+        didYouMeanLabel.addMouseListener(new java.awt.event.MouseAdapter() {
+            @Override public void mouseClicked(java.awt.event.MouseEvent e) {
+                if (correctedQuery == null) return;
+                applyingSuggestion = true;
+                searchField.setText(correctedQuery);
+                searchField.setForeground(Color.BLACK);
+                applyingSuggestion = false;
+                applyFilters();
+            }
+        });
+        centerPanel.add(didYouMeanLabel);
         JLabel catLabel = new JLabel("Category:");
         catLabel.setForeground(Color.WHITE);
         catLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
         centerPanel.add(catLabel);
         centerPanel.add(categoryFilterBox);
+        centerPanel.add(attributeFilterBox);
+        priceFilter = new PriceRangeFilter(this::applyFilters);
+        priceFilter.setBounds(rangeIndex.min(ProductRangeIndex.Field.PRICE), rangeIndex.max(ProductRangeIndex.Field.PRICE));
+        priceFilter.setCandidatePrices(rangeIndex.sortedValues(ProductRangeIndex.Field.PRICE,
+                facets.matching(Map.of())));
+        centerPanel.add(priceFilter.getButton());
         JLabel sortLabel = new JLabel("Sort:");
         sortLabel.setForeground(Color.WHITE);
         sortLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
@@ -295,15 +400,36 @@ public class MainApp extends JFrame {
         navPanel.add(centerPanel, BorderLayout.CENTER);
         navPanel.add(rightPanel, BorderLayout.EAST);
 
+        // Type-ahead dropdown: picking a suggestion runs one search for the full text
+        suggestionPopup = new SearchSuggestionPopup(searchField, text -> {
+            applyingSuggestion = true;
+            searchField.setText(text);
+            searchField.setForeground(Color.BLACK);
+            applyingSuggestion = false;
+            applyFilters();
+        });
+
         // Listeners to trigger filtering
         DocumentListener dl = new DocumentListener() {
-            @Override public void insertUpdate(DocumentEvent e) { applyFilters(); }
-            @Override public void removeUpdate(DocumentEvent e) { applyFilters(); }
-            @Override public void changedUpdate(DocumentEvent e) { applyFilters(); }
+            @Override public void insertUpdate(DocumentEvent e) { searchTextChanged(); }
+            @Override public void removeUpdate(DocumentEvent e) { searchTextChanged(); }
+            @Override public void changedUpdate(DocumentEvent e) { searchTextChanged(); }
         };
         searchField.getDocument().addDocumentListener(dl);
         sortBox.addActionListener(e -> applyFilters());
-        categoryFilterBox.addActionListener(e -> applyFilters());
+        categoryFilterBox.addActionListener(e -> {
+            refreshFacetChoices();
+            applyFilters();
+        });
+        attributeFilterBox.addActionListener(e -> {
+            if (!updatingFacetChoices) applyFilters();
+        });
+        // Counts for the unfiltered catalog until the first search comes back
+        categoryCounts = facets.counts(ProductFacets.CATEGORY, null);
+        countWithoutCategory = shoppingManager.getTotalProducts();
+        for (String facet : ProductFacets.attributeFacets("All")) {
+            attributeCounts.put(facet, facets.counts(facet, null));
+        }
 
         return navPanel;
     }
@@ -372,11 +498,8 @@ public class MainApp extends JFrame {
         if (parent instanceof BackgroundPanel bp) {
             bp.setBlurred(!"home".equals(page));
         }
-        // Lazy build product grids for arrivals and deals on first visit
-        if ("arrivals".equals(page) && !arrivalsLoaded) {
-            newArrivalsPage.getProductGrid().displayProducts(products, () -> {});
-            arrivalsLoaded = true;
-        } else if ("deals".equals(page) && !dealsLoaded) {
+        // Lazy build the deals grid on first visit; arrivals already shows the newest products
+        if ("deals".equals(page) && !dealsLoaded) {
             dealsPage.getProductGrid().displayProducts(products, () -> {});
             dealsLoaded = true;
         }
@@ -384,6 +507,19 @@ public class MainApp extends JFrame {
         cardPanel.repaint();
     }
 
+    // Stops the search thread, flushes pending stock and user changes, then exits
+    private void shutdown() {
+        searchPipeline.close();
+        shoppingManager.close();
+        try {
+            IDandPassword.shared().close();
+        } catch (java.io.IOException e) {
+            System.err.println("Error saving users: " + e.getMessage());
+        }
+        dispose();
+        System.exit(0);
+    }
+
     /**
      * Navigate to a page and update the navbar highlighted button.
      */
@@ -473,7 +609,72 @@ public class MainApp extends JFrame {
         }
     }
 
+    private static final int SUGGESTION_COUNT = 8;
+
+    private void searchTextChanged() {
+        if (applyingSuggestion) {
+            return;
+        }
+        String text = searchField.getText().trim();
+        if (text.isEmpty() || text.equals("Search products...") || !searchField.hasFocus()) {
+            suggestionPopup.hide();
+        } else {
+            suggestionPopup.show(searchSuggestions.complete(text, SUGGESTION_COUNT));
+        }
+        applyFiltersDebounced();
+    }
+
+    // One entry of the attribute dropdown; facet == null is "Any"
+    private record FacetChoice(String facet, String value) {
+        @Override
+        public String toString() {
+            return facet == null ? "Any " + value : facet + ": " + value;
+        }
+    }
+
+    // Fills the attribute dropdown with the brands, sizes, ... of the selected category
+    private void refreshFacetChoices() {
+        FacetChoice selected = (FacetChoice) attributeFilterBox.getSelectedItem();
+        updatingFacetChoices = true;
+        try {
+            attributeFilterBox.removeAllItems();
+            attributeFilterBox.addItem(new FacetChoice(null, "attribute"));
+            for (String facet : ProductFacets.attributeFacets((String) categoryFilterBox.getSelectedItem())) {
+                for (String value : facets.values(facet)) {
+                    FacetChoice choice = new FacetChoice(facet, value);
+                    attributeFilterBox.addItem(choice);
+                    if (choice.equals(selected)) {
+                        attributeFilterBox.setSelectedItem(choice);
+                    }
+                }
+            }
+        } finally {
+            updatingFacetChoices = false;
+        }
+    }
+
+    // Filter controls as read on the EDT, handed to the search thread
+    private record FilterRequest(String searchText, String category, FacetChoice attribute,
+                                 double minPrice, double maxPrice, String sort) {
+    }
+
+    // Ordinals of the products to show plus the facet counts for the dropdowns
+    private record FilterResult(int[] ordinals, Map<String, Integer> categoryCounts,
+                                Map<String, Map<String, Integer>> attributeCounts, int countWithoutCategory,
+                                String correctedQuery, double[] candidatePrices) {
+    }
+
+    // Reruns the search right away (sort, category or a picked suggestion)
     private void applyFilters() {
+        searchPipeline.submitNow(readFilters());
+    }
+
+    // Reruns the search once typing pauses
+    private void applyFiltersDebounced() {
+        searchPipeline.submit(readFilters());
+    }
+
+    private FilterRequest readFilters() {
         // Get search text and check if it's the placeholder
         String searchText = searchField.getText().trim();
         String placeholder = "Search products...";
@@ -481,36 +682,130 @@ public class MainApp extends JFrame {
         if (searchText.isEmpty() || searchText.equals(placeholder)) {
             searchText = "";
         }
-        String search = searchText.toLowerCase();
-        String sort = (String) sortBox.getSelectedItem();
-        String category = (String) categoryFilterBox.getSelectedItem();
-        java.util.List<Product> filtered = new ArrayList<>();
-        for (Product p : products) {
-            if (!category.equalsIgnoreCase("All") && !p.getProductCategory().equalsIgnoreCase(category)) continue;
-            if (!search.isEmpty()) {
-                String hay = (p.getProductName() + " " + p.getProductID()).toLowerCase();
-                if (!hay.contains(search)) continue;
+        FacetChoice attribute = (FacetChoice) attributeFilterBox.getSelectedItem();
+        if (attribute != null && attribute.facet() == null) {
+            attribute = null;
+        }
+        return new FilterRequest(searchText, (String) categoryFilterBox.getSelectedItem(), attribute,
+                priceFilter.selectedMin(), priceFilter.selectedMax(), (String) sortBox.getSelectedItem());
+    }
+
+    // Search-thread buffers, reused by every query so filtering allocates nothing per product
+    private final BitSet textMatches = new BitSet();
+    private final BitSet withoutCategory = new BitSet();
+    private final BitSet withoutAttribute = new BitSet();
+    private final BitSet priceCandidates = new BitSet();
+    // Prices of the last candidates and what they were computed for; dragging the price slider keeps them
+    private CandidateKey candidateKey;
+    private double[] candidatePrices;
+
+    private record CandidateKey(String text, String category, FacetChoice attribute, long catalogVersion) {
+    }
+
+    // Runs on the search thread; gives up as soon as a newer request arrives
+    private FilterResult runFilters(FilterRequest request, BooleanSupplier cancelled) {
+        FilterRequest key = new FilterRequest(String.join(" ", ProductSearchIndex.tokenize(request.searchText())),
+                request.category(), request.attribute(), request.minPrice(), request.maxPrice(), request.sort());
+        FilterResult cached = resultCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long cacheVersion = resultCache.version();
+
+        // Posting-list lookup in the inverted index instead of scanning every product; done once,
+        // every bitmap below starts from these matches
+        searchIndex.searchInto(request.searchText(), textMatches);
+        String corrected = null;
+        if (textMatches.isEmpty() && !request.searchText().isEmpty()) {
+            // Nothing matched: retry with the mistyped words replaced by their closest terms
+            corrected = searchIndex.correctQuery(request.searchText());
+            if (corrected != null) {
+                searchIndex.searchInto(corrected, textMatches);
             }
-            filtered.add(p);
         }
-        // Sorting
+        ProductQuery query = ProductQuery.all()
+                .withText(corrected != null ? corrected : request.searchText())
+                .withCategory(request.category())
+                .withPriceRange(request.minPrice(), request.maxPrice())
+                .sortedBy(sortOrderOf(request.sort()));
+        if (request.attribute() != null) {
+            query = query.withAttribute(request.attribute().facet(), request.attribute().value());
+        }
+        if (request.sort().equals("Relevance")) {
+            // BM25 over name and attributes, best matches first
+            query = query.rankedByRelevance();
+        }
+
+        BitSet base = query.hasText() ? textMatches : null;
+
+        // Each facet is counted with every filter except its own, so the counts say what picking it would give
+        queryPlanner.filterInto(query.withCategory(null), base, withoutCategory);
+        queryPlanner.filterInto(query.withoutAttributes(), base, withoutAttribute);
+        if (cancelled.getAsBoolean()) {
+            throw new CancellationException();
+        }
+        Map<String, Integer> categoryCounts = facets.counts(ProductFacets.CATEGORY, withoutCategory);
+        Map<String, Map<String, Integer>> attributeCounts = new HashMap<>();
+        for (String facet : ProductFacets.attributeFacets(request.category())) {
+            attributeCounts.put(facet, facets.counts(facet, withoutAttribute));
+        }
+        // Prices of the results without the price band, so the slider can count any band by binary search;
+        // the same candidates as last time (only the band moved) keep their prices
+        queryPlanner.filterInto(query.withPriceRange(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY), base, priceCandidates);
+        CandidateKey candidates = new CandidateKey(query.text(), query.category(), request.attribute(), cacheVersion);
+        if (!candidates.equals(candidateKey)) {
+            candidatePrices = rangeIndex.sortedValues(ProductRangeIndex.Field.PRICE, priceCandidates);
+            candidateKey = candidates;
+        }
+        if (cancelled.getAsBoolean()) {
+            throw new CancellationException();
+        }
+
+        // Filter, sort and page in one pass chosen by the planner, over the candidates: only the band is left
+        int[] sorted = queryPlanner.execute(query, priceCandidates);
+        FilterResult result = new FilterResult(sorted, categoryCounts, attributeCounts, withoutCategory.cardinality(), corrected,
+                candidatePrices);
+        // Everything above was derived from the text matches; a product could join them if it matches a query
+        String correctedText = corrected;
+        resultCache.put(key, result, cacheVersion, textMatches, p -> ProductSearchIndex.matches(request.searchText(), p)
+                || (correctedText != null && ProductSearchIndex.matches(correctedText, p)));
+        return result;
+    }
+
+    // Sort index ordering for a sortBox option, null for "Default" (catalog order) and "Relevance"
+    private static ProductSortIndex.Order sortOrderOf(String sort) {
         switch (sort) {
             case "Price: Low → High":
-                filtered.sort((a,b) -> Double.compare(a.getPrice(), b.getPrice()));
-                break;
+                return ProductSortIndex.Order.PRICE_ASCENDING;
             case "Price: High → Low":
-                filtered.sort((a,b) -> Double.compare(b.getPrice(), a.getPrice()));
-                break;
+                return ProductSortIndex.Order.PRICE_DESCENDING;
             case "Name A-Z":
-                filtered.sort((a,b) -> a.getProductName().compareToIgnoreCase(b.getProductName()));
-                break;
+                return ProductSortIndex.Order.NAME_ASCENDING;
             case "Name Z-A":
-                filtered.sort((a,b) -> b.getProductName().compareToIgnoreCase(a.getProductName()));
-                break;
+                return ProductSortIndex.Order.NAME_DESCENDING;
             default:
-                break;
+                return null;
         }
+    }
 
+    // Runs on the EDT with the newest result only
+    private void showResults(FilterResult result) {
+        categoryCounts = result.categoryCounts();
+        attributeCounts = result.attributeCounts();
+        countWithoutCategory = result.countWithoutCategory();
+        correctedQuery = result.correctedQuery();
+        priceFilter.setBounds(rangeIndex.min(ProductRangeIndex.Field.PRICE), rangeIndex.max(ProductRangeIndex.Field.PRICE));
+        priceFilter.setCandidatePrices(result.candidatePrices());
+        didYouMeanLabel.setText(correctedQuery == null ? "" : "Did you mean \"" + correctedQuery + "\"?");
+        didYouMeanLabel.setVisible(correctedQuery != null);
+        didYouMeanLabel.getParent().revalidate();
+        categoryFilterBox.repaint();
+        attributeFilterBox.repaint();
+        java.util.List<Product> filtered = new ArrayList<>(result.ordinals().length);
+        for (int ordinal : result.ordinals()) {
+            Product p = shoppingManager.getProductAt(ordinal);
+            if (p != null) filtered.add(p); // removed since the search
+        }
         // Update only the main shopping page grid with the details panel callback
         // The callback will trigger updateDetailsPanel() in GUI.java
         shoppingPageGui.getProductGrid().displayProducts(filtered, () -> shoppingPageGui.updateDetailsPanel());
@@ -530,6 +825,8 @@ public class MainApp extends JFrame {
                 return;
             }
             product.decreaseQuantity(qty);
+            // Let the indexes and the result cache see the new stock
+            shoppingManager.markProductChanged(product.getProductID());
             cart.addProduct(product, qty);
             // update grids
             shoppingPageGui.getProductGrid().updateCardQuantities();
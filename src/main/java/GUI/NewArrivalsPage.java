@@ -10,6 +10,7 @@ public class NewArrivalsPage extends JPanel {
     private ArrayList<Product> products;
     private ProductGrid productGrid;
 
+    // products: the newest arrivals, newest first (see WestminsterShoppingManager.getNewestProducts)
     public NewArrivalsPage(ArrayList<Product> products) {
         this.products = products;
         setLayout(new BorderLayout());
@@ -38,10 +39,7 @@ public class NewArrivalsPage extends JPanel {
 
         // Products Grid
         productGrid = new ProductGrid();
-        ArrayList<Product> sortedProducts = new ArrayList<>(products);
-        // Sort by ID (latest products typically have higher IDs)
-        sortedProducts.sort((a, b) -> b.getProductID().compareTo(a.getProductID()));
-        productGrid.displayProducts(sortedProducts, () -> {});
+        productGrid.displayProducts(products, () -> {});
 
         add(productGrid, BorderLayout.CENTER);
 
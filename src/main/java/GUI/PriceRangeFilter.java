@@ -0,0 +1,111 @@
+package GUI;
+
+import org.example.ProductRangeIndex;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Navbar button with a popup of two price sliders (lowest and highest price).
+ * While a slider moves, the label shows how many of the current results fall in the range,
+ * answered by binary search on their sorted prices; the search itself reruns on release.
+ */
+class PriceRangeFilter {
+    private static final int STEPS = 1000;
+
+    private final JButton button = new JButton("Price ▾");
+    private final JPopupMenu popup = new JPopupMenu();
+    private final JSlider minSlider = new JSlider(0, STEPS, 0);
+    private final JSlider maxSlider = new JSlider(0, STEPS, STEPS);
+    private final JLabel rangeLabel = new JLabel();
+    private final Runnable onChange;
+
+    // Catalog price bounds the sliders span
+    private double lowest;
+    private double highest;
+    // Sorted prices of the results before the price filter, for the live count
+    private double[] candidatePrices = new double[0];
+    // Set while one slider is pushed along by the other
+    private boolean syncing;
+
+    PriceRangeFilter(Runnable onChange) {
+        this.onChange = onChange;
+        button.setFocusPainted(false);
+        button.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        button.addActionListener(e -> popup.show(button, 0, button.getHeight()));
+
+        JPanel panel = new JPanel(new GridLayout(0, 1, 0, 4));
+        panel.setBorder(BorderFactory.createEmptyBorder(8, 10, 8, 10));
+        panel.add(new JLabel("Lowest price"));
+        panel.add(minSlider);
+        panel.add(new JLabel("Highest price"));
+        panel.add(maxSlider);
+        panel.add(rangeLabel);
+        popup.add(panel);
+
+        minSlider.addChangeListener(e -> sliderMoved(minSlider, maxSlider, true));
+        maxSlider.addChangeListener(e -> sliderMoved(maxSlider, minSlider, false));
+        updateLabel();
+    }
+
+    JButton getButton() {
+        return button;
+    }
+
+    // Prices the sliders span
+    void setBounds(double lowest, double highest) {
+        if (Double.isNaN(lowest) || Double.isNaN(highest)) {
+            lowest = 0;
+            highest = 0;
+        }
+        this.lowest = lowest;
+        this.highest = highest;
+        updateLabel();
+    }
+
+    // Sorted prices of the products the other filters let through
+    void setCandidatePrices(double[] sortedPrices) {
+        candidatePrices = sortedPrices;
+        updateLabel();
+    }
+
+    // Lowest selected price, -infinity when the slider is at the bottom
+    double selectedMin() {
+        return minSlider.getValue() == 0 ? Double.NEGATIVE_INFINITY : priceAt(minSlider.getValue());
+    }
+
+    // Highest selected price, +infinity when the slider is at the top
+    double selectedMax() {
+        return maxSlider.getValue() == STEPS ? Double.POSITIVE_INFINITY : priceAt(maxSlider.getValue());
+    }
+
+    private void sliderMoved(JSlider moved, JSlider other, boolean isMin) {
+        if (syncing) {
+            return;
+        }
+        // Keep lowest <= highest
+        if (isMin ? moved.getValue() > other.getValue() : moved.getValue() < other.getValue()) {
+            syncing = true;
+            other.setValue(moved.getValue());
+            syncing = false;
+        }
+        updateLabel();
+        if (!moved.getValueIsAdjusting()) {
+            onChange.run();
+        }
+    }
+
+    private void updateLabel() {
+        double min = selectedMin();
+        double max = selectedMax();
+        int count = ProductRangeIndex.countInRange(candidatePrices, min, max);
+        rangeLabel.setText(String.format("DZD %.2f – %.2f  (%d products)",
+                Double.isInfinite(min) ? lowest : min, Double.isInfinite(max) ? highest : max, count));
+        boolean filtered = !Double.isInfinite(min) || !Double.isInfinite(max);
+        button.setText(filtered ? "Price ✓" : "Price ▾");
+    }
+
+    private double priceAt(int step) {
+        return Math.round((lowest + (highest - lowest) * step / STEPS) * 100) / 100.0;
+    }
+}
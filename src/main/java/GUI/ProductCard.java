@@ -15,6 +15,12 @@ public class ProductCard extends JPanel {
     private FadeImageLabel imageLabel;
     private ImageIcon frontImage;
     private ImageIcon sideImage;
+    // Images of the bound product and their loads still in flight (null when done or not asked for)
+    private String frontPath;
+    private String sidePath;
+    private Color categoryColor;
+    private ImageLoader.Ticket frontLoad;
+    private ImageLoader.Ticket sideLoad;
     private JLabel nameLabel;
     private JLabel priceLabel;
     private JLabel categoryLabel;
@@ -54,7 +60,6 @@ public class ProductCard extends JPanel {
     }
 
     public ProductCard(Product product, Runnable onSelectionChanged, ProductGrid parentGrid) {
-        this.product = product;
         this.parentGrid = parentGrid;
         this.onSelectionChanged = onSelectionChanged;
         
@@ -69,95 +74,32 @@ public class ProductCard extends JPanel {
         setMaximumSize(new Dimension(250, 350));
         setMinimumSize(new Dimension(180, 300));
 
-        // Image - try to load both front and side view, fallback to colored emoji placeholder
+        // Image: front and side view, or a colored emoji placeholder (see bind)
         imageLabel = new FadeImageLabel(180, 120);
-        String category = product.getProductCategory().toLowerCase();
-        Color categoryColor;
-        String categoryEmoji;
-
-        switch(category) {
-            case "electronics":
-                categoryColor = new Color(100, 150, 200);
-                categoryEmoji = "📱";
-                // light blue card
-                defaultBgColor = new Color(235, 245, 255);
-                selectedBgColor = new Color(210, 230, 255);
-                break;
-            case "clothing":
-                categoryColor = new Color(200, 150, 100);
-                categoryEmoji = "👕";
-                // light peach card
-                defaultBgColor = new Color(255, 245, 235);
-                selectedBgColor = new Color(255, 235, 215);
-                break;
-            case "books":
-                categoryColor = new Color(150, 100, 80);
-                categoryEmoji = "📚";
-                // light tan card
-                defaultBgColor = new Color(250, 245, 240);
-                selectedBgColor = new Color(240, 235, 225);
-                break;
-            case "home & garden":
-                categoryColor = new Color(100, 180, 100);
-                categoryEmoji = "🏠";
-                // light green card
-                defaultBgColor = new Color(235, 255, 235);
-                selectedBgColor = new Color(215, 245, 215);
-                break;
-            default:
-                categoryColor = new Color(150, 150, 150);
-                categoryEmoji = "📦";
-                defaultBgColor = UIColors.SURFACE;
-                selectedBgColor = UIColors.MUTED;
-        }
-        setBackground(defaultBgColor);
-
-        // Load both front and side images
-        String basePath = category.replace(" & ", "-") + "/" + product.getProductID().toLowerCase();
-        String frontPath = basePath + ".png";
-        String sidePath = basePath + "_.png";
-        frontImage = ImageUtils.loadImagePreserveAspect(frontPath, 180, 120, categoryColor);
-        sideImage = ImageUtils.loadImagePreserveAspect(sidePath, 180, 120, categoryColor);
-
-        boolean hasFront = frontImage != null && frontImage.getImage().getWidth(null) > 1;
-        boolean hasSide = sideImage != null && sideImage.getImage().getWidth(null) > 1;
-
-        if (hasFront) {
-            imageLabel.setFrontImage(frontImage.getImage());
-        }
-        if (hasSide) {
-            imageLabel.setSideImage(sideImage.getImage());
-        }
-
-        if (!hasFront && !hasSide) {
-            // Fallback to colored emoji placeholder
-            imageLabel.setPlaceholder(categoryEmoji, categoryColor);
-        }
-        
         imageLabel.setPreferredSize(new Dimension(180, 120));
         imageLabel.setMaximumSize(new Dimension(180, 120));
         imageLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
 
         // Product name
-        nameLabel = new JLabel(product.getProductName());
+        nameLabel = new JLabel();
         nameLabel.setFont(new Font("Segoe UI", Font.BOLD, 13));
         nameLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
         nameLabel.setMaximumSize(new Dimension(180, 40));
 
         // Product price
-        priceLabel = new JLabel(String.format("%d DZD", (int)product.getPrice()));
+        priceLabel = new JLabel();
         priceLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
         priceLabel.setForeground(new Color(0, 128, 0));
         priceLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
 
         // Category
-        categoryLabel = new JLabel(product.getProductCategory());
+        categoryLabel = new JLabel();
         categoryLabel.setFont(new Font("Segoe UI", Font.PLAIN, 11));
         categoryLabel.setForeground(new Color(100, 100, 100));
         categoryLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
 
         // Quantity available
-        quantityLabel = new JLabel("Stock: " + product.getQuantity());
+        quantityLabel = new JLabel();
         quantityLabel.setFont(new Font("Segoe UI", Font.PLAIN, 11));
         quantityLabel.setForeground(new Color(100, 100, 100));
         quantityLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
@@ -217,6 +159,81 @@ public class ProductCard extends JPanel {
                 setSelected(!isSelected);
             }
         });
+
+        bind(product);
+    }
+
+    /**
+     * Shows another product in this card, so a virtualized grid can reuse the card while
+     * scrolling instead of building a new one. Hover and fade state start over; the card is
+     * selected if the grid has this product selected.
+     */
+    void bind(Product product) {
+        this.product = product;
+        String category = product.getProductCategory().toLowerCase();
+        Color categoryColor;
+        String categoryEmoji;
+
+        switch(category) {
+            case "electronics":
+                categoryColor = new Color(100, 150, 200);
+                categoryEmoji = "📱";
+                // light blue card
+                defaultBgColor = new Color(235, 245, 255);
+                selectedBgColor = new Color(210, 230, 255);
+                break;
+            case "clothing":
+                categoryColor = new Color(200, 150, 100);
+                categoryEmoji = "👕";
+                // light peach card
+                defaultBgColor = new Color(255, 245, 235);
+                selectedBgColor = new Color(255, 235, 215);
+                break;
+            case "books":
+                categoryColor = new Color(150, 100, 80);
+                categoryEmoji = "📚";
+                // light tan card
+                defaultBgColor = new Color(250, 245, 240);
+                selectedBgColor = new Color(240, 235, 225);
+                break;
+            case "home & garden":
+                categoryColor = new Color(100, 180, 100);
+                categoryEmoji = "🏠";
+                // light green card
+                defaultBgColor = new Color(235, 255, 235);
+                selectedBgColor = new Color(215, 245, 215);
+                break;
+            default:
+                categoryColor = new Color(150, 150, 150);
+                categoryEmoji = "📦";
+                defaultBgColor = UIColors.SURFACE;
+                selectedBgColor = UIColors.MUTED;
+        }
+        isHovered = false;
+        if (parentGrid != null && parentGrid.isSelected(product)) {
+            showSelected(true);
+        } else {
+            isSelected = false;
+            setBackground(defaultBgColor);
+            setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
+        }
+
+        // Colored emoji placeholder until the front and side images are loaded in the background
+        cancelImageLoads();
+        String basePath = category.replace(" & ", "-") + "/" + product.getProductID().toLowerCase();
+        frontPath = basePath + ".png";
+        sidePath = basePath + "_.png";
+        this.categoryColor = categoryColor;
+        frontImage = null;
+        sideImage = null;
+        imageLabel.reset();
+        imageLabel.setPlaceholder(categoryEmoji, categoryColor);
+        loadImages(parentGrid != null ? parentGrid.imagePriority() : ImageLoader.VISIBLE);
+
+        nameLabel.setText(product.getProductName());
+        priceLabel.setText(String.format("%d DZD", (int)product.getPrice()));
+        categoryLabel.setText(product.getProductCategory());
+        quantityLabel.setText("Stock: " + product.getQuantity());
     }
 
     public Product getProduct() {
@@ -228,21 +245,11 @@ public class ProductCard extends JPanel {
     }
 
     public void setSelected(boolean selected) {
-        isSelected = selected;
-        setBackground(selected ? selectedBgColor : defaultBgColor);
-        setBorder(selected 
-            ? BorderFactory.createLineBorder(new Color(0, 102, 204), 2)
-            : BorderFactory.createLineBorder(new Color(200, 200, 200), 1));
+        showSelected(selected);
         
-        // If selected and we have a parent grid, deselect all other cards
-        if (selected && parentGrid != null) {
-            for (ProductCard card : parentGrid.getProductCards()) {
-                if (card != this && card.isCardSelected()) {
-                    card.isSelected = false;
-                    card.setBackground(card.defaultBgColor);
-                    card.setBorder(BorderFactory.createLineBorder(new Color(200, 200, 200), 1));
-                }
-            }
+        // The grid remembers the selected product and deselects all other cards
+        if (parentGrid != null) {
+            parentGrid.cardSelectionChanged(this, selected);
         }
         
         if (onSelectionChanged != null) {
@@ -250,6 +257,15 @@ public class ProductCard extends JPanel {
         }
     }
 
+    // Selection look only, without telling the grid or the listener
+    void showSelected(boolean selected) {
+        isSelected = selected;
+        setBackground(selected ? selectedBgColor : defaultBgColor);
+        setBorder(selected 
+            ? BorderFactory.createLineBorder(new Color(0, 102, 204), 2)
+            : BorderFactory.createLineBorder(new Color(200, 200, 200), 1));
+    }
+
     public boolean isCardSelected() {
         return isSelected;
     }
@@ -259,6 +275,68 @@ public class ProductCard extends JPanel {
         quantityLabel.repaint();
     }
 
+    // Keeps the card (and its images) for the same product: only the texts and the selection look
+    void refresh() {
+        nameLabel.setText(product.getProductName());
+        priceLabel.setText(String.format("%d DZD", (int)product.getPrice()));
+        quantityLabel.setText("Stock: " + product.getQuantity());
+        boolean selected = parentGrid != null && parentGrid.isSelected(product);
+        if (selected != isSelected) {
+            showSelected(selected);
+        }
+        // Loads cancelled while the card was out of the grid
+        loadImages(parentGrid != null ? parentGrid.imagePriority() : ImageLoader.VISIBLE);
+    }
+
+    // Requests the images the card does not have and is not already waiting for
+    private void loadImages(int priority) {
+        if (frontImage == null && frontLoad == null) {
+            frontLoad = ImageLoader.shared().load(frontPath, 180, 120, categoryColor, priority, this::showFrontImage);
+        }
+        if (sideImage == null && sideLoad == null) {
+            sideLoad = ImageLoader.shared().load(sidePath, 180, 120, categoryColor, priority, this::showSideImage);
+        }
+    }
+
+    // Drops the loads in flight, for a card that leaves the grid or shows another product
+    void cancelImageLoads() {
+        if (frontLoad != null) {
+            frontLoad.cancel();
+            frontLoad = null;
+        }
+        if (sideLoad != null) {
+            sideLoad.cancel();
+            sideLoad = null;
+        }
+    }
+
+    // Moves the loads in flight to the given priority (see ImageLoader.VISIBLE and HIDDEN)
+    void setImagePriority(int priority) {
+        boolean pending = (frontLoad != null && frontLoad.getPriority() != priority)
+                || (sideLoad != null && sideLoad.getPriority() != priority);
+        if (pending) {
+            cancelImageLoads();
+            loadImages(priority);
+        }
+    }
+
+    private void showFrontImage(ImageIcon icon) {
+        frontLoad = null;
+        frontImage = icon;
+        // A 1px image means nothing to show: keep the placeholder
+        if (icon.getImage().getWidth(null) > 1) {
+            imageLabel.setFrontImage(icon.getImage());
+        }
+    }
+
+    private void showSideImage(ImageIcon icon) {
+        sideLoad = null;
+        sideImage = icon;
+        if (icon.getImage().getWidth(null) > 1) {
+            imageLabel.setSideImage(icon.getImage());
+        }
+    }
+
     // Custom component that draws two images and crossfades between them.
     private static class FadeImageLabel extends JComponent {
         private Image front;
@@ -291,6 +369,18 @@ public class ProductCard extends JPanel {
             repaint();
         }
 
+        // Back to an empty front view, for a card that is shown with another product
+        void reset() {
+            if (animTimer != null) animTimer.stop();
+            front = null;
+            side = null;
+            emoji = null;
+            showPlaceholder = false;
+            alpha = 0f;
+            target = 0f;
+            repaint();
+        }
+
         void setPlaceholder(String emoji, Color color) {
             this.emoji = emoji;
             this.placeholderColor = color;
@@ -4,10 +4,32 @@ import org.example.Product;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 
+/**
+ * Scrollable grid of product cards.
+ *
+ * By default every product gets its own card. A virtualized grid (new ProductGrid(true)) only
+ * creates cards for the rows that intersect the viewport, plus OVERSCAN_ROWS above and below.
+ * While scrolling, cards that leave that window go to a spare pool and are rebound to the
+ * products coming into view. All cells have the same size, so the row of any scroll position is
+ * plain arithmetic. Scrolling and showing a new list cost the number of visible cards, not the
+ * number of products.
+ *
+ * Showing a new list reconciles it with the cards already there, keyed by product ID: a product
+ * that stays keeps its card (no new components, no image reload), so a filter change only pays
+ * for the products that come and go, plus one revalidate.
+ *
+ * Cards load their images through {@link ImageLoader}: cards in view go first, and a card
+ * that leaves the grid (or the window of a virtualized one) drops the loads it still waits for.
+ */
 public class ProductGrid extends JPanel {
     private List<ProductCard> productCards = new ArrayList<>();
     private JPanel gridPanel;
@@ -15,16 +37,46 @@ public class ProductGrid extends JPanel {
     private static final String[] CATEGORIES = {"All", "Electronics", "Clothing", "Books", "Home & Garden"};
     private Consumer<Product> addToCartHandler;
 
+    // Virtualized layout: fixed cells of the card's preferred size
+    private static final int PADDING = 15;
+    private static final int GAP = 20;
+    private static final int OVERSCAN_ROWS = 1;
+    private static final Dimension CELL = new Dimension(200, 320);
+
+    private final boolean virtualized;
+    // Virtualized mode: every product of the list, the cards showing some of them, and unused cards
+    private List<Product> products = new ArrayList<>();
+    private final Map<Integer, ProductCard> cardsByIndex = new HashMap<>();
+    // Unused cards by the ID of the product they still show, so that product gets its card back
+    private final LinkedHashMap<String, ProductCard> spareCardsById = new LinkedHashMap<>();
+    // Unused cards whose ID was already taken in spareCardsById
+    private final ArrayDeque<ProductCard> spareCards = new ArrayDeque<>();
+    // Selection callback of the current list; cards call it through the grid so reused cards follow
+    private Runnable onSelectionChanged = () -> {};
+
+    // Selected product; kept here since a virtualized grid reuses its cards for other products
+    private Product selectedProduct;
+
     public ProductGrid() {
+        this(false);
+    }
+
+    // virtualized: cards for the visible rows only, for grids that can show the whole catalog
+    public ProductGrid(boolean virtualized) {
+        this.virtualized = virtualized;
         setLayout(new BorderLayout());
         setOpaque(false);
-        
-        gridPanel = new JPanel();
-        // Use custom WrapLayout for flexbox-like behavior
-        gridPanel.setLayout(new WrapLayout(WrapLayout.CENTER, 20, 20));
+
+        if (virtualized) {
+            gridPanel = new VirtualGridPanel();
+        } else {
+            gridPanel = new JPanel();
+            // Use custom WrapLayout for flexbox-like behavior
+            gridPanel.setLayout(new WrapLayout(WrapLayout.CENTER, 20, 20));
+            gridPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+        }
         gridPanel.setOpaque(false);
         gridPanel.setBackground(new Color(255, 255, 255, 0));
-        gridPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
 
         scrollPane = new JScrollPane(gridPanel);
         scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
@@ -32,42 +84,116 @@ public class ProductGrid extends JPanel {
         scrollPane.getVerticalScrollBar().setUnitIncrement(16);
         scrollPane.setOpaque(false);
         scrollPane.getViewport().setOpaque(false);
-        
+        if (virtualized) {
+            // Fired on scroll and on resize: bring the cards in line with the new window
+            scrollPane.getViewport().addChangeListener(e -> layoutVisibleCards());
+        } else {
+            scrollPane.getViewport().addChangeListener(e -> prioritizeVisibleImages());
+        }
+
         add(scrollPane, BorderLayout.CENTER);
         setBackground(Color.WHITE);
     }
 
+    // New card for a product, wired to the grid's current selection callback and add-to-cart handler
+    private ProductCard createCard(Product product) {
+        ProductCard card = new ProductCard(product, () -> onSelectionChanged.run(), this);
+        addProductCard(card);
+        return card;
+    }
+
     public void addProductCard(ProductCard card) {
         productCards.add(card);
         gridPanel.add(card);
-        // attach add-to-cart action if handler is set
-        if (addToCartHandler != null) {
-            card.getAddToCartButton().addActionListener(e -> addToCartHandler.accept(card.getProduct()));
-        }
+        // Looks the handler and the card's current product up on click, so rebound cards stay right
+        card.getAddToCartButton().addActionListener(e -> {
+            if (addToCartHandler != null) {
+                addToCartHandler.accept(card.getProduct());
+            }
+        });
     }
 
     public void clearCards() {
+        for (ProductCard card : productCards) {
+            card.cancelImageLoads();
+        }
         gridPanel.removeAll();
         productCards.clear();
+        cardsByIndex.clear();
+        spareCardsById.clear();
+        spareCards.clear();
     }
 
     public void displayProducts(List<Product> products, Runnable onSelectionChanged) {
-        clearCards();
-        for (Product product : products) {
-            ProductCard card = new ProductCard(product, onSelectionChanged, this);
-            addProductCard(card);
+        selectedProduct = null;
+        this.onSelectionChanged = onSelectionChanged;
+        if (virtualized) {
+            this.products = new ArrayList<>(products);
+            releaseCards(0, 0);
+            gridPanel.revalidate();
+            scrollPane.getVerticalScrollBar().setValue(0);
+            layoutVisibleCards();
+            gridPanel.repaint();
+            return;
         }
+        reconcileCards(products);
         gridPanel.revalidate();
         gridPanel.repaint();
-        
-        // Reset scroll position to top so newly displayed products are visible
-        SwingUtilities.invokeLater(() -> scrollPane.getVerticalScrollBar().setValue(0));
+
+        // Reset scroll position to top so newly displayed products are visible, then load their images first
+        SwingUtilities.invokeLater(() -> {
+            scrollPane.getVerticalScrollBar().setValue(0);
+            prioritizeVisibleImages();
+        });
+    }
+
+    /**
+     * Makes the grid's children one card per product, in list order, reusing the card already
+     * showing a product with the same ID. Cards of products that left are removed, new products
+     * get new cards, and a card is only moved when it is not already in its place.
+     */
+    private void reconcileCards(List<Product> products) {
+        Map<String, ProductCard> existing = new HashMap<>();
+        for (ProductCard card : productCards) {
+            existing.put(card.getProduct().getProductID(), card);
+        }
+        List<ProductCard> cards = new ArrayList<>(products.size());
+        for (Product product : products) {
+            ProductCard card = existing.remove(product.getProductID());
+            if (card == null) {
+                card = createCard(product);
+            } else {
+                reuse(card, product);
+            }
+            cards.add(card);
+        }
+        for (ProductCard removed : existing.values()) {
+            removed.cancelImageLoads();
+            gridPanel.remove(removed);
+        }
+        // Cards before i are in place, so moving the card for i cannot shift them
+        for (int i = 0; i < cards.size(); i++) {
+            if (gridPanel.getComponent(i) != cards.get(i)) {
+                gridPanel.add(cards.get(i), i);
+            }
+        }
+        productCards = cards;
+    }
+
+    // Shows the product in a card that last showed the same ID: a refresh, or a rebind if the object changed
+    private static void reuse(ProductCard card, Product product) {
+        if (card.getProduct() == product) {
+            card.refresh();
+        } else {
+            card.bind(product);
+        }
     }
 
     public void setAddToCartHandler(Consumer<Product> handler) {
         this.addToCartHandler = handler;
     }
 
+    // Cards currently showing a product (in a virtualized grid, only those in view)
     public List<ProductCard> getProductCards() {
         return new ArrayList<>(productCards);
     }
@@ -81,12 +207,18 @@ public class ProductGrid extends JPanel {
         return null;
     }
 
+    // Selected product, also when its card has been scrolled out of a virtualized grid
+    public Product getSelectedProduct() {
+        return selectedProduct;
+    }
+
     public void clearSelection() {
         for (ProductCard card : productCards) {
             if (card.isCardSelected()) {
                 card.setSelected(false);
             }
         }
+        selectedProduct = null;
     }
 
     public void updateCardQuantities() {
@@ -94,4 +226,158 @@ public class ProductGrid extends JPanel {
             card.updateQuantity();
         }
     }
+
+    // Priority of a card's first image loads: every card of a virtualized grid is in view, the
+    // cards of an eager grid start hidden until prioritizeVisibleImages sees where they are
+    int imagePriority() {
+        return virtualized ? ImageLoader.VISIBLE : ImageLoader.HIDDEN;
+    }
+
+    // Eager grid: images of the cards in the viewport load before the others
+    private void prioritizeVisibleImages() {
+        Rectangle view = scrollPane.getViewport().getViewRect();
+        for (ProductCard card : productCards) {
+            card.setImagePriority(card.getBounds().intersects(view) ? ImageLoader.VISIBLE : ImageLoader.HIDDEN);
+        }
+    }
+
+    boolean isSelected(Product product) {
+        return product != null && product == selectedProduct;
+    }
+
+    // Called by a card the user (de)selected: remember the product, deselect the other cards
+    void cardSelectionChanged(ProductCard card, boolean selected) {
+        if (selected) {
+            selectedProduct = card.getProduct();
+            for (ProductCard other : productCards) {
+                if (other != card && other.isCardSelected()) {
+                    other.showSelected(false);
+                }
+            }
+        } else if (selectedProduct == card.getProduct()) {
+            selectedProduct = null;
+        }
+    }
+
+    // ---- virtualized layout ----
+
+    private int columns(int width) {
+        return Math.max(1, (width - 2 * PADDING + GAP) / (CELL.width + GAP));
+    }
+
+    private int contentHeight(int columns) {
+        int rows = (products.size() + columns - 1) / columns;
+        return 2 * PADDING + rows * CELL.height + Math.max(0, rows - 1) * GAP;
+    }
+
+    // Shows the products of the rows in view: keeps the cards already there, rebinds spare ones for the rest
+    private void layoutVisibleCards() {
+        int width = scrollPane.getViewport().getWidth();
+        if (width <= 0) {
+            width = gridPanel.getPreferredSize().width;
+        }
+        Rectangle view = scrollPane.getViewport().getViewRect();
+        int columns = columns(width);
+        int rowHeight = CELL.height + GAP;
+        int firstRow = Math.max(0, (view.y - PADDING) / rowHeight - OVERSCAN_ROWS);
+        int lastRow = Math.max(0, (view.y + view.height - PADDING) / rowHeight + OVERSCAN_ROWS);
+        int from = Math.min(products.size(), firstRow * columns);
+        int to = (int) Math.min(products.size(), (long) (lastRow + 1) * columns);
+
+        releaseCards(from, to);
+        int left = Math.max(PADDING, (width - (columns * CELL.width + (columns - 1) * GAP)) / 2);
+        for (int index = from; index < to; index++) {
+            ProductCard card = cardsByIndex.get(index);
+            if (card == null) {
+                card = takeSpareCard(products.get(index));
+                cardsByIndex.put(index, card);
+            }
+            int row = index / columns;
+            int column = index % columns;
+            card.setBounds(left + column * (CELL.width + GAP), PADDING + row * rowHeight, CELL.width, CELL.height);
+        }
+        productCards = new ArrayList<>(cardsByIndex.values());
+        if (gridPanel.getHeight() != contentHeight(columns)) {
+            gridPanel.revalidate();
+        }
+        gridPanel.repaint();
+    }
+
+    // Hides the cards outside [from, to) and keeps them for reuse
+    private void releaseCards(int from, int to) {
+        Iterator<Map.Entry<Integer, ProductCard>> cards = cardsByIndex.entrySet().iterator();
+        while (cards.hasNext()) {
+            Map.Entry<Integer, ProductCard> entry = cards.next();
+            if (entry.getKey() < from || entry.getKey() >= to) {
+                ProductCard card = entry.getValue();
+                card.setVisible(false);
+                card.cancelImageLoads();
+                ProductCard sameId = spareCardsById.put(card.getProduct().getProductID(), card);
+                if (sameId != null) {
+                    spareCards.push(sameId);
+                }
+                cards.remove();
+            }
+        }
+        productCards = new ArrayList<>(cardsByIndex.values());
+    }
+
+    // A card for the product: the spare one that already shows it, else any spare card rebound, else a new one
+    private ProductCard takeSpareCard(Product product) {
+        ProductCard card = spareCardsById.remove(product.getProductID());
+        if (card != null) {
+            reuse(card, product);
+        } else {
+            card = spareCards.poll();
+            if (card == null && !spareCardsById.isEmpty()) {
+                Iterator<ProductCard> oldest = spareCardsById.values().iterator();
+                card = oldest.next();
+                oldest.remove();
+            }
+            if (card == null) {
+                return createCard(product);
+            }
+            card.bind(product);
+        }
+        card.setVisible(true);
+        return card;
+    }
+
+    // Content of a virtualized grid: as tall as all rows, cards placed by layoutVisibleCards
+    private class VirtualGridPanel extends JPanel implements Scrollable {
+        VirtualGridPanel() {
+            super(null);
+        }
+
+        @Override
+        public Dimension getPreferredSize() {
+            int width = getParent() != null && getParent().getWidth() > 0 ? getParent().getWidth() : CELL.width + 2 * PADDING;
+            return new Dimension(width, contentHeight(columns(width)));
+        }
+
+        @Override
+        public Dimension getPreferredScrollableViewportSize() {
+            return getPreferredSize();
+        }
+
+        @Override
+        public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+            return 16;
+        }
+
+        @Override
+        public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+            return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+        }
+
+        @Override
+        public boolean getScrollableTracksViewportWidth() {
+            return true;
+        }
+
+        @Override
+        public boolean getScrollableTracksViewportHeight() {
+            return false;
+        }
+    }
 }
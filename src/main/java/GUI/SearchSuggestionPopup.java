@@ -0,0 +1,117 @@
+package GUI;
+
+import org.example.SearchSuggestions;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Autocomplete dropdown under the navbar search field.
+ * Up/Down move through the suggestions, Enter or a click picks one, Escape closes the list.
+ * The popup never takes the focus, so typing continues in the search field.
+ */
+class SearchSuggestionPopup {
+    private final JTextField field;
+    private final Consumer<String> onPick;
+    private final JPopupMenu popup = new JPopupMenu();
+    private final DefaultListModel<SearchSuggestions.Suggestion> model = new DefaultListModel<>();
+    private final JList<SearchSuggestions.Suggestion> list = new JList<>(model);
+
+    SearchSuggestionPopup(JTextField field, Consumer<String> onPick) {
+        this.field = field;
+        this.onPick = onPick;
+
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setFocusable(false);
+        list.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                SearchSuggestions.Suggestion suggestion = (SearchSuggestions.Suggestion) value;
+                String text = String.format("<html>%s <span style='color:#757575;font-size:9px;'>%s · %d in stock</span></html>",
+                        escape(suggestion.text()), suggestion.kind(), suggestion.stock());
+                return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+            }
+        });
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int index = list.locationToIndex(e.getPoint());
+                if (index >= 0) {
+                    pick(model.get(index));
+                }
+            }
+        });
+
+        popup.setFocusable(false);
+        popup.setBorder(BorderFactory.createLineBorder(UIColors.BORDER));
+        popup.add(new JScrollPane(list));
+
+        field.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (!popup.isVisible()) {
+                    return;
+                }
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_DOWN -> moveSelection(1);
+                    case KeyEvent.VK_UP -> moveSelection(-1);
+                    case KeyEvent.VK_ENTER -> {
+                        if (list.getSelectedValue() != null) {
+                            pick(list.getSelectedValue());
+                        }
+                    }
+                    case KeyEvent.VK_ESCAPE -> hide();
+                    default -> {
+                        return;
+                    }
+                }
+                e.consume();
+            }
+        });
+    }
+
+    // Shows the suggestions under the field, or hides the popup if there are none
+    void show(List<SearchSuggestions.Suggestion> suggestions) {
+        model.clear();
+        if (suggestions.isEmpty() || !field.isShowing()) {
+            hide();
+            return;
+        }
+        suggestions.forEach(model::addElement);
+        list.setVisibleRowCount(suggestions.size());
+        popup.setPopupSize(Math.max(field.getWidth(), 240), list.getPreferredScrollableViewportSize().height + 6);
+        if (!popup.isVisible()) {
+            popup.show(field, 0, field.getHeight());
+        } else {
+            popup.pack();
+        }
+    }
+
+    void hide() {
+        popup.setVisible(false);
+    }
+
+    private void moveSelection(int step) {
+        int index = list.getSelectedIndex() + step;
+        if (index >= 0 && index < model.size()) {
+            list.setSelectedIndex(index);
+            list.ensureIndexIsVisible(index);
+        }
+    }
+
+    private void pick(SearchSuggestions.Suggestion suggestion) {
+        hide();
+        onPick.accept(suggestion.text());
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
@@ -0,0 +1,216 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Columnar view of the catalog keyed by product ordinal (see {@link ProductCatalog}).
+ *
+ * Quantities, prices (in minor units, i.e. cents) and category codes are kept in parallel
+ * primitive arrays, so whole-catalog aggregates, filters and price sorts run as tight loops
+ * over contiguous memory instead of chasing one Product pointer per row.
+ * An empty slot (removed product) has category code {@link #NONE} and is skipped by every scan.
+ *
+ * The catalog keeps this view up to date for changes made through it; code that mutates a
+ * Product directly must call {@link ProductCatalog#refresh(String)} afterwards.
+ */
+public class CatalogColumns {
+    // Category codes
+    public static final byte NONE = 0;
+    public static final byte ELECTRONICS = 1;
+    public static final byte CLOTHING = 2;
+    public static final byte BOOKS = 3;
+    public static final byte HOME_GARDEN = 4;
+    public static final byte OTHER = 5;
+    public static final int CATEGORY_COUNT = 6;
+
+    private int[] quantities;
+    private long[] prices;
+    private byte[] categories;
+    private int limit;
+
+    CatalogColumns(int capacity) {
+        quantities = new int[capacity];
+        prices = new long[capacity];
+        categories = new byte[capacity];
+    }
+
+    // Category code for a category name as returned by Product.getProductCategory()
+    public static byte categoryCode(String category) {
+        switch (category) {
+            case "Electronics":
+                return ELECTRONICS;
+            case "Clothing":
+                return CLOTHING;
+            case "Books":
+                return BOOKS;
+            case "Home & Garden":
+                return HOME_GARDEN;
+            default:
+                return OTHER;
+        }
+    }
+
+    public static long toMinorUnits(double price) {
+        return Math.round(price * 100);
+    }
+
+    // ------------ maintained by ProductCatalog ------------------
+    void set(int ordinal, Product product) {
+        if (ordinal >= quantities.length) {
+            int capacity = Math.max(ordinal + 1, quantities.length + (quantities.length >> 1));
+            quantities = Arrays.copyOf(quantities, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+        }
+        quantities[ordinal] = product.getQuantity();
+        prices[ordinal] = toMinorUnits(product.getPrice());
+        categories[ordinal] = categoryCode(product.getProductCategory());
+        limit = Math.max(limit, ordinal + 1);
+    }
+
+    void clear(int ordinal) {
+        quantities[ordinal] = 0;
+        prices[ordinal] = 0;
+        categories[ordinal] = NONE;
+    }
+
+    void clearAll() {
+        Arrays.fill(quantities, 0, limit, 0);
+        Arrays.fill(prices, 0, limit, 0);
+        Arrays.fill(categories, 0, limit, NONE);
+        limit = 0;
+    }
+
+    // ------------ column access ------------------
+    public int quantityAt(int ordinal) {
+        return quantities[ordinal];
+    }
+
+    public long priceAt(int ordinal) {
+        return prices[ordinal];
+    }
+
+    public byte categoryAt(int ordinal) {
+        return categories[ordinal];
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    // ------------ aggregates ------------------
+    // Sum of quantity * price over the whole catalog, in minor units
+    public long totalStockValue() {
+        long total = 0;
+        for (int i = 0; i < limit; i++) {
+            total += quantities[i] * prices[i];
+        }
+        return total;
+    }
+
+    // Sum of quantities over the whole catalog
+    public long totalQuantity() {
+        long total = 0;
+        for (int i = 0; i < limit; i++) {
+            total += quantities[i];
+        }
+        return total;
+    }
+
+    // Number of products per category code, indexed by code
+    public int[] countsByCategory() {
+        int[] counts = new int[CATEGORY_COUNT];
+        for (int i = 0; i < limit; i++) {
+            counts[categories[i]]++;
+        }
+        counts[NONE] = 0;
+        return counts;
+    }
+
+    public int countInCategory(byte category) {
+        int count = 0;
+        for (int i = 0; i < limit; i++) {
+            if (categories[i] == category) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // ------------ filters and sorts ------------------
+    /**
+     * Ordinals of products priced within [minPrice, maxPrice] (minor units), in ordinal order.
+     * Pass {@link #NONE} as category to match every category.
+     */
+    public int[] filterByPrice(long minPrice, long maxPrice, byte category) {
+        int[] result = new int[16];
+        int count = 0;
+        for (int i = 0; i < limit; i++) {
+            byte code = categories[i];
+            if (code != NONE && (category == NONE || code == category)
+                    && prices[i] >= minPrice && prices[i] <= maxPrice) {
+                if (count == result.length) {
+                    result = Arrays.copyOf(result, count * 2);
+                }
+                result[count++] = i;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    // Ordinals of products with at most the given stock, in ordinal order
+    public int[] filterLowStock(int maxQuantity) {
+        int[] result = new int[16];
+        int count = 0;
+        for (int i = 0; i < limit; i++) {
+            if (categories[i] != NONE && quantities[i] <= maxQuantity) {
+                if (count == result.length) {
+                    result = Arrays.copyOf(result, count * 2);
+                }
+                result[count++] = i;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Sorts the given ordinals by price in place. Ties keep ordinal order.
+     * Price and ordinal are packed into one long and sorted as primitives when they fit,
+     * which holds for any realistic price; otherwise it falls back to a comparator sort.
+     */
+    public void sortByPrice(int[] ordinals, boolean ascending) {
+        int ordinalBits = Math.max(1, 32 - Integer.numberOfLeadingZeros(Math.max(1, limit - 1)));
+        long maxPrice = 0;
+        for (int ordinal : ordinals) {
+            maxPrice = Math.max(maxPrice, prices[ordinal]);
+        }
+        if (maxPrice >= (1L << (63 - ordinalBits))) {
+            sortByPriceBoxed(ordinals, ascending);
+            return;
+        }
+        long ordinalMask = (1L << ordinalBits) - 1;
+        long[] keys = new long[ordinals.length];
+        for (int i = 0; i < ordinals.length; i++) {
+            long price = ascending ? prices[ordinals[i]] : maxPrice - prices[ordinals[i]];
+            keys[i] = (price << ordinalBits) | ordinals[i];
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < keys.length; i++) {
+            ordinals[i] = (int) (keys[i] & ordinalMask);
+        }
+    }
+
+    private void sortByPriceBoxed(int[] ordinals, boolean ascending) {
+        Integer[] boxed = new Integer[ordinals.length];
+        for (int i = 0; i < ordinals.length; i++) {
+            boxed[i] = ordinals[i];
+        }
+        Arrays.sort(boxed, (a, b) -> {
+            int byPrice = ascending ? Long.compare(prices[a], prices[b]) : Long.compare(prices[b], prices[a]);
+            return byPrice != 0 ? byPrice : Integer.compare(a, b);
+        });
+        for (int i = 0; i < ordinals.length; i++) {
+            ordinals[i] = boxed[i];
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.example;
+
+/**
+ * Receives changes made to a {@link ProductCatalog}, so secondary indexes can follow them
+ * incrementally. Callbacks run on the thread that changed the catalog, after the change.
+ */
+public interface CatalogListener {
+    // A product was stored at the ordinal
+    default void productAdded(int ordinal, Product product) {
+    }
+
+    // The product at the ordinal was removed, the ordinal is not reused
+    default void productRemoved(int ordinal, Product product) {
+    }
+
+    // The product at the ordinal changed in place (stock, price or other fields)
+    default void productChanged(int ordinal, Product product) {
+    }
+
+    // Every product was removed and ordinals start over at 0
+    default void catalogCleared() {
+    }
+}
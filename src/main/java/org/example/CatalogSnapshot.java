@@ -0,0 +1,122 @@
+package org.example;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary catalog snapshot (products.bin).
+ *
+ * Layout:
+ * <pre>
+ *   magic    4 bytes  "KSNP"
+ *   version  4 bytes  {@link #VERSION}
+ *   count    8 bytes  number of product records
+ *   records  count x {@link ProductRecords} entries
+ *   crc32    8 bytes  checksum of the record bytes
+ * </pre>
+ * Restoring reads the file with one bulk read and decodes fixed-width numbers and length-prefixed
+ * strings straight from that buffer, so a restart costs little more than reading the file.
+ */
+public final class CatalogSnapshot {
+    static final int MAGIC = 0x4B534E50; // "KSNP"
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int TRAILER_BYTES = 8;
+
+    private CatalogSnapshot() {
+    }
+
+    // Writes every product into the snapshot file, replacing it atomically
+    public static void write(Path file, Collection<Product> products) throws IOException {
+        AtomicFiles.write(file, out -> write(out, products));
+    }
+
+    // Writes a complete snapshot (header, records, checksum) to the stream
+    public static void write(OutputStream stream, Collection<Product> products) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 64 * 1024));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(products.size());
+
+        CRC32 crc = new CRC32();
+        DataOutputStream records = new DataOutputStream(new CheckedOutputStream(out, crc));
+        for (Product product : products) {
+            ProductRecords.write(records, product);
+        }
+        records.flush();
+        out.writeLong(crc.getValue());
+        out.flush();
+    }
+
+    /**
+     * Reads every product in the snapshot and hands it to the sink, in the order they were written.
+     * Throws an IOException if the file is not a snapshot, has an unsupported version or is corrupt.
+     * Returns the number of products read.
+     */
+    public static int read(Path file, Consumer<Product> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + TRAILER_BYTES) {
+                throw new IOException("Snapshot too short: " + file);
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot larger than 2 GB is not supported: " + file);
+            }
+            // One bulk read; the snapshot gets replaced on every save, so it is not kept mapped
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading until the buffer is full
+            }
+            buffer.flip();
+            return read(buffer, sink);
+        }
+    }
+
+    static int read(ByteBuffer buffer, Consumer<Product> sink) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a catalog snapshot");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        long count = buffer.getLong();
+        int recordsEnd = buffer.limit() - TRAILER_BYTES;
+
+        // Verify the checksum before handing out any product
+        CRC32 crc = new CRC32();
+        ByteBuffer records = buffer.duplicate();
+        records.limit(recordsEnd);
+        crc.update(records);
+        if (crc.getValue() != buffer.getLong(recordsEnd)) {
+            throw new IOException("Snapshot checksum mismatch");
+        }
+
+        ByteBuffer in = buffer.duplicate();
+        in.limit(recordsEnd);
+        try {
+            for (long i = 0; i < count; i++) {
+                sink.accept(ProductRecords.read(in));
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Snapshot truncated", e);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid product in snapshot: " + e.getMessage(), e);
+        }
+        if (in.hasRemaining()) {
+            throw new IOException("Unexpected bytes after the last snapshot record");
+        }
+        return (int) count;
+    }
+}
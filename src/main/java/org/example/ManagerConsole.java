@@ -66,7 +66,7 @@ public class ManagerConsole {
     // ----------------------------------------------------------------
 
 
-    public static String validateProductID(Scanner input, String productType, List<Product> productList) {
+    public static String validateProductID(Scanner input, String productType, ShoppingManager shoppingManager) {
         while (true) {
             String productID = getProductDetails(input, "Please Enter The ProductID:");
 
@@ -76,15 +76,16 @@ public class ManagerConsole {
                 continue;
             }
 
+            // Capitalize the first letter
+            productID = productID.toUpperCase();
+
             // Validate format
-            if (!productID.matches("[EC]{1}\\d{3}")) {
-                System.out.println("Invalid product ID format. Please enter an ID starting with E or C (capitalized) followed by 3 numbers (e.g., E001, C237).");
+            if (!ProductIds.isValid(productID)) {
+                System.out.println("Invalid product ID format. Please enter an ID starting with E or C followed by "
+                        + ProductIds.MIN_DIGITS + " to " + ProductIds.MAX_DIGITS + " numbers (e.g., E001, C000237).");
                 continue;
             }
 
-            // Capitalize the first letter
-            productID = productID.toUpperCase();
-
             // Check if the ID matches the product type
             char expectedPrefix = productType.toUpperCase().charAt(0);
             if (productID.charAt(0) != expectedPrefix) {
@@ -93,18 +94,12 @@ public class ManagerConsole {
             }
 
             // Check for duplicate IDs
-            boolean idExists = false;
-            for (Product product : productList) {
-                if (product.getProductID().equals(productID)) {
-                    System.out.println("Product ID already exists. Please choose a different ID.");
-                    idExists = true;
-                    break;
-                }
+            if (shoppingManager.getProductByID(productID) != null) {
+                System.out.println("Product ID already exists. Please choose a different ID.");
+                continue;
             }
 
-            if (!idExists) {
-                return productID;  // Valid ID, return it
-            }
+            return productID;  // Valid ID, return it
         }
     }
 
@@ -166,7 +161,7 @@ public class ManagerConsole {
                     String productType = productTypeValidation(input);
 
                     // Get the inputs form the manager
-                    String productID = validateProductID(input, productType, shoppingManager.getAllProducts()); // get + validate the productID
+                    String productID = validateProductID(input, productType, shoppingManager); // get + validate the productID
 
                     String productName = getProductDetails(input, "Please Enter The Product Name:");
                     int quantity = getProductDetailsInt(input, "How many "
@@ -224,21 +219,9 @@ public class ManagerConsole {
                 case 4:
                     // Print a list of products
                     // Print all products in the system alphabetically by productId
-                    ArrayList<Product> listOfProducts = (ArrayList<Product>) shoppingManager.getAllProducts();
-
-                    // Bubble sort to alphabetically order the products by productId
-                    for (int i = 0; i < listOfProducts.size() - 1; i++) {
-                        for (int j = 0; j < listOfProducts.size() - i - 1; j++) {
-                            String productId1 = listOfProducts.get(j).getProductID();
-                            String productId2 = listOfProducts.get(j + 1).getProductID();
-                            if (productId1.compareToIgnoreCase(productId2) > 0) {
-                                // Swap products if they are in the wrong order
-                                Product temp = listOfProducts.get(j);
-                                listOfProducts.set(j, listOfProducts.get(j + 1));
-                                listOfProducts.set(j + 1, temp);
-                            }
-                        }
-                    }
+                    // (read off the ID ordering the sort index keeps, no sort per listing)
+                    List<Product> listOfProducts = shoppingManager.findProducts(
+                            ProductQuery.all().sortedBy(ProductSortIndex.Order.ID_ASCENDING));
 
                     System.out.println("Number of products: " + listOfProducts.size());  // Debug print
 
@@ -268,5 +251,8 @@ public class ManagerConsole {
 
             displayMenu();
         }
+
+        // finish journal compaction before exiting
+        shoppingManager.close();
     }
 }
@@ -0,0 +1,259 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * File of fixed-size pages with a bounded LRU page cache.
+ *
+ * Page 0 is the header:
+ * <pre>
+ *   magic      4 bytes  "KPGF"
+ *   version    4 bytes  {@link #VERSION}
+ *   pageSize   4 bytes
+ *   pageCount  4 bytes  pages in the file, header included
+ *   freeHead   4 bytes  first page of the free list, 0 if empty
+ *   root       4 bytes  root page of the tree stored in the file, 0 if none
+ *   count      8 bytes  number of records stored in the tree
+ * </pre>
+ * Free pages are chained through their first 4 bytes.
+ *
+ * At most {@code maxCachedPages} pages are held in memory, so memory use is about
+ * maxCachedPages * pageSize, whatever the size of the file. Changed pages are only written by
+ * {@link #flush()}, which also writes the header and forces the file to disk: eviction drops
+ * clean pages and never writes a changed one (no-steal). Between flushes the file therefore
+ * keeps the pages of the last flush, never a mix of old and new pages. When every cached page
+ * has changed, the cache grows past its limit until the owner calls {@link #checkpointIfFull()}
+ * at a point where the pages are consistent.
+ */
+public class PageStore implements AutoCloseable {
+    public static final int DEFAULT_PAGE_SIZE = 4096;
+    static final int MAGIC = 0x4B504746; // "KPGF"
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+
+    private final FileChannel channel;
+    private final int pageSize;
+    private final int maxCachedPages;
+    private int pageCount;
+    private int freeHead;
+    private int root;
+    private long count;
+
+    // Page ID -> cached page, least recently used first
+    private final LinkedHashMap<Integer, CachedPage> cache;
+
+    private static final class CachedPage {
+        final ByteBuffer data;
+        boolean dirty;
+
+        CachedPage(ByteBuffer data) {
+            this.data = data;
+        }
+    }
+
+    // Opens the page file, creating it if it does not exist yet
+    public PageStore(Path file, int pageSize, int maxCachedPages) throws IOException {
+        if (pageSize < 512 || Integer.bitCount(pageSize) != 1) {
+            throw new IllegalArgumentException("Page size must be a power of two of at least 512 bytes: " + pageSize);
+        }
+        this.pageSize = pageSize;
+        this.maxCachedPages = Math.max(4, maxCachedPages);
+        cache = new LinkedHashMap<>(this.maxCachedPages * 2, 0.75f, true);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                pageCount = 1;
+                writeHeader();
+            } else {
+                readHeader(file);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void readHeader(Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+            // keep reading until the header is complete
+        }
+        header.flip();
+        if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+            throw new IOException("Not a page file: " + file);
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported page file version " + version);
+        }
+        int filePageSize = header.getInt();
+        if (filePageSize != pageSize) {
+            throw new IOException("Page file uses " + filePageSize + " byte pages, not " + pageSize);
+        }
+        pageCount = header.getInt();
+        freeHead = header.getInt();
+        root = header.getInt();
+        count = header.getLong();
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(pageSize);
+        header.putInt(MAGIC).putInt(VERSION).putInt(pageSize).putInt(pageCount)
+                .putInt(freeHead).putInt(root).putLong(count);
+        header.clear();
+        writeFully(header, 0);
+    }
+
+    // ---- pages ----
+
+    public int pageSize() {
+        return pageSize;
+    }
+
+    // Read-only view of a page
+    public ByteBuffer read(int pageId) throws IOException {
+        return page(pageId).data.asReadOnlyBuffer().clear();
+    }
+
+    // Replaces the content of a page (at most pageSize bytes, the rest is zeroed)
+    public void write(int pageId, ByteBuffer content) throws IOException {
+        CachedPage page = page(pageId);
+        ByteBuffer data = page.data.clear();
+        data.put(content);
+        while (data.hasRemaining()) {
+            data.put((byte) 0);
+        }
+        page.dirty = true;
+    }
+
+    // Returns a page for new content, reusing freed pages first
+    public int allocate() throws IOException {
+        if (freeHead != 0) {
+            int pageId = freeHead;
+            freeHead = page(pageId).data.getInt(0);
+            return pageId;
+        }
+        int pageId = pageCount++;
+        CachedPage page = new CachedPage(ByteBuffer.allocate(pageSize));
+        page.dirty = true;
+        cache(pageId, page);
+        return pageId;
+    }
+
+    // Puts a page on the free list
+    public void free(int pageId) throws IOException {
+        write(pageId, ByteBuffer.allocate(4).putInt(0, freeHead));
+        freeHead = pageId;
+    }
+
+    private CachedPage page(int pageId) throws IOException {
+        if (pageId <= 0 || pageId >= pageCount) {
+            throw new IOException("Page " + pageId + " is outside the file");
+        }
+        CachedPage page = cache.get(pageId);
+        if (page == null) {
+            ByteBuffer data = ByteBuffer.allocate(pageSize);
+            long position = (long) pageId * pageSize;
+            while (data.hasRemaining()) {
+                int read = channel.read(data, position + data.position());
+                if (read < 0) {
+                    break; // allocated but never written, reads as zeros
+                }
+            }
+            page = new CachedPage(data);
+            cache(pageId, page);
+        }
+        return page;
+    }
+
+    private void cache(int pageId, CachedPage page) {
+        cache.put(pageId, page);
+        evictCleanPages(pageId);
+    }
+
+    // Drops least recently used clean pages (except keep) until the cache fits; changed pages stay
+    private void evictCleanPages(int keep) {
+        Iterator<Map.Entry<Integer, CachedPage>> eldest = cache.entrySet().iterator();
+        while (cache.size() > maxCachedPages && eldest.hasNext()) {
+            Map.Entry<Integer, CachedPage> entry = eldest.next();
+            if (entry.getKey() != keep && !entry.getValue().dirty) {
+                eldest.remove();
+            }
+        }
+    }
+
+    private void writeBack(int pageId, CachedPage page) throws IOException {
+        if (page.dirty) {
+            writeFully(page.data.duplicate().clear(), (long) pageId * pageSize);
+            page.dirty = false;
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    // Number of pages currently held in memory
+    public int cachedPages() {
+        return cache.size();
+    }
+
+    // ---- header fields used by the tree ----
+
+    public int root() {
+        return root;
+    }
+
+    public void setRoot(int root) {
+        this.root = root;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    // ---- durability ----
+
+    // Writes every changed page and the header, then forces the file to disk
+    public void flush() throws IOException {
+        for (Map.Entry<Integer, CachedPage> entry : cache.entrySet()) {
+            writeBack(entry.getKey(), entry.getValue());
+        }
+        writeHeader();
+        channel.force(true);
+        evictCleanPages(0);
+    }
+
+    /**
+     * Flushes if changed pages have pushed the cache past its limit. Call it only between
+     * operations, when the pages form a consistent whole: the flush makes them the new state
+     * of the file.
+     */
+    public void checkpointIfFull() throws IOException {
+        if (cache.size() > maxCachedPages) {
+            flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
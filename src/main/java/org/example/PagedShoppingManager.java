@@ -0,0 +1,200 @@
+package org.example;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * ShoppingManager backed by an embedded page file (products.db) instead of the heap.
+ *
+ * Products live in a {@link ProductBTree} keyed by product ID, stored in fixed-size pages of a
+ * {@link PageStore}. Only the pages in the bounded page cache are held in memory (4 MB with the
+ * defaults), so catalogs larger than the heap can be served with predictable memory use.
+ * Lookups cost one page read per tree level for pages that are not cached.
+ *
+ * Products handed out are decoded copies: change them through this manager
+ * (e.g. {@link #updateProductQuantity(String, int)}), changing the copy has no effect.
+ *
+ * There is nothing to load: {@link #loadProducts()} does nothing and {@link #saveProducts()} is a
+ * checkpoint that writes the changed pages and syncs the file. Changed pages stay in the page
+ * cache until then; when the cache is full of them, the manager checkpoints by itself after the
+ * change in progress. Changes made after the last checkpoint are lost if the process dies, and
+ * the file still holds the tree of that checkpoint; {@link #close()} checkpoints as well.
+ */
+public class PagedShoppingManager implements ShoppingManager, AutoCloseable {
+    public static final String DATABASE_FILE = "products.db";
+    public static final int DEFAULT_CACHE_PAGES = 1024;
+
+    private final PageStore store;
+    private final ProductBTree tree;
+
+    // Opens (or creates) the database file with the default page size and cache
+    public PagedShoppingManager(Path databaseFile) throws IOException {
+        this(databaseFile, PageStore.DEFAULT_PAGE_SIZE, DEFAULT_CACHE_PAGES);
+    }
+
+    // Opens (or creates) the database file, caching at most cachePages pages of pageSize bytes
+    public PagedShoppingManager(Path databaseFile, int pageSize, int cachePages) throws IOException {
+        store = new PageStore(databaseFile, pageSize, cachePages);
+        tree = new ProductBTree(store);
+    }
+
+    // --------- Add products -------------
+    @Override
+    public synchronized void addProduct(Product product) {
+        try {
+            if (tree.put(product.getProductID(), encode(product), false)) {
+                System.out.println("Product added successfully.");
+            } else {
+                System.out.println("Product ID already exists: " + product.getProductID());
+            }
+            store.checkpointIfFull();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error adding product " + product.getProductID(), e);
+        }
+    }
+
+    // ------------- update products quantity --------------------
+    public synchronized boolean updateProductQuantity(String productId, int addedQuantity) {
+        Product product = getProductByID(productId);
+        if (product == null) {
+            return false;  // product not found
+        }
+        product.setQuantity(product.getQuantity() + addedQuantity);
+        try {
+            tree.put(productId, encode(product), true);
+            store.checkpointIfFull();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error updating product " + productId, e);
+        }
+        return true;
+    }
+
+    // ------------ remove products --------------------
+    @Override
+    public synchronized void removeProductFromSystem(String productId) {
+        try {
+            if (tree.remove(productId)) {
+                System.out.println("Product deleted successfully.");
+            } else {
+                System.out.println("Product not found with ID: " + productId);
+            }
+            store.checkpointIfFull();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error removing product " + productId, e);
+        }
+    }
+
+    // -------------- get products list --------------------
+    // Every product in ID order; prefer forEachProduct for catalogs that do not fit in memory
+    @Override
+    public synchronized List<Product> getAllProducts() {
+        List<Product> products = new ArrayList<>((int) Math.min(Integer.MAX_VALUE - 8, tree.size()));
+        forEachProduct(products::add);
+        return products;
+    }
+
+    // Streams every product in ID order without holding them all in memory
+    public synchronized void forEachProduct(Consumer<Product> sink) {
+        try {
+            tree.forEach(bytes -> sink.accept(decode(bytes)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading products", e);
+        }
+    }
+
+    // --------------- search products by ID -------------------
+    @Override
+    public synchronized Product getProductByID(String productID) {
+        try {
+            byte[] bytes = tree.get(productID);
+            return bytes == null ? null : decode(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading product " + productID, e);
+        }
+    }
+
+    // ---------------- get total number of products ----------------
+    @Override
+    public synchronized int getTotalProducts() {
+        return (int) tree.size();
+    }
+
+    // -------------- print all products --------------------
+    @Override
+    public void printAllProducts(String productType) {
+        ProductTable.printHeader(productType);
+        String category = ProductTable.categoryOf(productType);
+        forEachProduct(product -> {
+            if (product.getProductCategory().equals(category)) {
+                ProductTable.printRow(product);
+            }
+        });
+    }
+
+    // -------------- persistence --------------------
+    // Checkpoint: writes the changed pages and syncs the database file
+    @Override
+    public synchronized void saveProducts() {
+        try {
+            store.flush();
+            System.out.println("Products saved successfully to " + DATABASE_FILE);
+        } catch (IOException e) {
+            System.err.println("Error saving products: " + e.getMessage());
+        }
+    }
+
+    // Products are read from the database file on demand, there is nothing to load
+    @Override
+    public void loadProducts() {
+    }
+
+    // Adds every product of a products.txt style text file, returns how many were read
+    public synchronized int importProducts(Path file) throws IOException {
+        int[] added = new int[1];
+        int read = new ParallelProductLoader().load(file, product -> {
+            try {
+                if (tree.put(product.getProductID(), encode(product), false)) {
+                    added[0]++;
+                }
+                store.checkpointIfFull();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        System.out.println(added[0] + " of " + read + " products imported into " + DATABASE_FILE);
+        return added[0];
+    }
+
+    // Number of pages currently held in memory
+    public synchronized int getCachedPages() {
+        return store.cachedPages();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        store.close();
+    }
+
+    // ---- record encoding ----
+
+    private static byte[] encode(Product product) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        ProductRecords.write(new DataOutputStream(bytes), product);
+        return bytes.toByteArray();
+    }
+
+    private static Product decode(byte[] bytes) {
+        try {
+            return ProductRecords.read(ByteBuffer.wrap(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt product record", e);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Loads large product files on all cores.
+ *
+ * The file is memory-mapped and split at line boundaries into one chunk per core (more chunks
+ * if a chunk would exceed {@link #MAX_CHUNK_BYTES}, the limit of a single mapping). Every chunk
+ * is parsed on its own thread with {@link ProductFileReader#parse(ByteBuffer, Consumer)}, and the
+ * results are handed to the sink chunk by chunk, so products arrive in file order while later
+ * chunks are still being parsed.
+ *
+ * Files smaller than {@link #DEFAULT_PARALLEL_THRESHOLD} bytes, or machines with a single core,
+ * use the streaming reader directly since thread start-up would cost more than it saves.
+ */
+public class ParallelProductLoader {
+    public static final long DEFAULT_PARALLEL_THRESHOLD = 8L * 1024 * 1024;
+    static final long MAX_CHUNK_BYTES = 1L << 30;
+
+    private final int threads;
+    private final long parallelThreshold;
+
+    public ParallelProductLoader() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    public ParallelProductLoader(int threads, long parallelThreshold) {
+        this.threads = Math.max(1, threads);
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Reads every product in the file and hands it to the sink in file order,
+     * on the calling thread. Returns the number of products read.
+     */
+    public int load(Path file, Consumer<Product> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (threads == 1 || size < parallelThreshold) {
+                return ProductFileReader.read(file, sink);
+            }
+
+            long[] bounds = splitAtLines(channel, size);
+            int chunks = bounds.length - 1;
+            ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, chunks), runnable -> {
+                Thread thread = new Thread(runnable, "product-loader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                List<Future<List<Product>>> parsed = new ArrayList<>(chunks);
+                for (int i = 0; i < chunks; i++) {
+                    long start = bounds[i];
+                    long length = bounds[i + 1] - start;
+                    parsed.add(pool.submit(() -> parseChunk(channel, start, length)));
+                }
+
+                // Merge in file order
+                int count = 0;
+                for (Future<List<Product>> chunk : parsed) {
+                    List<Product> products = chunk.get();
+                    for (Product product : products) {
+                        sink.accept(product);
+                    }
+                    count += products.size();
+                }
+                return count;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while loading " + file, e);
+            } catch (ExecutionException e) {
+                throw new IOException("Error loading " + file + ": " + e.getCause().getMessage(), e.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    private static List<Product> parseChunk(FileChannel channel, long start, long length) throws IOException {
+        List<Product> products = new ArrayList<>((int) Math.min(Integer.MAX_VALUE - 8, length / 32));
+        if (length > 0) {
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            ProductFileReader.parse(region, products::add);
+        }
+        return products;
+    }
+
+    // Chunk start offsets, each one just after a newline, followed by the file size
+    long[] splitAtLines(FileChannel channel, long size) throws IOException {
+        int chunks = (int) Math.max(threads, (size + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES);
+        long[] bounds = new long[chunks + 1];
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        for (int i = 1; i < chunks; i++) {
+            long position = Math.max(bounds[i - 1], size / chunks * i);
+            bounds[i] = nextLineStart(channel, position, size, probe);
+        }
+        bounds[chunks] = size;
+        return bounds;
+    }
+
+    // Offset of the first byte after the first newline at or after position, or size if there is none
+    private static long nextLineStart(FileChannel channel, long position, long size, ByteBuffer probe) throws IOException {
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,347 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * B+tree from product ID to an encoded product record, stored in a {@link PageStore}.
+ *
+ * Every node is one page:
+ * <pre>
+ *   type   1 byte   1 leaf, 2 internal
+ *   count  2 bytes  number of keys
+ *   link   4 bytes  leaf: next leaf page (0 for the last one), internal: leftmost child
+ *   entries         leaf: key + value, internal: key + child page (4 bytes)
+ * </pre>
+ * Keys and values are prefixed with their length as a varint. Keys of internal nodes are the
+ * first key of the child to their right. Leaves are chained in key order for full scans.
+ *
+ * A node is decoded when it is visited and encoded again when it changes; a node that no longer
+ * fits its page is split in two by size. Deletes simply drop the entry from its leaf, pages are
+ * not merged, so a tree that shrank keeps its pages for later inserts.
+ */
+class ProductBTree {
+    private static final byte LEAF = 1;
+    private static final byte INTERNAL = 2;
+    private static final int NODE_HEADER_BYTES = 7;
+
+    private final PageStore store;
+    // Largest key + value that still lets every split produce two valid nodes
+    private final int maxEntryBytes;
+
+    ProductBTree(PageStore store) {
+        this.store = store;
+        maxEntryBytes = (store.pageSize() - NODE_HEADER_BYTES) / 4;
+    }
+
+    // Decoded form of one page
+    private static final class Node {
+        final boolean leaf;
+        final List<String> keys;
+        final List<byte[]> values;     // leaves only
+        final List<Integer> children;  // internal nodes only, one more than keys
+        int next;                      // leaves only
+
+        Node(boolean leaf, int capacity) {
+            this.leaf = leaf;
+            keys = new ArrayList<>(capacity);
+            values = leaf ? new ArrayList<>(capacity) : null;
+            children = leaf ? null : new ArrayList<>(capacity + 1);
+        }
+    }
+
+    // ---- queries ----
+
+    // Value stored under the key, or null
+    byte[] get(String key) throws IOException {
+        int pageId = store.root();
+        if (pageId == 0) {
+            return null;
+        }
+        Node node = readNode(pageId);
+        while (!node.leaf) {
+            node = readNode(node.children.get(childIndex(node, key)));
+        }
+        int index = Collections.binarySearch(node.keys, key);
+        return index >= 0 ? node.values.get(index) : null;
+    }
+
+    // Hands every value to the sink in key order
+    void forEach(Consumer<byte[]> sink) throws IOException {
+        int pageId = store.root();
+        if (pageId == 0) {
+            return;
+        }
+        Node node = readNode(pageId);
+        while (!node.leaf) {
+            pageId = node.children.get(0);
+            node = readNode(pageId);
+        }
+        while (true) {
+            node.values.forEach(sink);
+            if (node.next == 0) {
+                return;
+            }
+            node = readNode(node.next);
+        }
+    }
+
+    long size() {
+        return store.count();
+    }
+
+    // ---- updates ----
+
+    /**
+     * Stores the value under the key, replacing an existing value if replace is set.
+     * Returns true if the key was not present before.
+     */
+    boolean put(String key, byte[] value, boolean replace) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (entryBytes(keyBytes.length, value.length) > maxEntryBytes) {
+            throw new IllegalArgumentException("Product record too large for a " + store.pageSize() + " byte page: " + key);
+        }
+        if (store.root() == 0) {
+            Node leaf = new Node(true, 1);
+            leaf.keys.add(key);
+            leaf.values.add(value);
+            int pageId = store.allocate();
+            writeNode(pageId, leaf);
+            store.setRoot(pageId);
+            store.setCount(1);
+            return true;
+        }
+
+        Insert insert = new Insert(key, value, replace);
+        Split split = insert(store.root(), insert);
+        if (split != null) {
+            // The root was split: grow the tree by one level
+            Node root = new Node(false, 1);
+            root.children.add(store.root());
+            root.keys.add(split.key);
+            root.children.add(split.rightPage);
+            int pageId = store.allocate();
+            writeNode(pageId, root);
+            store.setRoot(pageId);
+        }
+        if (insert.added) {
+            store.setCount(store.count() + 1);
+        }
+        return insert.added;
+    }
+
+    // Removes the key, returns true if it was present
+    boolean remove(String key) throws IOException {
+        int pageId = store.root();
+        if (pageId == 0) {
+            return false;
+        }
+        Node node = readNode(pageId);
+        while (!node.leaf) {
+            pageId = node.children.get(childIndex(node, key));
+            node = readNode(pageId);
+        }
+        int index = Collections.binarySearch(node.keys, key);
+        if (index < 0) {
+            return false;
+        }
+        node.keys.remove(index);
+        node.values.remove(index);
+        writeNode(pageId, node);
+        store.setCount(store.count() - 1);
+        return true;
+    }
+
+    private static final class Insert {
+        final String key;
+        final byte[] value;
+        final boolean replace;
+        boolean added;
+
+        Insert(String key, byte[] value, boolean replace) {
+            this.key = key;
+            this.value = value;
+            this.replace = replace;
+        }
+    }
+
+    // Separator key and new right sibling produced by a split
+    private record Split(String key, int rightPage) {
+    }
+
+    private Split insert(int pageId, Insert insert) throws IOException {
+        Node node = readNode(pageId);
+        if (node.leaf) {
+            int index = Collections.binarySearch(node.keys, insert.key);
+            if (index >= 0) {
+                if (!insert.replace) {
+                    return null;
+                }
+                node.values.set(index, insert.value);
+            } else {
+                node.keys.add(-index - 1, insert.key);
+                node.values.add(-index - 1, insert.value);
+                insert.added = true;
+            }
+        } else {
+            int index = childIndex(node, insert.key);
+            Split childSplit = insert(node.children.get(index), insert);
+            if (childSplit == null) {
+                return null;
+            }
+            node.keys.add(index, childSplit.key);
+            node.children.add(index + 1, childSplit.rightPage);
+        }
+        if (encodedSize(node) <= store.pageSize()) {
+            writeNode(pageId, node);
+            return null;
+        }
+        return split(pageId, node);
+    }
+
+    // Moves the upper half (by size) of an overfull node into a new page
+    private Split split(int pageId, Node node) throws IOException {
+        int total = encodedSize(node) - NODE_HEADER_BYTES;
+        int at = 0;
+        int running = 0;
+        while (at < node.keys.size() - 1 && running + entrySize(node, at) <= total / 2) {
+            running += entrySize(node, at);
+            at++;
+        }
+        at = Math.max(1, at);
+
+        int rightPage = store.allocate();
+        Node right = new Node(node.leaf, node.keys.size() - at);
+        String separator;
+        if (node.leaf) {
+            right.keys.addAll(node.keys.subList(at, node.keys.size()));
+            right.values.addAll(node.values.subList(at, node.values.size()));
+            node.keys.subList(at, node.keys.size()).clear();
+            node.values.subList(at, node.values.size()).clear();
+            right.next = node.next;
+            node.next = rightPage;
+            separator = right.keys.get(0);
+        } else {
+            // The middle key moves up, its right child becomes the leftmost child of the new node
+            separator = node.keys.get(at);
+            right.keys.addAll(node.keys.subList(at + 1, node.keys.size()));
+            right.children.addAll(node.children.subList(at + 1, node.children.size()));
+            node.keys.subList(at, node.keys.size()).clear();
+            node.children.subList(at + 1, node.children.size()).clear();
+        }
+        writeNode(pageId, node);
+        writeNode(rightPage, right);
+        return new Split(separator, rightPage);
+    }
+
+    // Child to descend into for the key: the first separator greater than the key bounds it
+    private static int childIndex(Node node, String key) {
+        int index = Collections.binarySearch(node.keys, key);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    // ---- page encoding ----
+
+    private Node readNode(int pageId) throws IOException {
+        ByteBuffer page = store.read(pageId);
+        byte type = page.get();
+        int count = page.getShort() & 0xFFFF;
+        int link = page.getInt();
+        if (type != LEAF && type != INTERNAL) {
+            throw new IOException("Page " + pageId + " is not a tree node");
+        }
+        Node node = new Node(type == LEAF, count);
+        if (node.leaf) {
+            node.next = link;
+            for (int i = 0; i < count; i++) {
+                node.keys.add(ProductRecords.readString(page));
+                byte[] value = new byte[ProductRecords.readVarInt(page)];
+                page.get(value);
+                node.values.add(value);
+            }
+        } else {
+            node.children.add(link);
+            for (int i = 0; i < count; i++) {
+                node.keys.add(ProductRecords.readString(page));
+                node.children.add(page.getInt());
+            }
+        }
+        return node;
+    }
+
+    private void writeNode(int pageId, Node node) throws IOException {
+        ByteBuffer page = ByteBuffer.allocate(store.pageSize());
+        page.put(node.leaf ? LEAF : INTERNAL);
+        page.putShort((short) node.keys.size());
+        page.putInt(node.leaf ? node.next : node.children.get(0));
+        for (int i = 0; i < node.keys.size(); i++) {
+            putBytes(page, node.keys.get(i).getBytes(StandardCharsets.UTF_8));
+            if (node.leaf) {
+                putBytes(page, node.values.get(i));
+            } else {
+                page.putInt(node.children.get(i + 1));
+            }
+        }
+        page.flip();
+        store.write(pageId, page);
+    }
+
+    private static void putBytes(ByteBuffer page, byte[] bytes) {
+        int value = bytes.length;
+        while ((value & ~0x7F) != 0) {
+            page.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        page.put((byte) value);
+        page.put(bytes);
+    }
+
+    private static int encodedSize(Node node) {
+        int size = NODE_HEADER_BYTES;
+        for (int i = 0; i < node.keys.size(); i++) {
+            size += entrySize(node, i);
+        }
+        return size;
+    }
+
+    private static int entrySize(Node node, int index) {
+        int keyBytes = utf8Length(node.keys.get(index));
+        return node.leaf ? entryBytes(keyBytes, node.values.get(index).length) : varIntSize(keyBytes) + keyBytes + 4;
+    }
+
+    private static int entryBytes(int keyBytes, int valueBytes) {
+        return varIntSize(keyBytes) + keyBytes + varIntSize(valueBytes) + valueBytes;
+    }
+
+    private static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
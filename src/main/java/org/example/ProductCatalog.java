@@ -0,0 +1,263 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * In-memory product store with a primary hash index on product ID and a
+ * secondary index per product category.
+ *
+ * Every product gets an ordinal, its slot in a plain array. Ordinals are handed out in
+ * insertion order and never reused, so iterating the slots gives insertion order and the
+ * ordinal of a product stays the same for as long as it is in the catalog.
+ * Lookups, inserts, restocks and deletes by ID are O(1) on average, so a bulk
+ * restock of n SKUs costs O(n) instead of O(n * catalog size).
+ *
+ * Memory budget per product, on a 64-bit JVM with compressed oops:
+ * <ul>
+ *     <li>catalog overhead: ~4-6 bytes of slot array, ~24 bytes of ID index
+ *     (see {@link ProductIdIndex}) and 1 bit per category bitmap, about 32 bytes;</li>
+ *     <li>the Product object itself: 40 bytes, plus its ID and name strings
+ *     (about 48 + 56 bytes for an 11 character ID and a 16 character name).</li>
+ * </ul>
+ * Attribute strings such as brand, size or color are usually shared between products,
+ * so plan for roughly 180-200 bytes per product: 1M products fit in about 200 MB and
+ * 10M products in about 2 GB of heap. Pass the expected size to the constructor when loading
+ * millions of products so the arrays and the ID index are allocated once up front.
+ */
+public class ProductCatalog {
+    private static final int DEFAULT_CAPACITY = 64;
+
+    // Ordinal -> product; removed products leave a null slot
+    private Product[] slots;
+    private int ordinalLimit;
+    private int size;
+
+    // Primary index: product ID -> ordinal
+    private final ProductIdIndex idIndex;
+
+    // Secondary index: category name -> bitmap of ordinals in that category
+    private final Map<String, BitSet> categoryIndex;
+
+    // Primitive columns (quantity, price, category code) keyed by ordinal
+    private final CatalogColumns columns;
+
+    // Secondary indexes kept in step with the catalog
+    private final List<CatalogListener> listeners = new ArrayList<>();
+
+    public ProductCatalog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    // Catalog presized for the expected number of products
+    public ProductCatalog(int expectedSize) {
+        slots = new Product[Math.max(DEFAULT_CAPACITY, expectedSize)];
+        idIndex = new ProductIdIndex(expectedSize);
+        categoryIndex = new HashMap<>();
+        columns = new CatalogColumns(slots.length);
+    }
+
+    // Adds a product, returns false if a product with the same ID is already stored
+    public boolean add(Product product) {
+        String productID = product.getProductID();
+        if (idIndex.get(productID) >= 0) {
+            return false;
+        }
+        if (ordinalLimit == slots.length) {
+            slots = Arrays.copyOf(slots, slots.length + (slots.length >> 1));
+        }
+        int ordinal = ordinalLimit++;
+        slots[ordinal] = product;
+        idIndex.put(productID, ordinal);
+        categoryIndex.computeIfAbsent(product.getProductCategory(), category -> new BitSet()).set(ordinal);
+        columns.set(ordinal, product);
+        size++;
+        for (CatalogListener listener : listeners) {
+            listener.productAdded(ordinal, product);
+        }
+        return true;
+    }
+
+    // Removes a product by ID, returns the removed product or null if not found
+    public Product remove(String productID) {
+        int ordinal = idIndex.remove(productID);
+        if (ordinal < 0) {
+            return null;
+        }
+        Product removed = slots[ordinal];
+        slots[ordinal] = null;
+        BitSet category = categoryIndex.get(removed.getProductCategory());
+        if (category != null) {
+            category.clear(ordinal);
+        }
+        columns.clear(ordinal);
+        size--;
+        for (CatalogListener listener : listeners) {
+            listener.productRemoved(ordinal, removed);
+        }
+        return removed;
+    }
+
+    public Product get(String productID) {
+        int ordinal = idIndex.get(productID);
+        return ordinal < 0 ? null : slots[ordinal];
+    }
+
+    public boolean contains(String productID) {
+        return idIndex.get(productID) >= 0;
+    }
+
+    // Ordinal of the product with the given ID, or -1 if not found
+    public int ordinalOf(String productID) {
+        return idIndex.get(productID);
+    }
+
+    // Product stored at the ordinal, or null if that slot is empty
+    public Product productAt(int ordinal) {
+        return ordinal >= 0 && ordinal < ordinalLimit ? slots[ordinal] : null;
+    }
+
+    // Upper bound (exclusive) of the ordinals handed out so far
+    public int ordinalLimit() {
+        return ordinalLimit;
+    }
+
+    // Adds the given amount to the stock of a product, returns false if the product is not found
+    public boolean addQuantity(String productID, int addedQuantity) {
+        int ordinal = idIndex.get(productID);
+        if (ordinal < 0) {
+            return false;
+        }
+        Product product = slots[ordinal];
+        product.setQuantity(product.getQuantity() + addedQuantity);
+        columns.set(ordinal, product);
+        for (CatalogListener listener : listeners) {
+            listener.productChanged(ordinal, product);
+        }
+        return true;
+    }
+
+    // Re-reads a product that was changed directly (e.g. Product.decreaseQuantity) into the indexes
+    public boolean refresh(String productID) {
+        int ordinal = idIndex.get(productID);
+        if (ordinal < 0) {
+            return false;
+        }
+        columns.set(ordinal, slots[ordinal]);
+        for (CatalogListener listener : listeners) {
+            listener.productChanged(ordinal, slots[ordinal]);
+        }
+        return true;
+    }
+
+    // Columnar view of quantities, prices and categories for scans and aggregates
+    public CatalogColumns columns() {
+        return columns;
+    }
+
+    // Returns a copy of all products in insertion order
+    public List<Product> getAll() {
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 0; i < ordinalLimit; i++) {
+            if (slots[i] != null) {
+                products.add(slots[i]);
+            }
+        }
+        return products;
+    }
+
+    // Returns a copy of the products in the given category (e.g. "Electronics")
+    public List<Product> getByCategory(String category) {
+        BitSet ordinals = categoryIndex.get(category);
+        if (ordinals == null) {
+            return Collections.emptyList();
+        }
+        List<Product> products = new ArrayList<>(ordinals.cardinality());
+        for (int i = ordinals.nextSetBit(0); i >= 0; i = ordinals.nextSetBit(i + 1)) {
+            products.add(slots[i]);
+        }
+        return products;
+    }
+
+    /**
+     * The k first products in the given order among those the filter accepts, best first.
+     * A bounded heap keeps the k best seen so far: O(n log k), and never more than k products
+     * are held. Ties keep insertion order.
+     */
+    public List<Product> topK(int k, Comparator<? super Product> order, Predicate<? super Product> filter) {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        // Max-heap on the order (worst on top), ties broken by ordinal so later products lose
+        Comparator<Integer> byOrder = (a, b) -> {
+            int cmp = order.compare(slots[a], slots[b]);
+            return cmp != 0 ? cmp : Integer.compare(a, b);
+        };
+        PriorityQueue<Integer> heap = new PriorityQueue<>(Math.min(k, Math.max(1, size)) + 1, byOrder.reversed());
+        for (int i = 0; i < ordinalLimit; i++) {
+            if (slots[i] == null || !filter.test(slots[i])) {
+                continue;
+            }
+            if (heap.size() < k) {
+                heap.add(i);
+            } else if (byOrder.compare(i, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(i);
+            }
+        }
+        Product[] best = new Product[heap.size()];
+        for (int i = best.length - 1; i >= 0; i--) {
+            best[i] = slots[heap.poll()];
+        }
+        return new ArrayList<>(List.of(best));
+    }
+
+    // The k most recently added products the filter accepts, newest first; walks back from the newest slot
+    public List<Product> newest(int k, Predicate<? super Product> filter) {
+        List<Product> products = new ArrayList<>(Math.max(0, Math.min(k, size)));
+        for (int i = ordinalLimit - 1; i >= 0 && products.size() < k; i--) {
+            if (slots[i] != null && filter.test(slots[i])) {
+                products.add(slots[i]);
+            }
+        }
+        return products;
+    }
+
+    public int countByCategory(String category) {
+        BitSet ordinals = categoryIndex.get(category);
+        return ordinals == null ? 0 : ordinals.cardinality();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(slots, 0, ordinalLimit, null);
+        ordinalLimit = 0;
+        size = 0;
+        idIndex.clear();
+        categoryIndex.clear();
+        columns.clearAll();
+        for (CatalogListener listener : listeners) {
+            listener.catalogCleared();
+        }
+    }
+
+    // Registers an index that follows every change; the products already stored are not replayed
+    public void addListener(CatalogListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(CatalogListener listener) {
+        listeners.remove(listener);
+    }
+}
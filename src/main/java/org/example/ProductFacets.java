@@ -0,0 +1,283 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Facet index for filtering by category and product attributes.
+ *
+ * Every facet value (category "Books", brand "Dell", color "Black", ...) keeps a bitmap of the
+ * ordinals of the products that have it. A filter is answered with bitmap operations: the
+ * values picked within one facet are OR-ed, the facets are AND-ed. Counting how many products
+ * of a result have each value is one AND-and-count per value, or, for small results, one
+ * lookup per product; neither touches the products themselves.
+ *
+ * BitSet is used as the bitmap: ordinals are dense (handed out in insertion order, never
+ * reused), so a plain bit array costs n / 8 bytes per value and needs no decoding.
+ * The index follows the catalog through {@link CatalogListener}; all methods are synchronized.
+ */
+public class ProductFacets implements CatalogListener {
+    public static final String CATEGORY = "Category";
+    public static final String BRAND = "Brand";
+    public static final String SIZE = "Size";
+    public static final String COLOR = "Color";
+    public static final String AUTHOR = "Author";
+    public static final String GENRE = "Genre";
+    public static final String MATERIAL = "Material";
+    public static final String ROOM = "Room";
+
+    // Attribute facets offered for each category, in display order
+    private static final Map<String, List<String>> ATTRIBUTES = new LinkedHashMap<>();
+
+    static {
+        ATTRIBUTES.put("Electronics", List.of(BRAND));
+        ATTRIBUTES.put("Clothing", List.of(SIZE, COLOR));
+        ATTRIBUTES.put("Books", List.of(GENRE, AUTHOR));
+        ATTRIBUTES.put("Home & Garden", List.of(ROOM, MATERIAL));
+    }
+
+    // Facet -> value -> ordinals; values sorted for the dropdowns
+    private final Map<String, TreeMap<String, BitSet>> facets = new HashMap<>();
+
+    // Ordinals of every product in the catalog
+    private final BitSet all = new BitSet();
+
+    // Union of the values picked within one facet, reused by retainAny
+    private final BitSet anyOf = new BitSet();
+
+    // Facet/value pairs of each indexed product (facet, value, facet, value, ...), to undo them
+    private String[][] valuesByOrdinal = new String[64][];
+
+    public ProductFacets(ProductCatalog catalog) {
+        synchronized (this) {
+            for (int ordinal = 0; ordinal < catalog.ordinalLimit(); ordinal++) {
+                Product product = catalog.productAt(ordinal);
+                if (product != null) {
+                    index(ordinal, product);
+                }
+            }
+        }
+        catalog.addListener(this);
+    }
+
+    // Attribute facets of a category ("Clothing" -> Size, Color); every attribute facet for null or "All"
+    public static List<String> attributeFacets(String category) {
+        if (category == null || category.equalsIgnoreCase("All")) {
+            List<String> every = new ArrayList<>();
+            ATTRIBUTES.values().forEach(every::addAll);
+            return every;
+        }
+        return ATTRIBUTES.getOrDefault(category, Collections.emptyList());
+    }
+
+    // ---- queries ----
+
+    // Values of a facet in sorted order
+    public synchronized List<String> values(String facet) {
+        TreeMap<String, BitSet> values = facets.get(facet);
+        return values == null ? Collections.emptyList() : new ArrayList<>(values.keySet());
+    }
+
+    // Number of products with the value
+    public synchronized int count(String facet, String value) {
+        BitSet ordinals = bitmap(facet, value);
+        return ordinals == null ? 0 : ordinals.cardinality();
+    }
+
+    /**
+     * Ordinals of the products matching the selection: for every facet in it, at least one of
+     * its values. An empty selection matches every product. Returns a new bitmap.
+     */
+    public synchronized BitSet matching(Map<String, ? extends Collection<String>> selection) {
+        BitSet result = (BitSet) all.clone();
+        for (Map.Entry<String, ? extends Collection<String>> facet : selection.entrySet()) {
+            retainAny(facet.getKey(), facet.getValue(), result);
+        }
+        return result;
+    }
+
+    // Keeps only the ordinals in target that have the value (target.and(bitmap)), without copying anything
+    public synchronized void retain(String facet, String value, BitSet target) {
+        BitSet ordinals = bitmap(facet, value);
+        if (ordinals == null) {
+            target.clear();
+        } else {
+            target.and(ordinals);
+        }
+    }
+
+    // Keeps only the ordinals in target that have at least one of the values
+    public synchronized void retainAny(String facet, Collection<String> values, BitSet target) {
+        if (values.size() == 1) {
+            retain(facet, values.iterator().next(), target);
+            return;
+        }
+        anyOf.clear();
+        for (String value : values) {
+            BitSet ordinals = bitmap(facet, value);
+            if (ordinals != null) {
+                anyOf.or(ordinals);
+            }
+        }
+        target.and(anyOf);
+    }
+
+    // Writes the ordinals of every product into out
+    public synchronized void allInto(BitSet out) {
+        out.clear();
+        out.or(all);
+    }
+
+    /**
+     * Value -> number of products within the given ordinals that have it, for one facet.
+     * Values without a match are left out; within == null counts over the whole catalog.
+     */
+    public synchronized Map<String, Integer> counts(String facet, BitSet within) {
+        TreeMap<String, BitSet> values = facets.get(facet);
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        if (values == null) {
+            return counts;
+        }
+        if (within == null) {
+            values.forEach((value, ordinals) -> counts.put(value, ordinals.cardinality()));
+            return counts;
+        }
+        int matches = within.cardinality();
+        // AND-and-count reads every value's bitmap; for small results, look up each product instead
+        if ((long) matches * 64 < (long) values.size() * Math.max(1, all.length())) {
+            // One counter per distinct value, not one boxed Integer per product
+            Map<String, int[]> found = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            for (int ordinal = within.nextSetBit(0); ordinal >= 0; ordinal = within.nextSetBit(ordinal + 1)) {
+                String value = valueOf(ordinal, facet);
+                if (value != null) {
+                    found.computeIfAbsent(value, key -> new int[1])[0]++;
+                }
+            }
+            // Report the spelling the index uses ("black" and "Black" are one value)
+            found.forEach((value, count) -> counts.put(values.ceilingKey(value), count[0]));
+            return counts;
+        }
+        BitSet scratch = new BitSet();
+        for (Map.Entry<String, BitSet> value : values.entrySet()) {
+            scratch.clear();
+            scratch.or(value.getValue());
+            scratch.and(within);
+            int count = scratch.cardinality();
+            if (count > 0) {
+                counts.put(value.getKey(), count);
+            }
+        }
+        return counts;
+    }
+
+    private BitSet bitmap(String facet, String value) {
+        TreeMap<String, BitSet> values = facets.get(facet);
+        return values == null || value == null ? null : values.get(value);
+    }
+
+    private String valueOf(int ordinal, String facet) {
+        String[] pairs = ordinal < valuesByOrdinal.length ? valuesByOrdinal[ordinal] : null;
+        if (pairs != null) {
+            for (int i = 0; i < pairs.length; i += 2) {
+                if (pairs[i].equals(facet)) {
+                    return pairs[i + 1];
+                }
+            }
+        }
+        return null;
+    }
+
+    // ---- maintenance ----
+
+    @Override
+    public synchronized void productAdded(int ordinal, Product product) {
+        index(ordinal, product);
+    }
+
+    @Override
+    public synchronized void productRemoved(int ordinal, Product product) {
+        unindex(ordinal);
+    }
+
+    @Override
+    public synchronized void productChanged(int ordinal, Product product) {
+        String[] newValues = valuesOf(product);
+        if (ordinal < valuesByOrdinal.length && Arrays.equals(valuesByOrdinal[ordinal], newValues)) {
+            return; // e.g. a stock change, no facet value changed
+        }
+        unindex(ordinal);
+        index(ordinal, product);
+    }
+
+    @Override
+    public synchronized void catalogCleared() {
+        facets.clear();
+        all.clear();
+        Arrays.fill(valuesByOrdinal, null);
+    }
+
+    private void index(int ordinal, Product product) {
+        if (ordinal >= valuesByOrdinal.length) {
+            valuesByOrdinal = Arrays.copyOf(valuesByOrdinal, Math.max(ordinal + 1, valuesByOrdinal.length + (valuesByOrdinal.length >> 1)));
+        }
+        String[] pairs = valuesOf(product);
+        valuesByOrdinal[ordinal] = pairs;
+        for (int i = 0; i < pairs.length; i += 2) {
+            facets.computeIfAbsent(pairs[i], facet -> new TreeMap<>(String.CASE_INSENSITIVE_ORDER))
+                    .computeIfAbsent(pairs[i + 1], value -> new BitSet())
+                    .set(ordinal);
+        }
+        all.set(ordinal);
+    }
+
+    private void unindex(int ordinal) {
+        if (ordinal >= valuesByOrdinal.length || valuesByOrdinal[ordinal] == null) {
+            return;
+        }
+        String[] pairs = valuesByOrdinal[ordinal];
+        for (int i = 0; i < pairs.length; i += 2) {
+            TreeMap<String, BitSet> values = facets.get(pairs[i]);
+            BitSet ordinals = values.get(pairs[i + 1]);
+            ordinals.clear(ordinal);
+            if (ordinals.isEmpty()) {
+                values.remove(pairs[i + 1]);
+            }
+        }
+        valuesByOrdinal[ordinal] = null;
+        all.clear(ordinal);
+    }
+
+    // Facet/value pairs of a product; blank attributes are left out
+    static String[] valuesOf(Product product) {
+        List<String> pairs = new ArrayList<>(6);
+        addValue(pairs, CATEGORY, product.getProductCategory());
+        if (product instanceof Electronics electronics) {
+            addValue(pairs, BRAND, electronics.getBrand());
+        } else if (product instanceof Clothing clothing) {
+            addValue(pairs, SIZE, clothing.getSize());
+            addValue(pairs, COLOR, clothing.getColor());
+        } else if (product instanceof Books book) {
+            addValue(pairs, GENRE, book.getGenre());
+            addValue(pairs, AUTHOR, book.getAuthor());
+        } else if (product instanceof HomeGarden homeGarden) {
+            addValue(pairs, ROOM, homeGarden.getRoom());
+            addValue(pairs, MATERIAL, homeGarden.getMaterial());
+        }
+        return pairs.toArray(new String[0]);
+    }
+
+    private static void addValue(List<String> pairs, String facet, String value) {
+        if (value != null && !value.isBlank()) {
+            pairs.add(facet);
+            pairs.add(value.strip());
+        }
+    }
+}
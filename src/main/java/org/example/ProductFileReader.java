@@ -0,0 +1,305 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Streaming reader for the products.txt format.
+ *
+ * One product per line: ID, Name, Quantity, Price, Attr1, Attr2 (comma separated).
+ * The attributes depend on the category given by the ID prefix:
+ * E brand + warranty months, C size + color, B author + genre, H material + room.
+ * Blank lines and lines starting with '#' are ignored.
+ * Lines written by the old saveToString() format ("Electronics, E001, ..." and
+ * "Clothing, C001, ..., color, size") are accepted too.
+ *
+ * The file is read through a FileChannel (or a mapped region, see {@link ParallelProductLoader})
+ * into a reused byte buffer and tokenized in place:
+ * field bounds are found by scanning for commas and skipping surrounding blanks, numbers are
+ * parsed straight from the bytes, and only the final String fields are allocated.
+ * No regex, no per-line String and no trim copies.
+ */
+public class ProductFileReader {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_FIELDS = 7;
+
+    private ProductFileReader() {
+    }
+
+    /**
+     * Reads every product in the file and hands it to the sink, in file order.
+     * Malformed lines are reported on stderr and skipped.
+     * Returns the number of products read.
+     */
+    public static int read(Path file, Consumer<Product> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return scan((bytes, offset, length) -> channel.read(ByteBuffer.wrap(bytes, offset, length)), true, sink);
+        }
+    }
+
+    /**
+     * Parses the products in the remaining bytes of the buffer (e.g. a memory-mapped region).
+     * The region must start at a line start; a trailing line without newline is parsed as well.
+     * Returns the number of products parsed.
+     */
+    public static int parse(ByteBuffer region, Consumer<Product> sink) {
+        try {
+            return scan((bytes, offset, length) -> {
+                if (!region.hasRemaining()) {
+                    return -1;
+                }
+                int n = Math.min(length, region.remaining());
+                region.get(bytes, offset, n);
+                return n;
+            }, false, sink);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // a ByteBuffer source does not do I/O
+        }
+    }
+
+    // Source of raw bytes: fills bytes[offset, offset + length), returns the count or -1 at the end
+    private interface ByteSource {
+        int fill(byte[] bytes, int offset, int length) throws IOException;
+    }
+
+    // Splits the source into lines through one reused buffer and parses each line in place
+    private static int scan(ByteSource source, boolean countLines, Consumer<Product> sink) throws IOException {
+        byte[] bytes = new byte[BUFFER_SIZE];
+        int[] bounds = new int[MAX_FIELDS * 2];
+        int filled = 0;
+        int count = 0;
+        int lineNumber = 0;
+
+        while (true) {
+            int read = source.fill(bytes, filled, bytes.length - filled);
+            int end = read < 0 ? filled : filled + read;
+            int lineStart = 0;
+            for (int i = 0; i < end; i++) {
+                if (bytes[i] == '\n') {
+                    lineNumber++;
+                    count += parseInto(bytes, lineStart, i, bounds, countLines ? lineNumber : -1, sink);
+                    lineStart = i + 1;
+                }
+            }
+            if (read < 0) {
+                // Last line without a trailing newline
+                if (lineStart < end) {
+                    count += parseInto(bytes, lineStart, end, bounds, countLines ? lineNumber + 1 : -1, sink);
+                }
+                return count;
+            }
+            // Keep the partial line at the start of the buffer for the next fill
+            filled = end - lineStart;
+            if (filled == bytes.length) {
+                // A single line longer than the buffer: grow it
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            } else {
+                System.arraycopy(bytes, lineStart, bytes, 0, filled);
+            }
+        }
+    }
+
+    // Parses one line and hands the product to the sink, returns 1 if a product was produced
+    private static int parseInto(byte[] bytes, int start, int end, int[] bounds, int lineNumber, Consumer<Product> sink) {
+        try {
+            Product product = parseLine(bytes, start, end, bounds);
+            if (product == null) {
+                return 0;
+            }
+            sink.accept(product);
+            return 1;
+        } catch (IllegalArgumentException e) {
+            String where = lineNumber > 0 ? " at line " + lineNumber : "";
+            System.err.println("Skipping malformed product" + where + ": "
+                    + new String(bytes, start, end - start, StandardCharsets.UTF_8).strip() + " (" + e.getMessage() + ")");
+            return 0;
+        }
+    }
+
+    /**
+     * Parses a single line (without the newline) into a Product.
+     * Returns null for blank lines, comments and unknown product types.
+     * bounds is scratch space of at least 14 ints for the field offsets.
+     */
+    static Product parseLine(byte[] bytes, int start, int end, int[] bounds) {
+        int firstByte = start;
+        while (firstByte < end && isBlank(bytes[firstByte])) {
+            firstByte++;
+        }
+        if (firstByte == end || bytes[firstByte] == '#') {
+            return null; // blank line or comment
+        }
+
+        // Split into fields, recording trimmed [from, to) bounds of each one
+        int fields = 0;
+        int fieldStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || bytes[i] == ',') {
+                if (fields == MAX_FIELDS) {
+                    throw new IllegalArgumentException("too many fields");
+                }
+                int from = fieldStart;
+                int to = i;
+                while (from < to && isBlank(bytes[from])) {
+                    from++;
+                }
+                while (to > from && isBlank(bytes[to - 1])) {
+                    to--;
+                }
+                bounds[fields * 2] = from;
+                bounds[fields * 2 + 1] = to;
+                fields++;
+                fieldStart = i + 1;
+            }
+        }
+
+        // Legacy saveToString() lines start with a category tag
+        int offset = 0;
+        boolean swapAttributes = false;
+        if (fields == 7) {
+            if (fieldEquals(bytes, bounds, 0, "Electronics")) {
+                offset = 1;
+            } else if (fieldEquals(bytes, bounds, 0, "Clothing")) {
+                offset = 1;
+                swapAttributes = true; // written as color, size
+            }
+        }
+        if (fields - offset != 6) {
+            throw new IllegalArgumentException("expected 6 fields but found " + (fields - offset));
+        }
+
+        int idField = offset;
+        if (bounds[idField * 2] == bounds[idField * 2 + 1]) {
+            throw new IllegalArgumentException("empty product ID");
+        }
+        char prefix = (char) bytes[bounds[idField * 2]];
+        if (prefix != 'E' && prefix != 'C' && prefix != 'B' && prefix != 'H') {
+            return null; // Skip unknown product types
+        }
+
+        String productID = field(bytes, bounds, idField);
+        String productName = field(bytes, bounds, idField + 1);
+        int quantity = parseInt(bytes, bounds[(idField + 2) * 2], bounds[(idField + 2) * 2 + 1]);
+        double price = parseDouble(bytes, bounds[(idField + 3) * 2], bounds[(idField + 3) * 2 + 1]);
+        int attr1 = swapAttributes ? idField + 5 : idField + 4;
+        int attr2 = swapAttributes ? idField + 4 : idField + 5;
+
+        switch (prefix) {
+            case 'E':
+                return new Electronics(productID, productName, quantity, price,
+                        field(bytes, bounds, attr1), parseInt(bytes, bounds[attr2 * 2], bounds[attr2 * 2 + 1]));
+            case 'C':
+                return new Clothing(productID, productName, quantity, price,
+                        field(bytes, bounds, attr1), field(bytes, bounds, attr2));
+            case 'B':
+                return new Books(productID, productName, quantity, price,
+                        field(bytes, bounds, attr1), field(bytes, bounds, attr2));
+            default:
+                return new HomeGarden(productID, productName, quantity, price,
+                        field(bytes, bounds, attr1), field(bytes, bounds, attr2));
+        }
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    private static String field(byte[] bytes, int[] bounds, int index) {
+        int from = bounds[index * 2];
+        return new String(bytes, from, bounds[index * 2 + 1] - from, StandardCharsets.UTF_8);
+    }
+
+    private static boolean fieldEquals(byte[] bytes, int[] bounds, int index, String expected) {
+        int from = bounds[index * 2];
+        if (bounds[index * 2 + 1] - from != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (bytes[from + i] != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Parses an optionally signed decimal integer from bytes[from, to)
+    static int parseInt(byte[] bytes, int from, int to) {
+        if (from == to) {
+            throw new NumberFormatException("empty number");
+        }
+        boolean negative = bytes[from] == '-';
+        int i = negative || bytes[from] == '+' ? from + 1 : from;
+        if (i == to) {
+            throw new NumberFormatException("no digits");
+        }
+        long value = 0;
+        for (; i < to; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("not a number: " + new String(bytes, from, to - from, StandardCharsets.UTF_8));
+            }
+            value = value * 10 + digit;
+            if (value > Integer.MAX_VALUE + 1L) {
+                throw new NumberFormatException("number out of range");
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("number out of range");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses a plain decimal such as 1200, 29.99 or -3.5 from bytes[from, to).
+     * Values with up to 15 significant digits are exact (one correctly rounded division);
+     * anything else, such as exponents, falls back to Double.parseDouble.
+     */
+    static double parseDouble(byte[] bytes, int from, int to) {
+        if (from == to) {
+            throw new NumberFormatException("empty number");
+        }
+        boolean negative = bytes[from] == '-';
+        int i = negative || bytes[from] == '+' ? from + 1 : from;
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean seenPoint = false;
+        boolean seenDigit = false;
+        boolean plain = true;
+        for (; i < to && plain; i++) {
+            byte b = bytes[i];
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                seenDigit = true;
+                if (mantissa != 0) {
+                    digits++;
+                }
+                if (seenPoint) {
+                    fractionDigits++;
+                }
+                plain = digits <= 15 && fractionDigits < POWERS_OF_TEN.length;
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                plain = false;
+            }
+        }
+        if (!plain || !seenDigit) {
+            return Double.parseDouble(new String(bytes, from, to - from, StandardCharsets.US_ASCII));
+        }
+        double value = fractionDigits == 0 ? mantissa : mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15,
+            1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+}
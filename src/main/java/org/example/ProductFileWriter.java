@@ -0,0 +1,51 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Collection;
+
+/**
+ * Writes products in the products.txt format read by {@link ProductFileReader}:
+ * ID,Name,Quantity,Price,Attr1,Attr2 with one product per line.
+ */
+public final class ProductFileWriter {
+    private ProductFileWriter() {
+    }
+
+    // Text line for a product (without the newline)
+    public static String toLine(Product product) {
+        StringBuilder line = new StringBuilder(64);
+        line.append(product.getProductID()).append(',')
+                .append(product.getProductName()).append(',')
+                .append(product.getQuantity()).append(',')
+                .append(product.getPrice()).append(',');
+        if (product instanceof Electronics electronics) {
+            line.append(electronics.getBrand()).append(',').append(electronics.getWarrantyPeriod());
+        } else if (product instanceof Clothing clothing) {
+            line.append(clothing.getSize()).append(',').append(clothing.getColor());
+        } else if (product instanceof Books books) {
+            line.append(books.getAuthor()).append(',').append(books.getGenre());
+        } else if (product instanceof HomeGarden homeGarden) {
+            line.append(homeGarden.getMaterial()).append(',').append(homeGarden.getRoom());
+        } else {
+            throw new IllegalArgumentException("Unsupported product type: " + product.getClass().getName());
+        }
+        return line.toString();
+    }
+
+    // Replaces the file atomically, see AtomicFiles
+    public static void write(Path file, Collection<Product> products) throws IOException {
+        AtomicFiles.write(file, out -> write(new OutputStreamWriter(out, StandardCharsets.UTF_8), products));
+    }
+
+    public static void write(Writer writer, Collection<Product> products) throws IOException {
+        for (Product product : products) {
+            writer.write(toLine(product));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,150 @@
+package org.example;
+
+import java.util.HashMap;
+
+/**
+ * Hash index from product ID to catalog ordinal.
+ *
+ * IDs that follow the letter + digits scheme are packed into a long (see {@link ProductIds#pack})
+ * and stored in an open-addressing table of primitive arrays: 12 bytes per slot, kept at most
+ * half full, so about 24 bytes per product and no per-entry objects.
+ * Any other ID falls back to a regular HashMap.
+ */
+public class ProductIdIndex {
+    private static final long EMPTY = -1L;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] ordinals;
+    private int packedCount;
+    private int resizeThreshold;
+
+    // IDs that cannot be packed (e.g. legacy or hand-typed IDs)
+    private final HashMap<String, Integer> otherIds = new HashMap<>();
+
+    public ProductIdIndex(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    // Returns the ordinal stored for the ID, or -1 if the ID is not indexed
+    public int get(String productID) {
+        long key = ProductIds.pack(productID);
+        if (key == ProductIds.NOT_PACKABLE) {
+            Integer ordinal = otherIds.get(productID);
+            return ordinal == null ? -1 : ordinal;
+        }
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return ordinals[slot];
+            }
+        }
+        return -1;
+    }
+
+    // Maps the ID to the ordinal, replacing any previous mapping
+    public void put(String productID, int ordinal) {
+        long key = ProductIds.pack(productID);
+        if (key == ProductIds.NOT_PACKABLE) {
+            otherIds.put(productID, ordinal);
+            return;
+        }
+        if (packedCount >= resizeThreshold) {
+            rehash(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                ordinals[slot] = ordinal;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        ordinals[slot] = ordinal;
+        packedCount++;
+    }
+
+    // Removes the ID, returns the ordinal it was mapped to or -1
+    public int remove(String productID) {
+        long key = ProductIds.pack(productID);
+        if (key == ProductIds.NOT_PACKABLE) {
+            Integer ordinal = otherIds.remove(productID);
+            return ordinal == null ? -1 : ordinal;
+        }
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int removed = ordinals[slot];
+        // Backward-shift deletion keeps probe chains intact without tombstones
+        int hole = slot;
+        for (int next = (hole + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = mix(keys[next]) & mask;
+            boolean between = hole <= next ? (home > hole && home <= next) : (home > hole || home <= next);
+            if (!between) {
+                keys[hole] = keys[next];
+                ordinals[hole] = ordinals[next];
+                hole = next;
+            }
+        }
+        keys[hole] = EMPTY;
+        packedCount--;
+        return removed;
+    }
+
+    public int size() {
+        return packedCount + otherIds.size();
+    }
+
+    public void clear() {
+        allocate(MIN_CAPACITY);
+        packedCount = 0;
+        otherIds.clear();
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        int[] oldOrdinals = ordinals;
+        allocate(newCapacity);
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                ordinals[slot] = oldOrdinals[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        ordinals = new int[capacity];
+        java.util.Arrays.fill(keys, EMPTY);
+        resizeThreshold = capacity / 2;
+    }
+
+    // Table size with a load factor of at most 0.5, rounded up to a power of two
+    private static int tableSizeFor(int expectedSize) {
+        long wanted = Math.max(MIN_CAPACITY, (long) expectedSize * 2);
+        int capacity = MIN_CAPACITY;
+        while (capacity < wanted && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    // Sequential IDs differ only in the low bits, so spread them before masking
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
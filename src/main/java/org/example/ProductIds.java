@@ -0,0 +1,92 @@
+package org.example;
+
+/**
+ * Product ID scheme helpers.
+ *
+ * A product ID is a category letter followed by 3 to 12 digits, e.g. E001 or C000004521.
+ * The letter is the category prefix (E electronics, C clothing, B books, H home &amp; garden),
+ * which gives every category up to 10^12 IDs.
+ *
+ * IDs made of one letter and up to 15 digits can be packed into a single long
+ * (see {@link #pack(String)}), so indexes can key on a primitive instead of a String
+ * while still reading the category prefix straight out of the key.
+ */
+public final class ProductIds {
+    public static final int MIN_DIGITS = 3;
+    public static final int MAX_DIGITS = 12;
+
+    // Packed layout: [prefix letter 1-26 : 5 bits][digit count 1-15 : 4 bits][numeric value : 50 bits]
+    private static final int MAX_PACKED_DIGITS = 15;
+    private static final int VALUE_BITS = 50;
+    private static final int DIGITS_SHIFT = VALUE_BITS;
+    private static final int PREFIX_SHIFT = VALUE_BITS + 4;
+
+    public static final long NOT_PACKABLE = -1L;
+
+    private ProductIds() {
+    }
+
+    // validate an ID against the catalog scheme (prefix letter in ECBH + 3 to 12 digits)
+    public static boolean isValid(String productID) {
+        if (productID == null || productID.length() < 1 + MIN_DIGITS || productID.length() > 1 + MAX_DIGITS) {
+            return false;
+        }
+        char prefix = productID.charAt(0);
+        if (prefix != 'E' && prefix != 'C' && prefix != 'B' && prefix != 'H') {
+            return false;
+        }
+        for (int i = 1; i < productID.length(); i++) {
+            char c = productID.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Build an ID from a prefix and a number, zero padded to the given number of digits
+    public static String format(char prefix, long number, int digits) {
+        StringBuilder sb = new StringBuilder(1 + digits);
+        sb.append(prefix);
+        String value = Long.toString(number);
+        for (int i = value.length(); i < digits; i++) {
+            sb.append('0');
+        }
+        return sb.append(value).toString();
+    }
+
+    /**
+     * Pack an ID of the form letter + 1..15 digits into a non-negative long.
+     * The digit count is part of the key, so E001 and E01 stay distinct.
+     * Returns {@link #NOT_PACKABLE} for any other shape.
+     */
+    public static long pack(String productID) {
+        int length = productID.length();
+        if (length < 2 || length > 1 + MAX_PACKED_DIGITS) {
+            return NOT_PACKABLE;
+        }
+        char prefix = productID.charAt(0);
+        if (prefix < 'A' || prefix > 'Z') {
+            return NOT_PACKABLE;
+        }
+        long value = 0;
+        for (int i = 1; i < length; i++) {
+            char c = productID.charAt(i);
+            if (c < '0' || c > '9') {
+                return NOT_PACKABLE;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return ((long) (prefix - 'A' + 1) << PREFIX_SHIFT) | ((long) (length - 1) << DIGITS_SHIFT) | value;
+    }
+
+    // Category prefix letter of a packed key
+    public static char prefixOf(long packedID) {
+        return (char) ('A' + (int) (packedID >>> PREFIX_SHIFT) - 1);
+    }
+
+    // Numeric part of a packed key
+    public static long numberOf(long packedID) {
+        return packedID & ((1L << VALUE_BITS) - 1);
+    }
+}
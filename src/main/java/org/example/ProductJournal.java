@@ -0,0 +1,302 @@
+package org.example;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of catalog changes (products-N.journal), replayed on top of the snapshot at startup.
+ *
+ * Every add, remove and quantity change appends one record:
+ * <pre>
+ *   length   4 bytes  size of op + payload
+ *   op       1 byte   'A' add, 'R' remove, 'Q' quantity
+ *   payload           'A': a {@link ProductRecords} entry, 'R': product ID, 'Q': product ID + new quantity (4 bytes)
+ *   crc32    4 bytes  checksum of op + payload
+ * </pre>
+ * so persisting a change costs a few dozen bytes whatever the size of the catalog.
+ * Appended records are buffered until {@link #flush()}, which writes and syncs them in one go.
+ * Quantities are stored as absolute values and adds of an existing ID are ignored, which makes
+ * replaying a segment that is already part of the snapshot harmless.
+ *
+ * The journal is split into numbered segments. {@link #rotate()} starts a new segment; once a
+ * snapshot containing every change up to that point is written, {@link #deleteThrough(long)} drops
+ * the old segments. A record cut short by a crash ends the replay of its segment.
+ *
+ * Only one manager per data directory can append; others get {@code null} from {@link #open(Path)}
+ * and can still {@link #replay(Path, ProductCatalog)}.
+ */
+public class ProductJournal implements AutoCloseable {
+    static final String FILE_PREFIX = "products-";
+    static final String FILE_SUFFIX = ".journal";
+    private static final String LOCK_FILE = "products.journal.lock";
+
+    private static final byte ADD = 'A';
+    private static final byte REMOVE = 'R';
+    private static final byte QUANTITY = 'Q';
+
+    private final Path directory;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    private FileChannel segment;
+    private long generation;
+    private long segmentBytes;
+
+    // Scratch space for encoding one record
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(256);
+    private final DataOutputStream record = new DataOutputStream(recordBytes);
+    private final CRC32 crc = new CRC32();
+
+    // Encoded records not written to the segment yet
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream(4096);
+    private final DataOutputStream pendingOut = new DataOutputStream(pending);
+
+    private ProductJournal(Path directory, FileChannel lockChannel, FileLock lock) throws IOException {
+        this.directory = directory;
+        this.lockChannel = lockChannel;
+        this.lock = lock;
+        List<Long> generations = generations(directory);
+        generation = generations.isEmpty() ? 0 : generations.get(generations.size() - 1);
+        openSegment(generation + 1);
+    }
+
+    /**
+     * Opens the journal of the directory for appending, in a new segment after the existing ones.
+     * Returns null if another manager already appends to this directory.
+     */
+    public static ProductJournal open(Path directory) throws IOException {
+        FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null; // held by another manager in this JVM
+        }
+        if (lock == null) {
+            lockChannel.close();
+            return null;
+        }
+        try {
+            return new ProductJournal(directory, lockChannel, lock);
+        } catch (IOException e) {
+            lockChannel.close();
+            throw e;
+        }
+    }
+
+    // ---- appending ----
+
+    public synchronized void appendAdd(Product product) throws IOException {
+        beginRecord(ADD);
+        ProductRecords.write(record, product);
+        endRecord();
+    }
+
+    public synchronized void appendRemove(String productID) throws IOException {
+        beginRecord(REMOVE);
+        ProductRecords.writeString(record, productID);
+        endRecord();
+    }
+
+    public synchronized void appendQuantity(String productID, int quantity) throws IOException {
+        beginRecord(QUANTITY);
+        ProductRecords.writeString(record, productID);
+        record.writeInt(quantity);
+        endRecord();
+    }
+
+    private void beginRecord(byte op) throws IOException {
+        recordBytes.reset();
+        record.writeInt(0); // length, filled in by endRecord
+        record.writeByte(op);
+    }
+
+    private void endRecord() throws IOException {
+        byte[] bytes = recordBytes.toByteArray();
+        int length = bytes.length - 4;
+        bytes[0] = (byte) (length >>> 24);
+        bytes[1] = (byte) (length >>> 16);
+        bytes[2] = (byte) (length >>> 8);
+        bytes[3] = (byte) length;
+        crc.reset();
+        crc.update(bytes, 4, length);
+        pending.write(bytes);
+        pendingOut.writeInt((int) crc.getValue());
+        segmentBytes += bytes.length + 4;
+    }
+
+    /**
+     * Writes the records appended since the last flush with a single write and forces them to disk.
+     * Records are buffered until then, so a burst of changes costs one write and one fsync.
+     */
+    public synchronized void flush() throws IOException {
+        if (pending.size() == 0) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(pending.toByteArray());
+        while (buffer.hasRemaining()) {
+            segment.write(buffer);
+        }
+        segment.force(false);
+        pending.reset();
+    }
+
+    // Bytes appended to the current segment, including records not flushed yet
+    public synchronized long segmentBytes() {
+        return segmentBytes;
+    }
+
+    /**
+     * Starts a new segment and returns the generation of the previous one. A snapshot taken
+     * right after this call covers every segment up to the returned generation.
+     */
+    public synchronized long rotate() throws IOException {
+        flush();
+        long previous = generation;
+        segment.close();
+        openSegment(previous + 1);
+        return previous;
+    }
+
+    // Deletes the segments up to and including the given generation
+    public void deleteThrough(long lastGeneration) throws IOException {
+        for (long existing : generations(directory)) {
+            if (existing <= lastGeneration) {
+                Files.deleteIfExists(segmentPath(directory, existing));
+            }
+        }
+    }
+
+    private void openSegment(long newGeneration) throws IOException {
+        segment = FileChannel.open(segmentPath(directory, newGeneration),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        generation = newGeneration;
+        segmentBytes = segment.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            closeSegmentAndLock();
+        }
+    }
+
+    private void closeSegmentAndLock() throws IOException {
+        try {
+            segment.close();
+        } finally {
+            lock.release();
+            lockChannel.close();
+        }
+    }
+
+    // ---- replay ----
+
+    /**
+     * Applies every segment in the directory to the catalog, oldest first.
+     * Returns the number of records applied.
+     */
+    public static int replay(Path directory, ProductCatalog catalog) throws IOException {
+        int applied = 0;
+        for (long existing : generations(directory)) {
+            Path file = segmentPath(directory, existing);
+            byte[] bytes;
+            try {
+                bytes = Files.readAllBytes(file);
+            } catch (NoSuchFileException e) {
+                continue; // compacted away by the manager appending to this directory
+            }
+            applied += replay(ByteBuffer.wrap(bytes), catalog, file);
+        }
+        return applied;
+    }
+
+    private static int replay(ByteBuffer in, ProductCatalog catalog, Path file) {
+        CRC32 crc = new CRC32();
+        int applied = 0;
+        while (in.remaining() >= 4) {
+            int start = in.position();
+            int length = in.getInt();
+            if (length < 1 || length > in.remaining() - 4) {
+                System.err.println("Ignoring incomplete journal record at byte " + start + " of " + file.getFileName());
+                break;
+            }
+            crc.reset();
+            crc.update(in.array(), in.arrayOffset() + in.position(), length);
+            if ((int) crc.getValue() != in.getInt(in.position() + length)) {
+                System.err.println("Ignoring corrupt journal record at byte " + start + " of " + file.getFileName());
+                break;
+            }
+            ByteBuffer body = in.slice(in.position(), length);
+            in.position(in.position() + length + 4);
+            try {
+                apply(body, catalog);
+                applied++;
+            } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+                System.err.println("Skipping invalid journal record at byte " + start + " of " + file.getFileName());
+            }
+        }
+        return applied;
+    }
+
+    private static void apply(ByteBuffer body, ProductCatalog catalog) throws IOException {
+        byte op = body.get();
+        switch (op) {
+            case ADD:
+                catalog.add(ProductRecords.read(body));
+                break;
+            case REMOVE:
+                catalog.remove(ProductRecords.readString(body));
+                break;
+            case QUANTITY:
+                String productID = ProductRecords.readString(body);
+                int quantity = body.getInt();
+                Product product = catalog.get(productID);
+                if (product != null) {
+                    catalog.addQuantity(productID, quantity - product.getQuantity());
+                }
+                break;
+            default:
+                throw new IOException("Unknown journal record type: " + op);
+        }
+    }
+
+    // ---- segment files ----
+
+    static Path segmentPath(Path directory, long generation) {
+        return directory.resolve(FILE_PREFIX + generation + FILE_SUFFIX);
+    }
+
+    // Generations of the segments in the directory, oldest first
+    static List<Long> generations(Path directory) throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    generations.add(Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // not a journal segment
+                }
+            }
+        }
+        generations.sort(null);
+        return generations;
+    }
+}
@@ -0,0 +1,103 @@
+package org.example;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A catalog query: which products (text, category, attribute values, price range), in which
+ * order, and which page of them. Immutable; start from {@link #all()} and narrow it down:
+ * <pre>
+ *   ProductQuery.all().withText("laptop").withCategory("Electronics")
+ *           .sortedBy(ProductSortIndex.Order.PRICE_ASCENDING).page(0, 20)
+ * </pre>
+ * Run it with {@link QueryPlanner}.
+ *
+ * @param text       search words, "" for no text filter
+ * @param category   category, null for every category
+ * @param attributes facet -> accepted values (any of them), see {@link ProductFacets}
+ * @param minPrice   lowest price, -infinity for no bound
+ * @param maxPrice   highest price, +infinity for no bound
+ * @param order      sort order, null for catalog (insertion) order or relevance
+ * @param relevance  rank the matches by how well they match the text (BM25), best first;
+ *                   catalog order when there is no text
+ * @param offset     number of matches to skip
+ * @param limit      largest number of products to return
+ */
+public record ProductQuery(String text, String category, Map<String, Set<String>> attributes,
+                           double minPrice, double maxPrice, ProductSortIndex.Order order, boolean relevance,
+                           int offset, int limit) {
+
+    private static final ProductQuery ALL = new ProductQuery("", null, Map.of(),
+            Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, null, false, 0, Integer.MAX_VALUE);
+
+    public ProductQuery {
+        text = text == null ? "" : text.strip();
+        if (category != null && (category.isBlank() || category.equalsIgnoreCase("All"))) {
+            category = null;
+        }
+        attributes = attributes == null ? Map.of() : Map.copyOf(attributes);
+        if (Double.isNaN(minPrice) || Double.isNaN(maxPrice)) {
+            throw new IllegalArgumentException("Price bounds cannot be NaN");
+        }
+        if (order != null && relevance) {
+            throw new IllegalArgumentException("A query is either sorted or ranked by relevance");
+        }
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit cannot be negative");
+        }
+    }
+
+    // Every product, in catalog order
+    public static ProductQuery all() {
+        return ALL;
+    }
+
+    public ProductQuery withText(String text) {
+        return new ProductQuery(text, category, attributes, minPrice, maxPrice, order, relevance, offset, limit);
+    }
+
+    // "All" or null for every category
+    public ProductQuery withCategory(String category) {
+        return new ProductQuery(text, category, attributes, minPrice, maxPrice, order, relevance, offset, limit);
+    }
+
+    // Products with any of the values for the facet; replaces an earlier selection of that facet
+    public ProductQuery withAttribute(String facet, String... values) {
+        Map<String, Set<String>> selection = new HashMap<>(attributes);
+        selection.put(facet, Set.copyOf(List.of(values)));
+        return new ProductQuery(text, category, selection, minPrice, maxPrice, order, relevance, offset, limit);
+    }
+
+    public ProductQuery withoutAttributes() {
+        return new ProductQuery(text, category, Map.of(), minPrice, maxPrice, order, relevance, offset, limit);
+    }
+
+    // Infinite bounds leave that side open
+    public ProductQuery withPriceRange(double minPrice, double maxPrice) {
+        return new ProductQuery(text, category, attributes, minPrice, maxPrice, order, relevance, offset, limit);
+    }
+
+    // null for catalog order
+    public ProductQuery sortedBy(ProductSortIndex.Order order) {
+        return new ProductQuery(text, category, attributes, minPrice, maxPrice, order, false, offset, limit);
+    }
+
+    // Best matches of the text first
+    public ProductQuery rankedByRelevance() {
+        return new ProductQuery(text, category, attributes, minPrice, maxPrice, null, true, offset, limit);
+    }
+
+    public ProductQuery page(int offset, int limit) {
+        return new ProductQuery(text, category, attributes, minPrice, maxPrice, order, relevance, offset, limit);
+    }
+
+    public boolean hasText() {
+        return !text.isEmpty();
+    }
+
+    public boolean hasPriceRange() {
+        return minPrice != Double.NEGATIVE_INFINITY || maxPrice != Double.POSITIVE_INFINITY;
+    }
+}
@@ -0,0 +1,358 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Sorted indexes over the numeric product fields, for range filters.
+ *
+ * Each field (price, warranty in months, quantity in stock) is kept as two parallel arrays
+ * sorted by value: the values and the ordinals they belong to. Counting the products in a
+ * range is two binary searches, O(log n); listing them is the same plus one step per match.
+ * Warranty only exists for electronics, other products are simply not in that index.
+ *
+ * The indexes follow the catalog through {@link CatalogListener}; a change moves the product
+ * within the fields whose value changed, a stock change only touches the quantity index.
+ * All methods are synchronized.
+ */
+public class ProductRangeIndex implements CatalogListener {
+
+    public enum Field {
+        PRICE, WARRANTY, QUANTITY
+    }
+
+    private final SortedColumn[] columns = new SortedColumn[Field.values().length];
+
+    public ProductRangeIndex(ProductCatalog catalog) {
+        for (Field field : Field.values()) {
+            columns[field.ordinal()] = new SortedColumn(Math.max(64, catalog.size()));
+        }
+        synchronized (this) {
+            for (int ordinal = 0; ordinal < catalog.ordinalLimit(); ordinal++) {
+                Product product = catalog.productAt(ordinal);
+                if (product != null) {
+                    for (Field field : Field.values()) {
+                        columns[field.ordinal()].append(ordinal, valueOf(field, product));
+                    }
+                }
+            }
+            for (SortedColumn column : columns) {
+                column.sort();
+            }
+        }
+        catalog.addListener(this);
+    }
+
+    // Value of the field for a product, NaN if the product does not have it
+    static double valueOf(Field field, Product product) {
+        switch (field) {
+            case PRICE:
+                return product.getPrice();
+            case QUANTITY:
+                return product.getQuantity();
+            case WARRANTY:
+                return product instanceof Electronics electronics ? electronics.getWarrantyPeriod() : Double.NaN;
+            default:
+                throw new IllegalArgumentException("Unknown field " + field);
+        }
+    }
+
+    // ---- queries ----
+
+    // Number of products with min <= value <= max
+    public synchronized int count(Field field, double min, double max) {
+        SortedColumn column = columns[field.ordinal()];
+        return Math.max(0, column.upperBound(max) - column.lowerBound(min));
+    }
+
+    // Ordinals of the products with min <= value <= max, as a new bitmap
+    public synchronized BitSet matching(Field field, double min, double max) {
+        BitSet result = new BitSet();
+        matchingInto(field, min, max, result);
+        return result;
+    }
+
+    // Same as matching, written into out (cleared first) so the caller can reuse one bitmap
+    public synchronized void matchingInto(Field field, double min, double max, BitSet out) {
+        SortedColumn column = columns[field.ordinal()];
+        out.clear();
+        for (int i = column.lowerBound(min), end = column.upperBound(max); i < end; i++) {
+            out.set(column.ordinals[i]);
+        }
+    }
+
+    /**
+     * Writes the ordinals with min <= value <= max that are set in the filter (null for every
+     * product) into out, by value ascending or descending, leaving out the first offset of them.
+     * Returns how many were written (at most out.length). Walks the slice of the index and stops
+     * as soon as out is full. Ties keep ordinal order in both directions, like {@link ProductSortIndex}.
+     */
+    public synchronized int rangeInto(Field field, double min, double max, boolean descending,
+                                      BitSet filter, int offset, int[] out) {
+        SortedColumn column = columns[field.ordinal()];
+        int from = column.lowerBound(min);
+        int to = column.upperBound(max);
+        int skipped = 0;
+        int count = 0;
+        for (int done = 0; done < to - from && count < out.length; ) {
+            // Ascending: one entry at a time; descending: one run of equal values, walked forwards
+            int start = descending ? to - 1 - done : from + done;
+            int end = start;
+            if (descending) {
+                while (start > from && column.values[start - 1] == column.values[end]) {
+                    start--;
+                }
+            }
+            for (int i = start; i <= end && count < out.length; i++) {
+                int ordinal = column.ordinals[i];
+                if (filter == null || filter.get(ordinal)) {
+                    if (skipped < offset) {
+                        skipped++;
+                    } else {
+                        out[count++] = ordinal;
+                    }
+                }
+            }
+            done += end - start + 1;
+        }
+        return count;
+    }
+
+    // Smallest value of the field, NaN if no product has it
+    public synchronized double min(Field field) {
+        SortedColumn column = columns[field.ordinal()];
+        return column.size == 0 ? Double.NaN : column.values[0];
+    }
+
+    // Largest value of the field, NaN if no product has it
+    public synchronized double max(Field field) {
+        SortedColumn column = columns[field.ordinal()];
+        return column.size == 0 ? Double.NaN : column.values[column.size - 1];
+    }
+
+    // Ordinals of the k products with the highest (or lowest) values, best first; O(k)
+    public synchronized int[] extremes(Field field, int k, boolean highest) {
+        SortedColumn column = columns[field.ordinal()];
+        int[] result = new int[Math.max(0, Math.min(k, column.size))];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = column.ordinals[highest ? column.size - 1 - i : i];
+        }
+        return result;
+    }
+
+    /**
+     * Values of the field for the products in the bitmap, sorted ascending, so later range
+     * counts over just those products are a binary search on the returned array.
+     */
+    public synchronized double[] sortedValues(Field field, BitSet within) {
+        SortedColumn column = columns[field.ordinal()];
+        int matches = within.cardinality();
+        double[] result = new double[matches];
+        int count = 0;
+        if ((long) matches * ProductSortIndex.SMALL_FILTER_RATIO < column.size) {
+            for (int ordinal = within.nextSetBit(0); ordinal >= 0; ordinal = within.nextSetBit(ordinal + 1)) {
+                if (ordinal < column.valueByOrdinal.length && !Double.isNaN(column.valueByOrdinal[ordinal])) {
+                    result[count++] = column.valueByOrdinal[ordinal];
+                }
+            }
+            Arrays.sort(result, 0, count);
+        } else {
+            for (int i = 0; i < column.size && count < matches; i++) {
+                if (within.get(column.ordinals[i])) {
+                    result[count++] = column.values[i];
+                }
+            }
+        }
+        return count == matches ? result : Arrays.copyOf(result, count);
+    }
+
+    // Number of values in a sorted array (see sortedValues) with min <= value <= max
+    public static int countInRange(double[] sortedValues, double min, double max) {
+        return Math.max(0, upperBound(sortedValues, sortedValues.length, max) - lowerBound(sortedValues, sortedValues.length, min));
+    }
+
+    // ---- maintenance ----
+
+    @Override
+    public synchronized void productAdded(int ordinal, Product product) {
+        for (Field field : Field.values()) {
+            columns[field.ordinal()].insert(ordinal, valueOf(field, product));
+        }
+    }
+
+    @Override
+    public synchronized void productRemoved(int ordinal, Product product) {
+        for (SortedColumn column : columns) {
+            column.delete(ordinal);
+        }
+    }
+
+    @Override
+    public synchronized void productChanged(int ordinal, Product product) {
+        for (Field field : Field.values()) {
+            SortedColumn column = columns[field.ordinal()];
+            double value = valueOf(field, product);
+            if (Double.compare(column.valueOf(ordinal), value) != 0) {
+                column.delete(ordinal);
+                column.insert(ordinal, value);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void catalogCleared() {
+        for (SortedColumn column : columns) {
+            column.clear();
+        }
+    }
+
+    // First index with values[index] >= key
+    private static int lowerBound(double[] values, int size, double key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // First index with values[index] > key
+    private static int upperBound(double[] values, int size, double key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Values sorted ascending with their ordinals; ties are ordered by ordinal
+    private static final class SortedColumn {
+        double[] values;
+        int[] ordinals;
+        int size;
+        // Ordinal -> value, NaN when the ordinal is not in this column
+        double[] valueByOrdinal = new double[0];
+
+        SortedColumn(int capacity) {
+            values = new double[capacity];
+            ordinals = new int[capacity];
+        }
+
+        double valueOf(int ordinal) {
+            return ordinal < valueByOrdinal.length ? valueByOrdinal[ordinal] : Double.NaN;
+        }
+
+        // Bulk load: append unsorted, then sort() once
+        void append(int ordinal, double value) {
+            remember(ordinal, value);
+            if (Double.isNaN(value)) {
+                return;
+            }
+            ensureCapacity();
+            values[size] = value;
+            ordinals[size] = ordinal;
+            size++;
+        }
+
+        void sort() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> {
+                int cmp = Double.compare(values[a], values[b]);
+                return cmp != 0 ? cmp : Integer.compare(ordinals[a], ordinals[b]);
+            });
+            double[] sortedValues = new double[values.length];
+            int[] sortedOrdinals = new int[ordinals.length];
+            for (int i = 0; i < size; i++) {
+                sortedValues[i] = values[order[i]];
+                sortedOrdinals[i] = ordinals[order[i]];
+            }
+            values = sortedValues;
+            ordinals = sortedOrdinals;
+        }
+
+        void insert(int ordinal, double value) {
+            remember(ordinal, value);
+            if (Double.isNaN(value)) {
+                return;
+            }
+            ensureCapacity();
+            int index = position(ordinal, value);
+            System.arraycopy(values, index, values, index + 1, size - index);
+            System.arraycopy(ordinals, index, ordinals, index + 1, size - index);
+            values[index] = value;
+            ordinals[index] = ordinal;
+            size++;
+        }
+
+        void delete(int ordinal) {
+            double value = valueOf(ordinal);
+            if (Double.isNaN(value)) {
+                return;
+            }
+            int index = position(ordinal, value);
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            System.arraycopy(ordinals, index + 1, ordinals, index, size - index - 1);
+            size--;
+            valueByOrdinal[ordinal] = Double.NaN;
+        }
+
+        void clear() {
+            size = 0;
+            Arrays.fill(valueByOrdinal, Double.NaN);
+        }
+
+        int lowerBound(double key) {
+            return ProductRangeIndex.lowerBound(values, size, key);
+        }
+
+        int upperBound(double key) {
+            return ProductRangeIndex.upperBound(values, size, key);
+        }
+
+        // Index of (value, ordinal) if present, else where it goes
+        private int position(int ordinal, double value) {
+            int low = lowerBound(value);
+            int high = upperBound(value);
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ordinals[mid] < ordinal) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private void remember(int ordinal, double value) {
+            if (ordinal >= valueByOrdinal.length) {
+                int old = valueByOrdinal.length;
+                valueByOrdinal = Arrays.copyOf(valueByOrdinal, Math.max(ordinal + 1, Math.max(64, old + (old >> 1))));
+                Arrays.fill(valueByOrdinal, old, valueByOrdinal.length, Double.NaN);
+            }
+            valueByOrdinal[ordinal] = value;
+        }
+
+        private void ensureCapacity() {
+            if (size == values.length) {
+                int capacity = size + (size >> 1) + 1;
+                values = Arrays.copyOf(values, capacity);
+                ordinals = Arrays.copyOf(ordinals, capacity);
+            }
+        }
+    }
+}
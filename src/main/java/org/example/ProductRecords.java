@@ -0,0 +1,114 @@
+package org.example;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary encoding of a single product, shared by the snapshot and journal files.
+ *
+ * Layout: type byte ('E', 'C', 'B' or 'H'), ID, name, quantity (4 bytes), price (8 byte double),
+ * then the two category attributes. Electronics store the warranty as 4 bytes, every other
+ * attribute is a string. Strings are UTF-8 prefixed with their byte length as a varint
+ * (one byte for strings shorter than 128 bytes).
+ */
+public final class ProductRecords {
+    private ProductRecords() {
+    }
+
+    public static void write(DataOutput out, Product product) throws IOException {
+        if (product instanceof Electronics electronics) {
+            out.writeByte('E');
+            writeCommon(out, product);
+            writeString(out, electronics.getBrand());
+            out.writeInt(electronics.getWarrantyPeriod());
+        } else if (product instanceof Clothing clothing) {
+            out.writeByte('C');
+            writeCommon(out, product);
+            writeString(out, clothing.getSize());
+            writeString(out, clothing.getColor());
+        } else if (product instanceof Books books) {
+            out.writeByte('B');
+            writeCommon(out, product);
+            writeString(out, books.getAuthor());
+            writeString(out, books.getGenre());
+        } else if (product instanceof HomeGarden homeGarden) {
+            out.writeByte('H');
+            writeCommon(out, product);
+            writeString(out, homeGarden.getMaterial());
+            writeString(out, homeGarden.getRoom());
+        } else {
+            throw new IllegalArgumentException("Unsupported product type: " + product.getClass().getName());
+        }
+    }
+
+    // Decodes one product starting at the buffer position and advances past it
+    public static Product read(ByteBuffer in) throws IOException {
+        byte type = in.get();
+        String productID = readString(in);
+        String productName = readString(in);
+        int quantity = in.getInt();
+        double price = in.getDouble();
+        switch (type) {
+            case 'E':
+                return new Electronics(productID, productName, quantity, price, readString(in), in.getInt());
+            case 'C':
+                return new Clothing(productID, productName, quantity, price, readString(in), readString(in));
+            case 'B':
+                return new Books(productID, productName, quantity, price, readString(in), readString(in));
+            case 'H':
+                return new HomeGarden(productID, productName, quantity, price, readString(in), readString(in));
+            default:
+                throw new IOException("Unknown product record type: " + type);
+        }
+    }
+
+    private static void writeCommon(DataOutput out, Product product) throws IOException {
+        writeString(out, product.getProductID());
+        writeString(out, product.getProductName());
+        out.writeInt(product.getQuantity());
+        out.writeDouble(product.getPrice());
+    }
+
+    public static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    public static String readString(ByteBuffer in) throws IOException {
+        int length = readVarInt(in);
+        if (length > in.remaining()) {
+            throw new IOException("Truncated record");
+        }
+        if (in.hasArray()) {
+            String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+            return value;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    public static int readVarInt(ByteBuffer in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,585 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Inverted index for the product search box.
+ *
+ * Every product is split into terms: the lower-cased runs of letters and digits of its name, ID
+ * and attributes (brand, size, color, author, genre, material, ...). Each term keeps a posting
+ * list, the sorted ordinals of the products containing it. A query matches the products in
+ * which every query word is the prefix of some term ("lap dell" finds "Laptop" by "Dell"): the
+ * postings of the terms starting with each word are merged, and the per-word results are
+ * intersected, smallest first. Query cost depends on the number of matches, not on the size
+ * of the catalog.
+ *
+ * Matches can be ranked by relevance with {@link #topByRelevance}: BM25 over the product's terms,
+ * with a word in the name counting more than one in the ID or attributes. The statistics it
+ * needs (document frequencies from the postings, boosted term frequencies and lengths per
+ * product, their total) are updated with every change, and only the best k matches are kept
+ * while scoring, in a bounded heap.
+ *
+ * Mistyped words are corrected with {@link #correctQuery(String)}: a {@link TermBkTree} over the
+ * term dictionary finds the terms within one or two edits of a word without comparing it to
+ * every term. The tree is built on the first correction and kept up to date from then on.
+ *
+ * The index registers itself as a {@link CatalogListener} and follows adds, removes and edits.
+ * All methods are synchronized, so queries can run on a background thread.
+ */
+public class ProductSearchIndex implements CatalogListener {
+    private static final int[] NO_MATCHES = new int[0];
+
+    // BM25 parameters: term frequency saturation and document length normalization
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Field boosts for relevance: a word in the name weighs three times one in the ID or attributes
+    private static final float NAME_BOOST = 3f;
+    private static final float ID_BOOST = 1f;
+    private static final float ATTRIBUTE_BOOST = 1f;
+
+    private final ProductCatalog catalog;
+
+    // Term -> postings, sorted so the terms sharing a prefix are adjacent
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+
+    // Distinct terms of each indexed product, to undo them on remove or edit
+    private String[][] termsByOrdinal = new String[64][];
+
+    // Boosted frequency of each of those terms, and the sum of all products' boosted lengths
+    private float[][] weightsByOrdinal = new float[64][];
+    private double totalLength;
+
+    // Ordinals of every indexed product, for blank queries
+    private final BitSet indexed = new BitSet();
+
+    // Per-word union of postings, reused by searchInto and topByRelevance
+    private final BitSet wordMatches = new BitSet();
+    private final BitSet rankCandidates = new BitSet();
+
+    // Term dictionary for typo correction, null until the first correction is asked for
+    private TermBkTree fuzzyTerms;
+
+    // Builds the index over the products already in the catalog and follows its changes
+    public ProductSearchIndex(ProductCatalog catalog) {
+        this.catalog = catalog;
+        synchronized (this) {
+            for (int ordinal = 0; ordinal < catalog.ordinalLimit(); ordinal++) {
+                Product product = catalog.productAt(ordinal);
+                if (product != null) {
+                    index(ordinal, product);
+                }
+            }
+        }
+        catalog.addListener(this);
+    }
+
+    // ---- queries ----
+
+    /**
+     * Ordinals of the products matching every word of the query, in ascending (insertion) order.
+     * A query without any word matches every product.
+     */
+    public synchronized int[] search(String query) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) {
+            return allOrdinals();
+        }
+        List<int[]> perWord = new ArrayList<>(words.size());
+        for (String word : new LinkedHashSet<>(words)) {
+            int[] matches = prefixMatches(word);
+            if (matches.length == 0) {
+                return NO_MATCHES;
+            }
+            perWord.add(matches);
+        }
+        perWord.sort(Comparator.comparingInt(matches -> matches.length));
+        int[] result = perWord.get(0);
+        int length = result.length;
+        for (int i = 1; i < perWord.size() && length > 0; i++) {
+            length = intersect(result, length, perWord.get(i));
+        }
+        return length == result.length ? result : Arrays.copyOf(result, length);
+    }
+
+    /**
+     * Same matches as {@link #search(String)}, written into out (cleared first) instead of a new
+     * array. The postings are merged word by word into a reused bitmap, so a query allocates
+     * nothing per product once the bitmaps have grown to the catalog size.
+     */
+    public synchronized void searchInto(String query, BitSet out) {
+        out.clear();
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) {
+            out.or(indexed);
+            return;
+        }
+        for (int w = 0; w < words.size(); w++) {
+            String word = words.get(w);
+            wordMatches.clear();
+            for (Postings postings : terms.subMap(word, word + Character.MAX_VALUE).values()) {
+                for (int i = 0; i < postings.size; i++) {
+                    wordMatches.set(postings.ordinals[i]);
+                }
+            }
+            if (w == 0) {
+                out.or(wordMatches);
+            } else {
+                out.and(wordMatches);
+            }
+            if (out.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Ordinals of the k matches of the query that rank highest by BM25, best first, among the
+     * products set in filter (null for every product). Equal scores keep insertion order.
+     * Every match is scored, but only k of them are kept, in a min-heap: O(m log k) for m matches.
+     */
+    public synchronized int[] topByRelevance(String query, BitSet filter, int k) {
+        List<String> words = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        rankCandidates.clear();
+        rankCandidates.or(indexed);
+        if (filter != null) {
+            rankCandidates.and(filter);
+        }
+        int productCount = Math.max(1, indexed.cardinality());
+        double[] idf = new double[words.size()];
+        for (int w = 0; w < words.size() && !rankCandidates.isEmpty(); w++) {
+            String word = words.get(w);
+            wordMatches.clear();
+            for (Postings postings : terms.subMap(word, word + Character.MAX_VALUE).values()) {
+                for (int i = 0; i < postings.size; i++) {
+                    wordMatches.set(postings.ordinals[i]);
+                }
+            }
+            // A word matches every term it is a prefix of, so its document frequency is the size of their union
+            int documentFrequency = wordMatches.cardinality();
+            idf[w] = Math.log(1 + (productCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+            rankCandidates.and(wordMatches);
+        }
+
+        int capacity = Math.max(0, Math.min(k, rankCandidates.cardinality()));
+        int[] heap = new int[capacity];
+        double[] heapScores = new double[capacity];
+        int size = 0;
+        double averageLength = totalLength / productCount;
+        for (int ordinal = rankCandidates.nextSetBit(0); ordinal >= 0 && capacity > 0; ordinal = rankCandidates.nextSetBit(ordinal + 1)) {
+            double score = score(ordinal, words, idf, averageLength);
+            if (size < capacity) {
+                heap[size] = ordinal;
+                heapScores[size] = score;
+                siftUp(heap, heapScores, size++);
+            } else if (ranksBefore(score, ordinal, heapScores[0], heap[0])) {
+                heap[0] = ordinal;
+                heapScores[0] = score;
+                siftDown(heap, heapScores, size);
+            }
+        }
+        // Popping the worst one at a time fills the result from the back
+        int[] result = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            result[i] = heap[0];
+            heap[0] = heap[i];
+            heapScores[0] = heapScores[i];
+            siftDown(heap, heapScores, i);
+        }
+        return result;
+    }
+
+    // BM25 of one product: per word, the boosted frequency of the terms it prefixes, saturated and length-normalized
+    private double score(int ordinal, List<String> words, double[] idf, double averageLength) {
+        String[] productTerms = termsByOrdinal[ordinal];
+        float[] weights = weightsByOrdinal[ordinal];
+        double lengthNorm = K1 * (1 - B + B * length(weights) / averageLength);
+        double score = 0;
+        for (int w = 0; w < words.size(); w++) {
+            double frequency = 0;
+            for (int t = 0; t < productTerms.length; t++) {
+                if (productTerms[t].startsWith(words.get(w))) {
+                    frequency += weights[t];
+                }
+            }
+            score += idf[w] * frequency * (K1 + 1) / (frequency + lengthNorm);
+        }
+        return score;
+    }
+
+    // Higher score first, then lower ordinal
+    private static boolean ranksBefore(double score, int ordinal, double otherScore, int otherOrdinal) {
+        return score > otherScore || (score == otherScore && ordinal < otherOrdinal);
+    }
+
+    // Min-heap on rank: the root is the worst of the kept matches
+    private static void siftUp(int[] heap, double[] scores, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!ranksBefore(scores[parent], heap[parent], scores[index], heap[index])) {
+                break;
+            }
+            swap(heap, scores, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, double[] scores, int size) {
+        int index = 0;
+        while (true) {
+            int worst = index;
+            for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+                if (ranksBefore(scores[worst], heap[worst], scores[child], heap[child])) {
+                    worst = child;
+                }
+            }
+            if (worst == index) {
+                return;
+            }
+            swap(heap, scores, worst, index);
+            index = worst;
+        }
+    }
+
+    private static void swap(int[] heap, double[] scores, int a, int b) {
+        int ordinal = heap[a];
+        heap[a] = heap[b];
+        heap[b] = ordinal;
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+
+    private static double length(float[] weights) {
+        double length = 0;
+        for (float weight : weights) {
+            length += weight;
+        }
+        return length;
+    }
+
+    // Products matching the query, in insertion order
+    public List<Product> searchProducts(String query) {
+        int[] ordinals;
+        List<Product> products;
+        synchronized (this) {
+            ordinals = search(query);
+            products = new ArrayList<>(ordinals.length);
+            for (int ordinal : ordinals) {
+                products.add(catalog.productAt(ordinal));
+            }
+        }
+        return products;
+    }
+
+    /**
+     * The query with every word that matches nothing replaced by the closest term in the
+     * index ("lapotp del" -> "laptop dell"), or null if the query needs no correction or no
+     * term is close enough. Words of 3-4 letters may be one edit off, longer words two;
+     * ties go to the term found in the most products.
+     */
+    public synchronized String correctQuery(String query) {
+        List<String> words = tokenize(query);
+        boolean corrected = false;
+        List<String> result = new ArrayList<>(words.size());
+        for (String word : words) {
+            if (!terms.subMap(word, word + Character.MAX_VALUE).isEmpty()) {
+                result.add(word);
+                continue;
+            }
+            String closest = closestTerm(word);
+            if (closest == null) {
+                return null;
+            }
+            result.add(closest);
+            corrected = true;
+        }
+        return corrected ? String.join(" ", result) : null;
+    }
+
+    // Nearest indexed term within the allowed distance of the word, or null
+    private String closestTerm(String word) {
+        int maxDistance = word.length() <= 2 ? 0 : word.length() <= 4 ? 1 : 2;
+        if (maxDistance == 0) {
+            return null;
+        }
+        if (fuzzyTerms == null || fuzzyTerms.size() > 2 * terms.size() + 1024) {
+            // First use, or too many removed terms in the tree: (re)build it from the dictionary
+            fuzzyTerms = new TermBkTree();
+            terms.keySet().forEach(fuzzyTerms::add);
+        }
+        String[] best = new String[1];
+        int[] bestDistance = {Integer.MAX_VALUE};
+        int[] bestProducts = {0};
+        fuzzyTerms.search(word, maxDistance, (term, distance) -> {
+            Postings postings = terms.get(term);
+            if (postings == null) {
+                return; // removed since it went into the tree
+            }
+            if (distance < bestDistance[0] || (distance == bestDistance[0] && postings.size > bestProducts[0])) {
+                best[0] = term;
+                bestDistance[0] = distance;
+                bestProducts[0] = postings.size;
+            }
+        });
+        return best[0];
+    }
+
+    // Number of distinct terms in the index
+    public synchronized int termCount() {
+        return terms.size();
+    }
+
+    // Ordinals of the products with a term starting with the word, always a fresh array
+    private int[] prefixMatches(String word) {
+        Postings exact = terms.get(word);
+        SortedMap<String, Postings> range = terms.subMap(word, word + Character.MAX_VALUE);
+        if (range.size() == 1 && exact != null) {
+            return exact.toArray();
+        }
+        if (range.isEmpty()) {
+            return NO_MATCHES;
+        }
+        // Union of the postings of every term with the prefix
+        BitSet union = new BitSet(catalog.ordinalLimit());
+        for (Postings postings : range.values()) {
+            for (int i = 0; i < postings.size; i++) {
+                union.set(postings.ordinals[i]);
+            }
+        }
+        return union.stream().toArray();
+    }
+
+    private int[] allOrdinals() {
+        int[] ordinals = new int[catalog.size()];
+        int count = 0;
+        for (int ordinal = 0; ordinal < catalog.ordinalLimit(); ordinal++) {
+            if (catalog.productAt(ordinal) != null) {
+                ordinals[count++] = ordinal;
+            }
+        }
+        return count == ordinals.length ? ordinals : Arrays.copyOf(ordinals, count);
+    }
+
+    // Keeps the elements of result[0, length) that are also in other, returns the new length
+    private static int intersect(int[] result, int length, int[] other) {
+        int kept = 0;
+        if (other.length > length * 8) {
+            // Much longer list: binary search each candidate instead of walking it
+            int from = 0;
+            for (int i = 0; i < length; i++) {
+                int found = Arrays.binarySearch(other, from, other.length, result[i]);
+                if (found >= 0) {
+                    result[kept++] = result[i];
+                    from = found + 1;
+                } else {
+                    from = -found - 1;
+                }
+            }
+            return kept;
+        }
+        int j = 0;
+        for (int i = 0; i < length && j < other.length; ) {
+            if (result[i] < other[j]) {
+                i++;
+            } else if (result[i] > other[j]) {
+                j++;
+            } else {
+                result[kept++] = result[i];
+                i++;
+                j++;
+            }
+        }
+        return kept;
+    }
+
+    // ---- maintenance ----
+
+    @Override
+    public synchronized void productAdded(int ordinal, Product product) {
+        index(ordinal, product);
+    }
+
+    @Override
+    public synchronized void productRemoved(int ordinal, Product product) {
+        unindex(ordinal);
+    }
+
+    @Override
+    public synchronized void productChanged(int ordinal, Product product) {
+        String[] newTerms = termsOf(product);
+        if (ordinal < termsByOrdinal.length && Arrays.equals(termsByOrdinal[ordinal], newTerms)
+                && Arrays.equals(weightsByOrdinal[ordinal], termWeights(product, newTerms))) {
+            return; // e.g. a stock change, no searchable field changed
+        }
+        unindex(ordinal);
+        index(ordinal, product);
+    }
+
+    @Override
+    public synchronized void catalogCleared() {
+        terms.clear();
+        Arrays.fill(termsByOrdinal, null);
+        Arrays.fill(weightsByOrdinal, null);
+        totalLength = 0;
+        indexed.clear();
+        fuzzyTerms = null;
+    }
+
+    private void index(int ordinal, Product product) {
+        if (ordinal >= termsByOrdinal.length) {
+            termsByOrdinal = Arrays.copyOf(termsByOrdinal, Math.max(ordinal + 1, termsByOrdinal.length + (termsByOrdinal.length >> 1)));
+            weightsByOrdinal = Arrays.copyOf(weightsByOrdinal, termsByOrdinal.length);
+        }
+        String[] productTerms = termsOf(product);
+        termsByOrdinal[ordinal] = productTerms;
+        weightsByOrdinal[ordinal] = termWeights(product, productTerms);
+        totalLength += length(weightsByOrdinal[ordinal]);
+        indexed.set(ordinal);
+        for (String term : productTerms) {
+            terms.computeIfAbsent(term, key -> {
+                if (fuzzyTerms != null) {
+                    fuzzyTerms.add(key);
+                }
+                return new Postings();
+            }).add(ordinal);
+        }
+    }
+
+    private void unindex(int ordinal) {
+        if (ordinal >= termsByOrdinal.length || termsByOrdinal[ordinal] == null) {
+            return;
+        }
+        for (String term : termsByOrdinal[ordinal]) {
+            Postings postings = terms.get(term);
+            if (postings != null && postings.remove(ordinal) && postings.size == 0) {
+                terms.remove(term);
+            }
+        }
+        totalLength -= length(weightsByOrdinal[ordinal]);
+        termsByOrdinal[ordinal] = null;
+        weightsByOrdinal[ordinal] = null;
+        indexed.clear(ordinal);
+    }
+
+    // Distinct terms of the searchable fields of a product
+    static String[] termsOf(Product product) {
+        Set<String> productTerms = new LinkedHashSet<>();
+        productTerms.addAll(tokenize(product.getProductName()));
+        productTerms.addAll(tokenize(product.getProductID()));
+        productTerms.addAll(tokenize(product.getInfo()));
+        return productTerms.toArray(new String[0]);
+    }
+
+    // Boosted frequency of each term in the product's fields, parallel to productTerms (see termsOf)
+    static float[] termWeights(Product product, String[] productTerms) {
+        float[] weights = new float[productTerms.length];
+        addWeights(product.getProductName(), NAME_BOOST, productTerms, weights);
+        addWeights(product.getProductID(), ID_BOOST, productTerms, weights);
+        addWeights(product.getInfo(), ATTRIBUTE_BOOST, productTerms, weights);
+        return weights;
+    }
+
+    private static void addWeights(String field, float boost, String[] productTerms, float[] weights) {
+        for (String token : tokenize(field)) {
+            for (int t = 0; t < productTerms.length; t++) {
+                if (productTerms[t].equals(token)) {
+                    weights[t] += boost;
+                    break;
+                }
+            }
+        }
+    }
+
+    // Whether the product matches the query the way search(query) would, without the index
+    public static boolean matches(String query, Product product) {
+        String[] productTerms = termsOf(product);
+        for (String word : tokenize(query)) {
+            boolean found = false;
+            for (String term : productTerms) {
+                if (term.startsWith(word)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Splits text into lower-cased runs of letters and digits:
+     * "Casual T-Shirt, M" gives [casual, t, shirt, m].
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else if (token.length() > 0) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (token.length() > 0) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    // Sorted ordinals of the products containing a term
+    private static final class Postings {
+        int[] ordinals = new int[4];
+        int size;
+
+        void add(int ordinal) {
+            if (size > 0 && ordinals[size - 1] >= ordinal) {
+                int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+                if (index >= 0) {
+                    return;
+                }
+                insertAt(-index - 1, ordinal);
+                return;
+            }
+            insertAt(size, ordinal); // new products get the highest ordinal, so this is the usual case
+        }
+
+        private void insertAt(int index, int ordinal) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            System.arraycopy(ordinals, index, ordinals, index + 1, size - index);
+            ordinals[index] = ordinal;
+            size++;
+        }
+
+        boolean remove(int ordinal) {
+            int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ordinals, index + 1, ordinals, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ordinals, size);
+        }
+    }
+}
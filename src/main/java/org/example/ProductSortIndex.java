@@ -0,0 +1,377 @@
+package org.example;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Locale;
+
+/**
+ * Pre-sorted orderings of the catalog for the shop's sort options.
+ *
+ * The catalog is kept sorted by price, by name and by ID, as arrays of ordinals. A sorted page of
+ * results is one pass over an ordering that keeps the ordinals set in a filter bitmap, so no
+ * comparator runs per query; descending orders walk the same array backwards. Ties keep
+ * insertion order in both directions, like a stable sort of the unsorted list would.
+ *
+ * Names are compared through collation keys computed once per product (case- and
+ * accent-insensitive), not with compareToIgnoreCase on every comparison. IDs are compared
+ * ignoring case, like the console listing always sorted them.
+ * The orderings follow the catalog through {@link CatalogListener}: an add, remove or edit
+ * moves one entry, a stock change moves nothing. All methods are synchronized.
+ */
+public class ProductSortIndex implements CatalogListener {
+
+    public enum Order {
+        PRICE_ASCENDING(Key.PRICE, false), PRICE_DESCENDING(Key.PRICE, true),
+        NAME_ASCENDING(Key.NAME, false), NAME_DESCENDING(Key.NAME, true),
+        ID_ASCENDING(Key.ID, false), ID_DESCENDING(Key.ID, true);
+
+        private final Key key;
+        private final boolean descending;
+
+        Order(Key key, boolean descending) {
+            this.key = key;
+            this.descending = descending;
+        }
+
+        public boolean isByPrice() {
+            return key == Key.PRICE;
+        }
+
+        public boolean isDescending() {
+            return descending;
+        }
+    }
+
+    // Sort key of an ordering; also the index of the ordering in orderings
+    private enum Key {
+        PRICE, NAME, ID
+    }
+
+    // Below 1/SMALL_FILTER_RATIO of the walked entries, sorting the matches beats walking them in order;
+    // shared with ProductRangeIndex and QueryPlanner so their choices agree with this index's
+    static final int SMALL_FILTER_RATIO = 32;
+
+    private final Collator collator = Collator.getInstance(Locale.ROOT);
+
+    // Sort keys by ordinal; names[ordinal] == null means the ordinal is not in the orderings
+    private double[] prices = new double[64];
+    private CollationKey[] names = new CollationKey[64];
+    private String[] ids = new String[64];
+
+    // One ordering per key: ordinals sorted by (key, ordinal)
+    private final int[][] orderings = new int[Key.values().length][];
+    private int size;
+
+    public ProductSortIndex(ProductCatalog catalog) {
+        collator.setStrength(Collator.SECONDARY);
+        synchronized (this) {
+            for (Key key : Key.values()) {
+                orderings[key.ordinal()] = new int[Math.max(64, catalog.size())];
+            }
+            for (int ordinal = 0; ordinal < catalog.ordinalLimit(); ordinal++) {
+                Product product = catalog.productAt(ordinal);
+                if (product != null) {
+                    setKeys(ordinal, product);
+                    for (int[] ordering : orderings) {
+                        ordering[size] = ordinal;
+                    }
+                    size++;
+                }
+            }
+            // Initial build: one sort each, afterwards every change is a binary-search insert
+            for (Key key : Key.values()) {
+                heapSort(orderings[key.ordinal()], size, key);
+            }
+        }
+        catalog.addListener(this);
+    }
+
+    // ---- queries ----
+
+    /**
+     * Ordinals set in the filter, in the given order. The filter is only read.
+     */
+    public synchronized int[] sorted(Order order, BitSet filter) {
+        int[] result = new int[filter.cardinality()];
+        int count = sortedInto(order, filter, result);
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Writes the ordinals set in the filter, in the given order, into out and returns how many
+     * were written (at most out.length). Allocates nothing, so a search thread can reuse one
+     * buffer for every query.
+     */
+    public synchronized int sortedInto(Order order, BitSet filter, int[] out) {
+        int matches = Math.min(filter.cardinality(), out.length);
+        if (matches == 0) {
+            return 0;
+        }
+        int count;
+        if ((long) matches * SMALL_FILTER_RATIO < size) {
+            count = sortMatches(filter, out, matches, order.key);
+        } else {
+            count = collect(orderings[order.key.ordinal()], filter, out, matches);
+        }
+        if (order.descending) {
+            reverseKeepingTies(out, count, order.key);
+        }
+        return count;
+    }
+
+    /**
+     * The first k ordinals in the given order, among those set in the filter (null for every
+     * product). Walks the ordering from the front (from the back for descending orders) and
+     * stops after k matches: O(k) plus the products the filter skips.
+     */
+    public synchronized int[] first(Order order, BitSet filter, int k) {
+        int[] result = new int[Math.max(0, Math.min(k, size))];
+        int count = pageInto(order, filter, 0, result);
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Writes the ordinals set in the filter (null for every product) in the given order into
+     * out, leaving out the first offset of them, and returns how many were written (at most
+     * out.length). One walk over the ordering that stops as soon as out is full, so a page
+     * costs its position plus the products the filter skips, not a sort of every match.
+     */
+    public synchronized int pageInto(Order order, BitSet filter, int offset, int[] out) {
+        int[] ordering = orderings[order.key.ordinal()];
+        int skipped = 0;
+        int count = 0;
+        if (!order.descending) {
+            for (int i = 0; i < size && count < out.length; i++) {
+                int ordinal = ordering[i];
+                if (filter == null || filter.get(ordinal)) {
+                    if (skipped < offset) {
+                        skipped++;
+                    } else {
+                        out[count++] = ordinal;
+                    }
+                }
+            }
+            return count;
+        }
+        // Backwards one run of equal keys at a time, each run forwards, so ties keep insertion order
+        for (int end = size - 1; end >= 0 && count < out.length; ) {
+            int start = end;
+            while (start > 0 && compareKeys(ordering[start - 1], ordering[end], order.key) == 0) {
+                start--;
+            }
+            for (int i = start; i <= end && count < out.length; i++) {
+                int ordinal = ordering[i];
+                if (filter == null || filter.get(ordinal)) {
+                    if (skipped < offset) {
+                        skipped++;
+                    } else {
+                        out[count++] = ordinal;
+                    }
+                }
+            }
+            end = start - 1;
+        }
+        return count;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // One ordered pass over an ordering, keeping what the filter lets through
+    private int collect(int[] ordering, BitSet filter, int[] result, int limit) {
+        int count = 0;
+        for (int i = 0; i < size && count < limit; i++) {
+            int ordinal = ordering[i];
+            if (filter.get(ordinal)) {
+                result[count++] = ordinal;
+            }
+        }
+        return count;
+    }
+
+    // Few matches: sorting them by the stored keys is cheaper than walking the whole ordering
+    private int sortMatches(BitSet filter, int[] result, int limit, Key key) {
+        int count = 0;
+        for (int ordinal = filter.nextSetBit(0); ordinal >= 0 && count < limit; ordinal = filter.nextSetBit(ordinal + 1)) {
+            if (ordinal < names.length && names[ordinal] != null) {
+                result[count++] = ordinal;
+            }
+        }
+        heapSort(result, count, key);
+        return count;
+    }
+
+    // Reverses the order, but leaves runs of equal keys in ascending ordinal order
+    private void reverseKeepingTies(int[] result, int count, Key key) {
+        reverse(result, 0, count);
+        int start = 0;
+        for (int i = 1; i <= count; i++) {
+            if (i == count || compareKeys(result[i - 1], result[i], key) != 0) {
+                reverse(result, start, i);
+                start = i;
+            }
+        }
+    }
+
+    private static void reverse(int[] array, int from, int to) {
+        for (int i = from, j = to - 1; i < j; i++, j--) {
+            int swap = array[i];
+            array[i] = array[j];
+            array[j] = swap;
+        }
+    }
+
+    // ---- maintenance ----
+
+    @Override
+    public synchronized void productAdded(int ordinal, Product product) {
+        setKeys(ordinal, product);
+        insert(ordinal);
+    }
+
+    @Override
+    public synchronized void productRemoved(int ordinal, Product product) {
+        if (ordinal < names.length && names[ordinal] != null) {
+            delete(ordinal);
+            names[ordinal] = null;
+        }
+    }
+
+    @Override
+    public synchronized void productChanged(int ordinal, Product product) {
+        if (ordinal >= names.length || names[ordinal] == null) {
+            return;
+        }
+        if (prices[ordinal] == product.getPrice()
+                && names[ordinal].getSourceString().equals(nonNull(product.getProductName()))
+                && ids[ordinal].equals(nonNull(product.getProductID()))) {
+            return; // e.g. a stock change, no sort key moved
+        }
+        delete(ordinal);
+        setKeys(ordinal, product);
+        insert(ordinal);
+    }
+
+    @Override
+    public synchronized void catalogCleared() {
+        Arrays.fill(names, null);
+        size = 0;
+    }
+
+    private void setKeys(int ordinal, Product product) {
+        if (ordinal >= names.length) {
+            int capacity = Math.max(ordinal + 1, names.length + (names.length >> 1));
+            prices = Arrays.copyOf(prices, capacity);
+            names = Arrays.copyOf(names, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+        }
+        prices[ordinal] = product.getPrice();
+        names[ordinal] = collator.getCollationKey(nonNull(product.getProductName()));
+        ids[ordinal] = nonNull(product.getProductID());
+    }
+
+    private static String nonNull(String text) {
+        return text == null ? "" : text;
+    }
+
+    private void insert(int ordinal) {
+        if (size == orderings[0].length) {
+            int capacity = size + (size >> 1) + 1;
+            for (int i = 0; i < orderings.length; i++) {
+                orderings[i] = Arrays.copyOf(orderings[i], capacity);
+            }
+        }
+        for (Key key : Key.values()) {
+            int[] ordering = orderings[key.ordinal()];
+            insertAt(ordering, -position(ordering, ordinal, key) - 1, ordinal);
+        }
+        size++;
+    }
+
+    private void delete(int ordinal) {
+        for (Key key : Key.values()) {
+            int[] ordering = orderings[key.ordinal()];
+            deleteAt(ordering, position(ordering, ordinal, key));
+        }
+        size--;
+    }
+
+    private void insertAt(int[] ordering, int index, int ordinal) {
+        System.arraycopy(ordering, index, ordering, index + 1, size - index);
+        ordering[index] = ordinal;
+    }
+
+    private void deleteAt(int[] ordering, int index) {
+        System.arraycopy(ordering, index + 1, ordering, index, size - index - 1);
+    }
+
+    // Binary search for the ordinal by its current keys, same contract as Arrays.binarySearch
+    private int position(int[] ordering, int ordinal, Key key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(ordering[mid], ordinal, key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    // In-place heapsort of ordinals[0, count) by (key, ordinal): no boxing, no buffer
+    private void heapSort(int[] ordinals, int count, Key key) {
+        for (int i = count / 2 - 1; i >= 0; i--) {
+            siftDown(ordinals, i, count, key);
+        }
+        for (int end = count - 1; end > 0; end--) {
+            int swap = ordinals[0];
+            ordinals[0] = ordinals[end];
+            ordinals[end] = swap;
+            siftDown(ordinals, 0, end, key);
+        }
+    }
+
+    private void siftDown(int[] heap, int index, int count, Key key) {
+        int value = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= count) {
+                break;
+            }
+            if (child + 1 < count && compare(heap[child + 1], heap[child], key) > 0) {
+                child++;
+            }
+            if (compare(heap[child], value, key) <= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+
+    // Total order: sort key, then ordinal (insertion order) for ties
+    private int compare(int a, int b, Key key) {
+        int cmp = compareKeys(a, b, key);
+        return cmp != 0 ? cmp : Integer.compare(a, b);
+    }
+
+    private int compareKeys(int a, int b, Key key) {
+        switch (key) {
+            case PRICE:
+                return Double.compare(prices[a], prices[b]);
+            case NAME:
+                return names[a].compareTo(names[b]);
+            default:
+                return ids[a].compareToIgnoreCase(ids[b]);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.example;
+
+// Console table used by the printAllProducts implementations
+final class ProductTable {
+    private static final String SEPARATOR =
+            "+-----------------+-----------------+-----------------+----------------------+------------+----------------+";
+
+    private ProductTable() {
+    }
+
+    // Category whose products are listed for the requested product type (E... or C...)
+    static String categoryOf(String productType) {
+        return productType.toUpperCase().startsWith("E") ? "Electronics" : "Clothing";
+    }
+
+    static void printHeader(String productType) {
+        System.out.println("** List of Products **\n");
+
+        String header;
+
+        String headerElectric = String.format(
+                "| %-15s | %-15s | %-15s | %-20s | %-10s | %-13s |",
+                "productID", "productName", "quantity", "price", "brand", "warrantyPeriod");
+
+        String headerClothing = String.format(
+                "| %-15s | %-15s | %-15s | %-20s | %-10s | %-13s |",
+                "productID", "productName", "quantity", "price", "size", "color");
+
+        // Print header row with formatting
+        if (productType.toUpperCase().startsWith("E")) {
+            header = headerElectric;
+        } else {
+            header = headerClothing;
+        }
+
+        System.out.println(SEPARATOR);
+        System.out.println(header);
+        System.out.println(SEPARATOR);
+    }
+
+    static void printRow(Product product) {
+        System.out.println(product.toRowString());
+        System.out.println(SEPARATOR);
+    }
+}
@@ -0,0 +1,248 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs {@link ProductQuery} queries on the catalog indexes, with filter, sort and page fused
+ * into one pass.
+ *
+ * The text, category and attribute filters become one bitmap (inverted index, facet bitmaps).
+ * The planner then picks the cheapest way to produce the page. Each way applies the
+ * remaining stages together and stops as soon as the page is full:
+ * <ul>
+ *   <li>{@link Plan#RANGE_WALK}: sorted by price with a price range, so walk that slice of the
+ *       price index in order and test each product against the bitmap;</li>
+ *   <li>{@link Plan#ORDERING_WALK}: walk the sort index's ordering and test the bitmap;</li>
+ *   <li>{@link Plan#SORT_MATCHES}: few matches, so sort just those and cut the page out;</li>
+ *   <li>{@link Plan#RELEVANCE_TOP_K}: ranked by relevance, so score the matches by BM25 and keep
+ *       the best offset + limit in a heap;</li>
+ *   <li>{@link Plan#BITMAP_SCAN}: no sort order, so read the page straight off the bitmap.</li>
+ * </ul>
+ * A walk costs the page position plus the products the filter rejects on the way, never a
+ * sort of every match. The planner keeps scratch bitmaps between queries; all methods are
+ * synchronized.
+ *
+ * Looking up the text (a union of posting lists) is the most expensive filter. A caller that
+ * runs several queries over the same text (a result plus its facet counts) looks it up once
+ * and passes the matches as the base bitmap of {@link #execute(ProductQuery, BitSet)} and
+ * {@link #filterInto(ProductQuery, BitSet, BitSet)}; the other filters are bitmap operations.
+ */
+public class QueryPlanner {
+
+    public enum Plan {
+        RANGE_WALK, ORDERING_WALK, SORT_MATCHES, RELEVANCE_TOP_K, BITMAP_SCAN
+    }
+
+    private final ProductCatalog catalog;
+    private final ProductSearchIndex searchIndex;
+    private final ProductFacets facets;
+    private final ProductRangeIndex rangeIndex;
+    private final ProductSortIndex sortIndex;
+
+    // Matches of the text, category and attribute filters (plus the price band, except for a range walk)
+    private final BitSet filter = new BitSet();
+    private final BitSet priceBand = new BitSet();
+    // Whether filter holds anything; false means every product passes
+    private boolean filtered;
+    private int[] sortBuffer = new int[0];
+
+    public QueryPlanner(ProductCatalog catalog, ProductSearchIndex searchIndex, ProductFacets facets,
+                        ProductRangeIndex rangeIndex, ProductSortIndex sortIndex) {
+        this.catalog = catalog;
+        this.searchIndex = searchIndex;
+        this.facets = facets;
+        this.rangeIndex = rangeIndex;
+        this.sortIndex = sortIndex;
+    }
+
+    // ---- queries ----
+
+    // Ordinals of the page of products the query selects, in its order
+    public synchronized int[] execute(ProductQuery query) {
+        return execute(query, null);
+    }
+
+    /**
+     * Same as execute(query), starting from base instead of looking up the query's text: base
+     * holds the products that match the text, or any subset of them that still holds every
+     * product the query selects (e.g. an earlier result without the price range). base is not
+     * changed; null looks the text up.
+     */
+    public synchronized int[] execute(ProductQuery query, BitSet base) {
+        Plan plan = prepare(query, base);
+        int[] page = new int[Math.max(0, (int) Math.min(query.limit(), (long) candidates(query, plan) - query.offset()))];
+        if (page.length == 0) {
+            return page;
+        }
+        int count;
+        switch (plan) {
+            case RANGE_WALK:
+                count = rangeIndex.rangeInto(ProductRangeIndex.Field.PRICE, query.minPrice(), query.maxPrice(),
+                        query.order().isDescending(), filtered ? filter : null, query.offset(), page);
+                break;
+            case ORDERING_WALK:
+                count = sortIndex.pageInto(query.order(), filtered ? filter : null, query.offset(), page);
+                break;
+            case SORT_MATCHES:
+                count = sortMatches(query, page);
+                break;
+            case RELEVANCE_TOP_K:
+                count = topByRelevance(query, page);
+                break;
+            default:
+                count = scan(query.offset(), page);
+        }
+        return count == page.length ? page : Arrays.copyOf(page, count);
+    }
+
+    // Number of products the query selects, ignoring its page
+    public synchronized int count(ProductQuery query) {
+        if (restrict(query, null)) {
+            if (query.hasPriceRange()) {
+                rangeIndex.matchingInto(ProductRangeIndex.Field.PRICE, query.minPrice(), query.maxPrice(), priceBand);
+                filter.and(priceBand);
+            }
+            return filter.cardinality();
+        }
+        return query.hasPriceRange()
+                ? rangeIndex.count(ProductRangeIndex.Field.PRICE, query.minPrice(), query.maxPrice())
+                : catalog.size();
+    }
+
+    /**
+     * Writes the ordinals of every product the query selects into out (cleared first), ignoring
+     * its order and page; for facet counts and cache bookkeeping.
+     */
+    public synchronized void filterInto(ProductQuery query, BitSet out) {
+        filterInto(query, null, out);
+    }
+
+    // Same as filterInto(query, out), starting from base instead of looking up the text; see execute(query, base)
+    public synchronized void filterInto(ProductQuery query, BitSet base, BitSet out) {
+        if (query.hasPriceRange()) {
+            rangeIndex.matchingInto(ProductRangeIndex.Field.PRICE, query.minPrice(), query.maxPrice(), out);
+            if (restrict(query, base)) {
+                out.and(filter);
+            }
+        } else if (restrict(query, base)) {
+            out.clear();
+            out.or(filter);
+        } else {
+            facets.allInto(out);
+        }
+    }
+
+    // The plan execute would use for the query
+    public synchronized Plan plan(ProductQuery query) {
+        return prepare(query, null);
+    }
+
+    // ---- planning ----
+
+    // Builds the filter bitmap and picks the plan; the price band is in the bitmap unless the plan walks it
+    private Plan prepare(ProductQuery query, BitSet base) {
+        restrict(query, base);
+        ProductSortIndex.Order order = query.order();
+        if (order != null && order.isByPrice() && query.hasPriceRange()) {
+            int inRange = rangeIndex.count(ProductRangeIndex.Field.PRICE, query.minPrice(), query.maxPrice());
+            if (!filtered || (long) filter.cardinality() * ProductSortIndex.SMALL_FILTER_RATIO >= inRange) {
+                return Plan.RANGE_WALK;
+            }
+        }
+        if (query.hasPriceRange()) {
+            rangeIndex.matchingInto(ProductRangeIndex.Field.PRICE, query.minPrice(), query.maxPrice(), priceBand);
+            if (filtered) {
+                filter.and(priceBand);
+            } else {
+                filter.clear();
+                filter.or(priceBand);
+                filtered = true;
+            }
+        }
+        if (order == null) {
+            return query.relevance() && query.hasText() ? Plan.RELEVANCE_TOP_K : Plan.BITMAP_SCAN;
+        }
+        if (filtered && (long) filter.cardinality() * ProductSortIndex.SMALL_FILTER_RATIO < sortIndex.size()) {
+            return Plan.SORT_MATCHES;
+        }
+        return Plan.ORDERING_WALK;
+    }
+
+    // Applies text (or base), category and attributes to the filter bitmap; false (filter unused) if there are none
+    private boolean restrict(ProductQuery query, BitSet base) {
+        filtered = false;
+        if (base != null) {
+            filter.clear();
+            filter.or(base);
+            filtered = true;
+        } else if (query.hasText()) {
+            searchIndex.searchInto(query.text(), filter);
+            filtered = true;
+        }
+        if (query.category() != null) {
+            retain(ProductFacets.CATEGORY, Set.of(query.category()));
+        }
+        for (Map.Entry<String, Set<String>> attribute : query.attributes().entrySet()) {
+            retain(attribute.getKey(), attribute.getValue());
+        }
+        return filtered;
+    }
+
+    private void retain(String facet, Set<String> values) {
+        if (!filtered) {
+            facets.allInto(filter);
+            filtered = true;
+        }
+        facets.retainAny(facet, values, filter);
+    }
+
+    // Upper bound on the products the plan can return before the offset is applied
+    private int candidates(ProductQuery query, Plan plan) {
+        if (plan == Plan.RANGE_WALK) {
+            int inRange = rangeIndex.count(ProductRangeIndex.Field.PRICE, query.minPrice(), query.maxPrice());
+            return filtered ? Math.min(inRange, filter.cardinality()) : inRange;
+        }
+        return filtered ? filter.cardinality() : catalog.size();
+    }
+
+    // Sorts every match into the scratch buffer and copies the page out of it
+    private int sortMatches(ProductQuery query, int[] page) {
+        int matches = filter.cardinality();
+        if (sortBuffer.length < matches) {
+            sortBuffer = new int[Math.max(matches, sortBuffer.length + (sortBuffer.length >> 1))];
+        }
+        int sorted = sortIndex.sortedInto(query.order(), filter, sortBuffer);
+        int count = Math.max(0, Math.min(page.length, sorted - query.offset()));
+        System.arraycopy(sortBuffer, query.offset(), page, 0, count);
+        return count;
+    }
+
+    // The best offset + limit matches by score, then the page cut out of them
+    private int topByRelevance(ProductQuery query, int[] page) {
+        int[] best = searchIndex.topByRelevance(query.text(), filter, (int) Math.min(Integer.MAX_VALUE, (long) query.offset() + page.length));
+        int count = Math.max(0, Math.min(page.length, best.length - query.offset()));
+        System.arraycopy(best, Math.min(best.length, query.offset()), page, 0, count);
+        return count;
+    }
+
+    // Catalog order: the filter bitmap, or every live ordinal when nothing filters. The live ordinals
+    // come from the facets' synchronized bitmap, not the catalog slots, which a concurrent add may grow
+    private int scan(int offset, int[] page) {
+        if (!filtered) {
+            facets.allInto(filter);
+        }
+        int skipped = 0;
+        int count = 0;
+        for (int ordinal = filter.nextSetBit(0); ordinal >= 0 && count < page.length; ordinal = filter.nextSetBit(ordinal + 1)) {
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                page[count++] = ordinal;
+            }
+        }
+        return count;
+    }
+}
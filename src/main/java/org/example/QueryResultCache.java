@@ -0,0 +1,114 @@
+package org.example;
+
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Bounded LRU cache of query results over a {@link ProductCatalog}.
+ *
+ * Each entry records which products it was computed from (a bitmap of ordinals) and a test for
+ * products that would now belong to it. Catalog changes drop exactly the entries they touch:
+ * removing or changing a product drops the entries that used it, adding or changing a product
+ * drops the entries it now matches. Every other entry stays valid and is served as is.
+ *
+ * A result computed while the catalog changed is not stored: take {@link #version()} before
+ * computing and pass it to {@link #put}. All methods are synchronized.
+ *
+ * @param <K> query key
+ * @param <V> cached result
+ */
+public class QueryResultCache<K, V> implements CatalogListener {
+    private final int maxEntries;
+    private final LinkedHashMap<K, Cached<V>> entries;
+
+    // Bumped by every catalog change, to reject results computed across one
+    private long version;
+    private long hits;
+    private long misses;
+
+    public QueryResultCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        // Access order, so the eldest entry is the least recently used
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Cached<V>> eldest) {
+                return size() > QueryResultCache.this.maxEntries;
+            }
+        };
+    }
+
+    // Cached result for the key, or null
+    public synchronized V get(K key) {
+        Cached<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * Stores a result computed from the products in usedOrdinals. couldMatch tells whether a
+     * product added or changed later would belong to the result. Ignored if the catalog changed
+     * since version was read.
+     */
+    public synchronized void put(K key, V value, long version, BitSet usedOrdinals, Predicate<Product> couldMatch) {
+        if (version != this.version) {
+            return;
+        }
+        entries.put(key, new Cached<>(value, (BitSet) usedOrdinals.clone(), couldMatch));
+    }
+
+    // Catalog version to pass to put
+    public synchronized long version() {
+        return version;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        version++;
+    }
+
+    // ---- invalidation ----
+
+    @Override
+    public synchronized void productAdded(int ordinal, Product product) {
+        version++;
+        entries.values().removeIf(entry -> entry.couldMatch.test(product));
+    }
+
+    @Override
+    public synchronized void productRemoved(int ordinal, Product product) {
+        version++;
+        entries.values().removeIf(entry -> entry.usedOrdinals.get(ordinal));
+    }
+
+    @Override
+    public synchronized void productChanged(int ordinal, Product product) {
+        version++;
+        entries.values().removeIf(entry -> entry.usedOrdinals.get(ordinal) || entry.couldMatch.test(product));
+    }
+
+    @Override
+    public synchronized void catalogCleared() {
+        clear();
+    }
+
+    private record Cached<V>(V value, BitSet usedOrdinals, Predicate<Product> couldMatch) {
+    }
+}
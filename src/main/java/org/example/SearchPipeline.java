@@ -0,0 +1,101 @@
+package org.example;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Runs queries off the UI thread and publishes only the newest result.
+ *
+ * {@link #submit(Object)} waits for a quiet period (debounce) before running the query, so a
+ * burst of keystrokes runs one query. Every submission supersedes the previous one: a query
+ * still waiting is dropped, a running one is interrupted and told to stop through its
+ * cancelled flag, and a result that arrives after a newer submission is thrown away.
+ * Results are handed to the publisher on the given executor (e.g. {@code SwingUtilities::invokeLater}).
+ *
+ * @param <Q> query
+ * @param <R> result
+ */
+public class SearchPipeline<Q, R> implements AutoCloseable {
+    // Computes a result; should check cancelled now and then and give up early when it is set
+    @FunctionalInterface
+    public interface Query<Q, R> {
+        R run(Q query, BooleanSupplier cancelled);
+    }
+
+    private final long debounceMillis;
+    private final Query<Q, R> query;
+    private final Consumer<R> publisher;
+    private final Executor publishExecutor;
+    private final ScheduledExecutorService worker;
+    private final AtomicLong generation = new AtomicLong();
+    private Future<?> pending;
+
+    public SearchPipeline(long debounceMillis, Query<Q, R> query, Consumer<R> publisher, Executor publishExecutor) {
+        this.debounceMillis = debounceMillis;
+        this.query = query;
+        this.publisher = publisher;
+        this.publishExecutor = publishExecutor;
+        worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "search-pipeline");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Runs the query after the debounce delay unless another one is submitted first
+    public void submit(Q request) {
+        schedule(request, debounceMillis);
+    }
+
+    // Runs the query right away (e.g. a sort or category change), still superseding older ones
+    public void submitNow(Q request) {
+        schedule(request, 0);
+    }
+
+    private synchronized void schedule(Q request, long delayMillis) {
+        long current = generation.incrementAndGet();
+        if (pending != null) {
+            pending.cancel(true);
+        }
+        pending = worker.schedule(() -> run(request, current), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void run(Q request, long current) {
+        BooleanSupplier cancelled = () -> generation.get() != current || Thread.currentThread().isInterrupted();
+        if (cancelled.getAsBoolean()) {
+            return;
+        }
+        R result;
+        try {
+            result = query.run(request, cancelled);
+        } catch (CancellationException e) {
+            return;
+        } catch (RuntimeException e) {
+            // Thrown inside the scheduled future it would vanish; the next submission runs as usual
+            System.err.println("Search query failed: " + e);
+            return;
+        }
+        if (cancelled.getAsBoolean()) {
+            return;
+        }
+        publishExecutor.execute(() -> {
+            // A newer query may have been submitted while this result was queued
+            if (generation.get() == current) {
+                publisher.accept(result);
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        generation.incrementAndGet();
+        worker.shutdownNow();
+    }
+}
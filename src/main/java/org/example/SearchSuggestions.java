@@ -0,0 +1,307 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Type-ahead completions for the search box, backed by a prefix trie.
+ *
+ * Product names, brands and categories are suggestions. Each suggestion is reachable from the
+ * start of every word it contains ("Gaming Laptop" completes both "gam" and "lap") and is
+ * weighted by the total stock of the products it stands for. Every trie node records the
+ * highest weight below it, so the best N completions of a prefix are found best-first: walk
+ * down the prefix, then expand the heaviest nodes until N suggestions are out. That touches
+ * about N * depth nodes, however many products share the prefix.
+ *
+ * Children are kept in sorted char arrays rather than maps to keep the trie compact.
+ * Suggestions follow the catalog through {@link CatalogListener}; all methods are synchronized.
+ */
+public class SearchSuggestions implements CatalogListener {
+    public static final String PRODUCT = "Product";
+    public static final String BRAND = "Brand";
+    public static final String CATEGORY = "Category";
+
+    // One completion offered to the user
+    public record Suggestion(String text, String kind, long stock, int products) {
+    }
+
+    private final Node root = new Node();
+
+    // (kind, lower-cased text) -> entry
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    // What each product contributed, to undo it on remove or edit
+    private Entry[][] entriesByOrdinal = new Entry[64][];
+    private int[] stockByOrdinal = new int[64];
+
+    public SearchSuggestions(ProductCatalog catalog) {
+        synchronized (this) {
+            for (int ordinal = 0; ordinal < catalog.ordinalLimit(); ordinal++) {
+                Product product = catalog.productAt(ordinal);
+                if (product != null) {
+                    add(ordinal, product);
+                }
+            }
+        }
+        catalog.addListener(this);
+    }
+
+    // ---- queries ----
+
+    // Up to limit suggestions starting with the prefix (at a word start), heaviest stock first
+    public synchronized List<Suggestion> complete(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        if (node == null) {
+            return Collections.emptyList();
+        }
+
+        // Best-first: nodes are ranked by the heaviest entry below them, entries by their own weight
+        PriorityQueue<Object> queue = new PriorityQueue<>((a, b) -> Long.compare(weightOf(b), weightOf(a)));
+        queue.add(node);
+        Set<Entry> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Suggestion> suggestions = new ArrayList<>(limit);
+        while (!queue.isEmpty() && suggestions.size() < limit) {
+            Object next = queue.poll();
+            if (next instanceof Entry entry) {
+                if (seen.add(entry)) {
+                    suggestions.add(new Suggestion(entry.text, entry.kind, entry.stock, entry.products));
+                }
+            } else {
+                Node current = (Node) next;
+                queue.addAll(current.entries);
+                for (int i = 0; i < current.childCount; i++) {
+                    queue.add(current.children[i]);
+                }
+            }
+        }
+        return suggestions;
+    }
+
+    private static long weightOf(Object item) {
+        return item instanceof Entry entry ? entry.stock : ((Node) item).maxStock;
+    }
+
+    // ---- maintenance ----
+
+    @Override
+    public synchronized void productAdded(int ordinal, Product product) {
+        add(ordinal, product);
+    }
+
+    @Override
+    public synchronized void productRemoved(int ordinal, Product product) {
+        remove(ordinal);
+    }
+
+    @Override
+    public synchronized void productChanged(int ordinal, Product product) {
+        remove(ordinal);
+        add(ordinal, product);
+    }
+
+    @Override
+    public synchronized void catalogCleared() {
+        for (Entry entry : new ArrayList<>(entries.values())) {
+            entry.products = 0;
+            entry.stock = 0;
+            drop(entry);
+        }
+        Arrays.fill(entriesByOrdinal, null);
+    }
+
+    private void add(int ordinal, Product product) {
+        if (ordinal >= entriesByOrdinal.length) {
+            int capacity = Math.max(ordinal + 1, entriesByOrdinal.length + (entriesByOrdinal.length >> 1));
+            entriesByOrdinal = Arrays.copyOf(entriesByOrdinal, capacity);
+            stockByOrdinal = Arrays.copyOf(stockByOrdinal, capacity);
+        }
+        List<Entry> contributed = new ArrayList<>(3);
+        contributed.add(entry(PRODUCT, product.getProductName()));
+        if (product instanceof Electronics electronics) {
+            contributed.add(entry(BRAND, electronics.getBrand()));
+        }
+        contributed.add(entry(CATEGORY, product.getProductCategory()));
+        contributed.removeIf(entry -> entry == null);
+
+        int stock = Math.max(0, product.getQuantity());
+        for (Entry entry : contributed) {
+            entry.products++;
+            entry.stock += stock;
+            reweigh(entry);
+        }
+        entriesByOrdinal[ordinal] = contributed.toArray(new Entry[0]);
+        stockByOrdinal[ordinal] = stock;
+    }
+
+    private void remove(int ordinal) {
+        if (ordinal >= entriesByOrdinal.length || entriesByOrdinal[ordinal] == null) {
+            return;
+        }
+        for (Entry entry : entriesByOrdinal[ordinal]) {
+            entry.products--;
+            entry.stock -= stockByOrdinal[ordinal];
+            if (entry.products == 0) {
+                drop(entry);
+            } else {
+                reweigh(entry);
+            }
+        }
+        entriesByOrdinal[ordinal] = null;
+    }
+
+    // Existing entry for the text, or a new one inserted under every word start of it
+    private Entry entry(String kind, String text) {
+        String key = normalize(text);
+        if (key.isEmpty()) {
+            return null;
+        }
+        Entry entry = entries.get(kind + '\u0000' + key);
+        if (entry == null) {
+            entry = new Entry(text.strip(), kind, key);
+            entries.put(kind + '\u0000' + key, entry);
+            for (int start : wordStarts(key)) {
+                entry.paths.add(insert(key.substring(start), entry));
+            }
+        }
+        return entry;
+    }
+
+    private void drop(Entry entry) {
+        entries.remove(entry.kind + '\u0000' + entry.key);
+        for (Node[] path : entry.paths) {
+            path[path.length - 1].entries.remove(entry);
+            recomputeUp(path);
+        }
+        entry.paths.clear();
+    }
+
+    // Refreshes the subtree maxima on every path leading to the entry
+    private void reweigh(Entry entry) {
+        for (Node[] path : entry.paths) {
+            recomputeUp(path);
+        }
+    }
+
+    // Inserts the entry under the key, returns the nodes from the root down to it
+    private Node[] insert(String key, Entry entry) {
+        Node[] path = new Node[key.length() + 1];
+        Node node = root;
+        path[0] = node;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childOrCreate(key.charAt(i));
+            path[i + 1] = node;
+        }
+        node.entries.add(entry);
+        return path;
+    }
+
+    // Recomputes maxStock from the deepest node of the path up to the root; empty nodes are pruned
+    private static void recomputeUp(Node[] path) {
+        for (int i = path.length - 1; i >= 0; i--) {
+            Node node = path[i];
+            long max = -1;
+            for (Entry entry : node.entries) {
+                max = Math.max(max, entry.stock);
+            }
+            for (int c = 0; c < node.childCount; c++) {
+                max = Math.max(max, node.children[c].maxStock);
+            }
+            node.maxStock = max;
+            if (i > 0 && node.entries.isEmpty() && node.childCount == 0) {
+                path[i - 1].removeChild(node);
+            }
+        }
+    }
+
+    // Offsets of the words in a normalized key
+    private static List<Integer> wordStarts(String key) {
+        List<Integer> starts = new ArrayList<>();
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) != ' ' && (i == 0 || key.charAt(i - 1) == ' ')) {
+                starts.add(i);
+            }
+        }
+        return starts;
+    }
+
+    // Lower-cased words separated by single spaces: "Home & Garden" -> "home garden"
+    static String normalize(String text) {
+        return text == null ? "" : String.join(" ", ProductSearchIndex.tokenize(text));
+    }
+
+    // ---- trie ----
+
+    private static final class Entry {
+        final String text;
+        final String kind;
+        final String key;
+        long stock;
+        int products;
+        final List<Node[]> paths = new ArrayList<>(2);
+
+        Entry(String text, String kind, String key) {
+            this.text = text;
+            this.kind = kind;
+            this.key = key;
+        }
+    }
+
+    private static final class Node {
+        char[] labels = new char[0];
+        Node[] children = new Node[0];
+        int childCount;
+        final List<Entry> entries = new ArrayList<>(1);
+        long maxStock = -1;
+
+        Node child(char label) {
+            int index = Arrays.binarySearch(labels, 0, childCount, label);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node childOrCreate(char label) {
+            int index = Arrays.binarySearch(labels, 0, childCount, label);
+            if (index >= 0) {
+                return children[index];
+            }
+            index = -index - 1;
+            if (childCount == labels.length) {
+                int capacity = Math.max(2, childCount * 2);
+                labels = Arrays.copyOf(labels, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(labels, index, labels, index + 1, childCount - index);
+            System.arraycopy(children, index, children, index + 1, childCount - index);
+            Node child = new Node();
+            labels[index] = label;
+            children[index] = child;
+            childCount++;
+            return child;
+        }
+
+        void removeChild(Node child) {
+            for (int i = 0; i < childCount; i++) {
+                if (children[i] == child) {
+                    System.arraycopy(labels, i + 1, labels, i, childCount - i - 1);
+                    System.arraycopy(children, i + 1, children, i, childCount - i - 1);
+                    childCount--;
+                    children[childCount] = null;
+                    return;
+                }
+            }
+        }
+    }
+}
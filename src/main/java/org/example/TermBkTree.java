@@ -0,0 +1,139 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * BK-tree over search terms, for finding the terms within a small edit distance of a word.
+ *
+ * Every child hangs under its parent by its Levenshtein distance to it. Because the distance
+ * is a metric, a lookup for distance k only needs to follow the children whose edge lies in
+ * [d - k, d + k], where d is the word's distance to the node; with k = 1 or 2 that prunes
+ * most of the tree. Terms can only be added: the owner filters out terms that no longer
+ * exist and rebuilds the tree when too many have piled up.
+ * Not thread-safe; {@link ProductSearchIndex} guards it.
+ */
+final class TermBkTree {
+    private Node root;
+    private int size;
+
+    // Adds the term unless it is already in the tree
+    void add(String term) {
+        if (root == null) {
+            root = new Node(term);
+            size++;
+            return;
+        }
+        Node node = root;
+        while (true) {
+            int distance = distance(term, node.term, Integer.MAX_VALUE);
+            if (distance == 0) {
+                return;
+            }
+            Node child = node.child(distance);
+            if (child == null) {
+                node.addChild(distance, new Node(term));
+                size++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    // Calls hit with every term within maxDistance of the word and its distance
+    void search(String word, int maxDistance, ObjIntConsumer<String> hit) {
+        if (root == null) {
+            return;
+        }
+        Node[] stack = new Node[32];
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            Node node = stack[--top];
+            // Past maxEdge + maxDistance neither the node nor any child can match, so stop counting there
+            int distance = distance(word, node.term, node.maxEdge + maxDistance);
+            if (distance <= maxDistance) {
+                hit.accept(node.term, distance);
+            }
+            for (int i = 0; i < node.childCount; i++) {
+                if (Math.abs(node.distances[i] - distance) <= maxDistance) {
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, top * 2);
+                    }
+                    stack[top++] = node.children[i];
+                }
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Levenshtein distance of a and b, or a value above limit as soon as it is known to exceed it.
+     */
+    static int distance(String a, String b, int limit) {
+        if (a.equals(b)) {
+            return 0;
+        }
+        if (Math.abs(a.length() - b.length()) > limit) {
+            return limit == Integer.MAX_VALUE ? limit : limit + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int substitute = previous[j - 1] + (ca == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitute, Math.min(previous[j], current[j - 1]) + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static final class Node {
+        final String term;
+        int[] distances = new int[0];
+        Node[] children = new Node[0];
+        int childCount;
+        int maxEdge;
+
+        Node(String term) {
+            this.term = term;
+        }
+
+        Node child(int distance) {
+            for (int i = 0; i < childCount; i++) {
+                if (distances[i] == distance) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        void addChild(int distance, Node child) {
+            if (childCount == children.length) {
+                int capacity = Math.max(2, childCount * 2);
+                distances = Arrays.copyOf(distances, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            distances[childCount] = distance;
+            children[childCount] = child;
+            childCount++;
+            maxEdge = Math.max(maxEdge, distance);
+        }
+    }
+}
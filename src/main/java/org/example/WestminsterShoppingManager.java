@@ -1,216 +1,507 @@
 package org.example;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+public class WestminsterShoppingManager implements ShoppingManager, AutoCloseable {
+    // Text format, used for import and export
+    public static final String PRODUCTS_FILE = "products.txt";
+    // Binary snapshot, preferred on load
+    public static final String SNAPSHOT_FILE = "products.bin";
+    // Journal size after which it is compacted into a new snapshot
+    public static final long DEFAULT_COMPACTION_THRESHOLD = 4L * 1024 * 1024;
+    // Write-behind defaults: flush changed products every second, or after this many changes
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+    public static final int DEFAULT_FLUSH_THRESHOLD = 1000;
+
+    // What happened to a product since the last flush
+    private enum Change { QUANTITY, ADDED, REPLACED, REMOVED }
+
+    // Hash-indexed store holding every product in the system
+    private final ProductCatalog catalog;
+
+    // Inverted index for text search and trie for type-ahead, built on first use
+    private ProductSearchIndex searchIndex;
+    private SearchSuggestions searchSuggestions;
+    private ProductSortIndex sortIndex;
+    private ProductFacets facets;
+    private ProductRangeIndex rangeIndex;
+    private QueryPlanner queryPlanner;
+
+    // Directory holding the product files
+    private final Path dataDirectory;
+
+    // Change journal, opened by loadProducts; null until then or if another manager owns the directory
+    private ProductJournal journal;
+    private ExecutorService compactor;
+    private Future<?> compaction;
+    private long compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+
+    // Products changed since the last flush, in the order they were first changed
+    private final Map<String, Change> dirtyProducts = new LinkedHashMap<>();
+    private WriteBehind writeBehind;
+    private long flushIntervalMillis = DEFAULT_FLUSH_INTERVAL_MILLIS;
+    private int flushThreshold = DEFAULT_FLUSH_THRESHOLD;
+
+    // Constructor to initialize an empty catalog
+    public WestminsterShoppingManager() {
+        this(Paths.get(""), 0);
+    }
 
-public class WestminsterShoppingManager implements ShoppingManager {
-    // List to store products in the system
-    private static List<Product> productList;
+    // Constructor for large catalogs, presizes the indexes for the expected number of products
+    public WestminsterShoppingManager(int expectedProducts) {
+        this(Paths.get(""), expectedProducts);
+    }
 
-    // Constructor to initialize the productList as an ArrayList
-    public WestminsterShoppingManager() {
-        productList = new ArrayList<>();
+    // Constructor keeping the product files in the given directory
+    public WestminsterShoppingManager(Path dataDirectory, int expectedProducts) {
+        this.dataDirectory = dataDirectory;
+        catalog = new ProductCatalog(expectedProducts);
     }
 
     // Override the ShoppingManager interface methods
 
     // --------- Add products -------------
-    private boolean validateProductSize() {
-        return productList.size() < 50;
-    }
-
     @Override
-    public void addProduct(Product product) {
-        if (validateProductSize()) {
-            productList.add(product);
+    public synchronized void addProduct(Product product) {
+        if (catalog.add(product)) {
+            markDirty(product.getProductID(), Change.ADDED);
             System.out.println("Product added successfully.");
         } else {
-            System.out.println("Reached the products limit of 50! Try removing some products before adding");
+            System.out.println("Product ID already exists: " + product.getProductID());
         }
     }
 
     // ------------- update products quantity --------------------
-    public boolean updateProductQuantity(String productId, int addedQuantity) {
-        for (Product product : productList) {
-            if (product.getProductID().equals(productId)) {
-                int newQuantity = product.getQuantity() + addedQuantity;
-                product.setQuantity(newQuantity);
-                return true;  // Product found and updated successfully
+    public synchronized boolean updateProductQuantity(String productId, int addedQuantity) {
+        if (!catalog.addQuantity(productId, addedQuantity)) {
+            return false;  // product not found
+        }
+        markDirty(productId, Change.QUANTITY);
+        return true;
+    }
+
+    // Restock many products at once (product ID -> added quantity), returns how many were found
+    public synchronized int updateProductQuantities(Map<String, Integer> addedQuantities) {
+        int updated = 0;
+        for (Map.Entry<String, Integer> entry : addedQuantities.entrySet()) {
+            if (catalog.addQuantity(entry.getKey(), entry.getValue())) {
+                markDirty(entry.getKey(), Change.QUANTITY);
+                updated++;
             }
         }
-        return false;  // Product not found
+        return updated;
     }
 
 
     // ------------ remove products --------------------
-    public void removeProductFromSystem(String productId) {
-        Iterator<Product> iterator = productList.iterator();
-        while (iterator.hasNext()) {
-            Product product = iterator.next();
-            if (product.getProductID().equals(productId)) {
-                iterator.remove();
-                System.out.println("Product deleted successfully.");
-                return;
-            }
+    public synchronized void removeProductFromSystem(String productId) {
+        if (catalog.remove(productId) != null) {
+            markDirty(productId, Change.REMOVED);
+            System.out.println("Product deleted successfully.");
+        } else {
+            System.out.println("Product not found with ID: " + productId);
         }
-        System.out.println("Product not found with ID: " + productId);
     }
 
 
     // -------------- get products list --------------------
     @Override
     public List<Product> getAllProducts() {
-        return new ArrayList<>(productList);
+        return catalog.getAll();
     }
 
 
     // --------------- search products by ID -------------------
     @Override
     public Product getProductByID(String productID) {
-        for (Product product : productList) {
-            if (product.getProductID().equals(productID)) {
-                return product;
-            }
-        }
-        return null;
+        return catalog.get(productID);
     }
 
 
     // -------------- print all products --------------------
     @Override
     public void printAllProducts(String productType) {
-        System.out.println("** List of Products **\n");
+        ProductTable.printHeader(productType);
 
-        String header;
+        // Print each product row with formatting, reading only the requested category
+        for (Product product : catalog.getByCategory(ProductTable.categoryOf(productType))) {
+            ProductTable.printRow(product);
+        }
+    }
 
-        String headerElectric = String.format(
-                "| %-15s | %-15s | %-15s | %-20s | %-10s | %-13s |",
-                "productID", "productName", "quantity", "price", "brand", "warrantyPeriod");
 
-        String headerClothing = String.format(
-                "| %-15s | %-15s | %-15s | %-20s | %-10s | %-13s |",
-                "productID", "productName", "quantity", "price", "size", "color");
 
-        // Print header row with formatting
-        if (productType.toUpperCase().startsWith("E")) {
-            header = headerElectric;
-        } else {
-            header = headerClothing;
+    // -------------- save all products --------------------
+    // Exports the text file, then writes the binary snapshot so the snapshot is never older than the text.
+    // The snapshot covers every journaled change, so the journal starts over.
+    // Pending changes go to the journal first: if a write fails they are still there for the next load.
+    @Override
+    public synchronized void saveProducts() {
+        try {
+            awaitCompaction();
+            flushChanges();
+            awaitCompaction(); // the flush may have started one
+            long coveredGeneration = journal != null ? journal.rotate() : -1;
+            List<Product> products = catalog.getAll();
+            ProductFileWriter.write(dataDirectory.resolve(PRODUCTS_FILE), products);
+            CatalogSnapshot.write(dataDirectory.resolve(SNAPSHOT_FILE), products);
+            // Only now are the changes on disk without a journal (none when the directory is managed elsewhere)
+            dirtyProducts.clear();
+            if (coveredGeneration >= 0) {
+                journal.deleteThrough(coveredGeneration);
+            }
+            System.out.println("Products saved successfully to " + SNAPSHOT_FILE + " and " + PRODUCTS_FILE);
+        } catch (IOException e) {
+            System.err.println("Error saving products: " + e.getMessage());
         }
+    }
 
-        System.out.println("+-----------------+-----------------+-----------------+----------------------+------------+----------------+");
-        System.out.println(header);
-        System.out.println("+-----------------+-----------------+-----------------+----------------------+------------+----------------+");
+    // Loads the binary snapshot if present, the text file otherwise, then replays the journal on top
+    // and opens it for the changes to come.
+    // A products.txt edited after the last save is newer than the snapshot and wins.
+    @Override
+    public synchronized void loadProducts() {
+        loadBase();
+        try {
+            int replayed = ProductJournal.replay(dataDirectory, catalog);
+            if (replayed > 0) {
+                System.out.println(replayed + " unsaved changes restored from the journal");
+            }
+            openJournal();
+        } catch (IOException e) {
+            System.err.println("Error opening the product journal: " + e.getMessage());
+        }
+    }
 
-        // Print each product row with formatting
-        for (Product product : productList) {
-            if (productType.toUpperCase().startsWith("E") && product instanceof Electronics) {
-                System.out.println(product.toRowString());
-                System.out.println("+-----------------+-----------------+-----------------+----------------------+------------+----------------+");
-            } else if (productType.toUpperCase().startsWith("C") && product instanceof Clothing) {
-                System.out.println(product.toRowString());
-                System.out.println("+-----------------+-----------------+-----------------+----------------------+------------+----------------+");
+    private void loadBase() {
+        Path snapshot = dataDirectory.resolve(SNAPSHOT_FILE);
+        Path text = dataDirectory.resolve(PRODUCTS_FILE);
+        try {
+            if (Files.exists(snapshot) && !isNewer(text, snapshot)) {
+                try {
+                    CatalogSnapshot.read(snapshot, catalog::add);
+                    System.out.println("Products loaded successfully from " + SNAPSHOT_FILE);
+                    return;
+                } catch (IOException e) {
+                    System.err.println("Could not read " + SNAPSHOT_FILE + " (" + e.getMessage() + "), loading " + PRODUCTS_FILE);
+                    catalog.clear();
+                }
             }
+            importProducts(text);
+            System.out.println("Products loaded successfully from " + PRODUCTS_FILE);
+        } catch (NoSuchFileException e) {
+            // File doesn't exist, print a custom message
+            System.out.println("No saved products found. Starting with a fresh list.");
+        } catch (IOException e) {
+            System.err.println("Error loading products: " + e.getMessage());
         }
     }
 
+    // Adds every product of a products.txt style text file, returns how many were read
+    public int importProducts(Path file) throws IOException {
+        // Large files are memory-mapped and parsed on all cores, small ones are streamed
+        return new ParallelProductLoader().load(file, catalog::add);
+    }
 
+    // Writes every product to a products.txt style text file
+    public void exportProducts(Path file) throws IOException {
+        ProductFileWriter.write(file, catalog.getAll());
+    }
 
-    // -------------- save all products --------------------
-    @Override
-    public void saveProducts() {
-        try (FileWriter writer = new FileWriter("products.txt")) {
-            for (Product product : productList) {
-                writer.write(product.saveToString() + "\n");  // Write each product's details to the file
+    private static boolean isNewer(Path file, Path than) throws IOException {
+        return Files.exists(file) && Files.getLastModifiedTime(file).compareTo(Files.getLastModifiedTime(than)) > 0;
+    }
+
+
+    // -------------- change journal ----------------
+    private void openJournal() throws IOException {
+        if (journal != null) {
+            return;
+        }
+        journal = ProductJournal.open(dataDirectory);
+        if (journal == null) {
+            System.out.println("Products in " + dataDirectory.toAbsolutePath() + " are managed elsewhere, changes are kept until saveProducts");
+            return;
+        }
+        compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writeBehind = new WriteBehind("product-write-behind", flushIntervalMillis, flushThreshold, this::flushChanges);
+        if (ProductJournal.generations(dataDirectory).size() > 1) {
+            compact(); // fold the replayed segments into the snapshot
+        }
+    }
+
+    // Journal size after which the journal is folded into a new snapshot in the background
+    public void setCompactionThreshold(long bytes) {
+        compactionThreshold = bytes;
+    }
+
+    // Write-behind settings, used by the next loadProducts; an interval of 0 writes every change through
+    public void setWriteBehind(long intervalMillis, int dirtyThreshold) {
+        flushIntervalMillis = intervalMillis;
+        flushThreshold = dirtyThreshold;
+    }
+
+    // Call after changing a product in place (e.g. Product.decreaseQuantity), so indexes and journal see it
+    public synchronized boolean markProductChanged(String productId) {
+        if (!catalog.refresh(productId)) {
+            return false;
+        }
+        markDirty(productId, Change.REPLACED);
+        return true;
+    }
+
+    // Number of changed products not written to the journal yet
+    public synchronized int getUnsavedChanges() {
+        return dirtyProducts.size();
+    }
+
+    // Folds the change into the product's pending change, so a burst of updates is written once
+    private void markDirty(String productId, Change change) {
+        Change previous = dirtyProducts.get(productId);
+        Change merged = change;
+        if (previous != null) {
+            switch (change) {
+                case ADDED -> merged = previous == Change.REMOVED ? Change.REPLACED : Change.ADDED;
+                case REMOVED -> merged = previous == Change.ADDED ? null : Change.REMOVED;
+                default -> merged = previous == Change.QUANTITY ? change : previous;
             }
-            System.out.println("Products saved successfully to products.txt");
-        } catch (IOException e) {
-            System.err.println("Error saving products: " + e.getMessage());
+        }
+        if (merged == null) {
+            dirtyProducts.remove(productId); // added and removed again, nothing to write
+        } else {
+            dirtyProducts.put(productId, merged);
+        }
+        if (writeBehind != null) {
+            writeBehind.markDirty();
         }
     }
 
-    @Override
-    public void loadProducts() {
-        try (Scanner scanner = new Scanner(new File("products.txt"))) {
-            while (scanner.hasNextLine()) {
-                String productLine = scanner.nextLine();
-                // Split the line into product attributes, trimming any leading/trailing whitespace
-                String[] productData = productLine.split(",", -1); // Preserve trailing empty strings
-                for (int i = 0; i < productData.length; i++) {
-                    productData[i] = productData[i].trim(); // Trim each element
+    // Writes the current state of every changed product to the journal in one batch
+    private synchronized void flushChanges() throws IOException {
+        if (journal == null || dirtyProducts.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<String, Change> entry : dirtyProducts.entrySet()) {
+            String productId = entry.getKey();
+            Product product = catalog.get(productId);
+            switch (entry.getValue()) {
+                case QUANTITY -> journal.appendQuantity(productId, product.getQuantity());
+                case ADDED -> journal.appendAdd(product);
+                case REPLACED -> {
+                    journal.appendRemove(productId);
+                    journal.appendAdd(product);
                 }
+                case REMOVED -> journal.appendRemove(productId);
+            }
+        }
+        journal.flush();
+        // Cleared only once the batch is on disk, a failed write is retried by the next flush
+        dirtyProducts.clear();
+        compactIfNeeded();
+    }
 
-                // Create the appropriate Product object based on the product type
-                // Format: ID, Name, Quantity, Price, Attr1, Attr2
-                Product product;
-                if (productData[0].startsWith("E")) {
-                    product = new Electronics(productData[0], productData[1],
-                            Integer.parseInt(productData[2]),
-                            Double.parseDouble(productData[3]),
-                            productData[4], Integer.parseInt(productData[5]));
-                } else if (productData[0].startsWith("C")) {
-                    product = new Clothing(productData[0], productData[1],
-                            Integer.parseInt(productData[2]),
-                            Double.parseDouble(productData[3]),
-                            productData[4], productData[5]);
-                } else if (productData[0].startsWith("B")) {
-                    product = new Books(productData[0], productData[1],
-                            Integer.parseInt(productData[2]),
-                            Double.parseDouble(productData[3]),
-                            productData[4], productData[5]);
-                } else if (productData[0].startsWith("H")) {
-                    product = new HomeGarden(productData[0], productData[1],
-                            Integer.parseInt(productData[2]),
-                            Double.parseDouble(productData[3]),
-                            productData[4], productData[5]);
-                } else {
-                    continue; // Skip unknown product types
-                }
+    private void compactIfNeeded() throws IOException {
+        if (journal.segmentBytes() >= compactionThreshold && (compaction == null || compaction.isDone())) {
+            compact();
+        }
+    }
 
-                productList.add(product);
+    // Starts a new journal segment and writes the snapshot covering the older ones in the background.
+    // The product list is taken on the calling thread, so the catalog itself is never read concurrently;
+    // quantity changes racing with the write are journaled in the new segment anyway.
+    private void compact() throws IOException {
+        long coveredGeneration = journal.rotate();
+        List<Product> products = catalog.getAll();
+        compaction = compactor.submit(() -> {
+            try {
+                CatalogSnapshot.write(dataDirectory.resolve(SNAPSHOT_FILE), products);
+                journal.deleteThrough(coveredGeneration);
+            } catch (IOException e) {
+                System.err.println("Error compacting the product journal: " + e.getMessage());
             }
-            System.out.println("Products loaded successfully from products.txt");
+        });
+    }
+
+    // Waits for a running background compaction to finish
+    private void awaitCompaction() {
+        if (compaction == null) {
+            return;
+        }
+        try {
+            compaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Error compacting the product journal: " + e.getCause().getMessage());
+        }
+    }
+
+    // Flushes pending changes, finishes the background compaction and releases the journal
+    @Override
+    public void close() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            writeBehind.close(); // flushes the last changes
         } catch (IOException e) {
-            if (e.getMessage().contains("No such file or directory")) {
-                // File doesn't exist, print a custom message
-                System.out.println("No saved products found. Starting with a fresh list.");
-            } else {
-                // Other error, print the original message
-                System.err.println("Error loading products: " + e.getMessage());
-            }
+            System.err.println("Error writing the last product changes: " + e.getMessage());
         }
+        awaitCompaction();
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(10, TimeUnit.SECONDS);
+            journal.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("Error closing the product journal: " + e.getMessage());
+        }
+        journal = null;
     }
 
 
     // -------------- counter ----------------
     private int countElectronicProducts() {
-        int count = 0;
-        for (Product product : productList) {
-            if (product.getProductID().startsWith("E")) {
-                count++;
-            }
-        }
-        return count;
+        return catalog.columns().countInCategory(CatalogColumns.ELECTRONICS);
     }
 
     private int countClothingProducts() {
-        int count = 0;
-        for (Product product : productList) {
-            if (product.getProductID().startsWith("E")) {
-                count++;
+        return catalog.columns().countInCategory(CatalogColumns.CLOTHING);
+    }
+
+    // Total value of the stock (quantity * price) over the whole catalog
+    public double getTotalStockValue() {
+        return catalog.columns().totalStockValue() / 100.0;
+    }
+
+    // Columnar view of the catalog for dashboards and bulk scans
+    public CatalogColumns getCatalogColumns() {
+        return catalog.columns();
+    }
+
+    // Product at an ordinal handed out by the search and columnar indexes, or null
+    public Product getProductAt(int ordinal) {
+        return catalog.productAt(ordinal);
+    }
+
+    // Text search index over names, IDs and attributes, kept up to date with every change
+    public synchronized ProductSearchIndex getSearchIndex() {
+        if (searchIndex == null) {
+            searchIndex = new ProductSearchIndex(catalog);
+        }
+        return searchIndex;
+    }
+
+    // Type-ahead completions over product names, brands and categories
+    public synchronized SearchSuggestions getSearchSuggestions() {
+        if (searchSuggestions == null) {
+            searchSuggestions = new SearchSuggestions(catalog);
+        }
+        return searchSuggestions;
+    }
+
+    // Price and name orderings of the catalog, kept sorted as products change
+    public synchronized ProductSortIndex getSortIndex() {
+        if (sortIndex == null) {
+            sortIndex = new ProductSortIndex(catalog);
+        }
+        return sortIndex;
+    }
+
+    // Sorted price, warranty and stock indexes for range filters
+    public synchronized ProductRangeIndex getRangeIndex() {
+        if (rangeIndex == null) {
+            rangeIndex = new ProductRangeIndex(catalog);
+        }
+        return rangeIndex;
+    }
+
+    // Runs catalog queries on the indexes above, with filter, sort and page in one pass
+    public synchronized QueryPlanner getQueryPlanner() {
+        if (queryPlanner == null) {
+            queryPlanner = new QueryPlanner(catalog, getSearchIndex(), getFacets(), getRangeIndex(), getSortIndex());
+        }
+        return queryPlanner;
+    }
+
+    // The products a query selects, in its order (see ProductQuery)
+    public List<Product> findProducts(ProductQuery query) {
+        return productsAt(getQueryPlanner().execute(query));
+    }
+
+    // -------------- top-K listings ----------
+    // The k cheapest products of a category ("All" or null for every category), cheapest first
+    public List<Product> getCheapestProducts(String category, int k) {
+        return findProducts(ProductQuery.all().withCategory(category)
+                .sortedBy(ProductSortIndex.Order.PRICE_ASCENDING).page(0, k));
+    }
+
+    // The k products with the most stock, most first
+    public List<Product> getMostStockedProducts(int k) {
+        return productsAt(getRangeIndex().extremes(ProductRangeIndex.Field.QUANTITY, k, true));
+    }
+
+    // The k most recently added products, newest first
+    public synchronized List<Product> getNewestProducts(int k) {
+        return catalog.newest(k, product -> true);
+    }
+
+    // The k first products in any order among those the filter accepts (bounded heap, O(n log k))
+    public synchronized List<Product> getTopProducts(int k, Comparator<? super Product> order, Predicate<? super Product> filter) {
+        return catalog.topK(k, order, filter);
+    }
+
+    private List<Product> productsAt(int[] ordinals) {
+        List<Product> products = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            Product product = catalog.productAt(ordinal);
+            if (product != null) {
+                products.add(product);
             }
         }
-        return count;
+        return products;
+    }
+
+    // Registers an index or cache that follows every catalog change (see CatalogListener)
+    public synchronized void addCatalogListener(CatalogListener listener) {
+        catalog.addListener(listener);
+    }
+
+    public synchronized void removeCatalogListener(CatalogListener listener) {
+        catalog.removeListener(listener);
+    }
+
+    // Category and attribute bitmaps for filtering and facet counts
+    public synchronized ProductFacets getFacets() {
+        if (facets == null) {
+            facets = new ProductFacets(catalog);
+        }
+        return facets;
     }
 
 
     // ---------------- get total number of products products ----------------
     public int getTotalProducts() {
-        return productList.size();
+        return catalog.size();
     }
 }
\ No newline at end of file
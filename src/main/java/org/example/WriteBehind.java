@@ -0,0 +1,106 @@
+package org.example;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalescing write-behind scheduler.
+ *
+ * Callers record changes with {@link #markDirty()}; a background thread runs the flush once
+ * every interval while there are changes, or right away once the number of changes since the
+ * last flush reaches the threshold. A burst of thousands of changes therefore costs a handful of
+ * writes instead of one write per change. If the flush fails, its changes stay pending and the
+ * next flush tries again.
+ *
+ * With an interval of 0 or less there is no background thread and every change is flushed
+ * immediately on the calling thread (write-through).
+ */
+public class WriteBehind implements AutoCloseable {
+    // Writes out everything that changed since the previous flush
+    @FunctionalInterface
+    public interface Flush {
+        void run() throws IOException;
+    }
+
+    private final Flush flush;
+    private final int dirtyThreshold;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicInteger dirty = new AtomicInteger();
+    private final Object flushLock = new Object();
+
+    public WriteBehind(String name, long intervalMillis, int dirtyThreshold, Flush flush) {
+        this.flush = flush;
+        this.dirtyThreshold = Math.max(1, dirtyThreshold);
+        if (intervalMillis <= 0) {
+            scheduler = null;
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Records one change
+    public void markDirty() {
+        int pending = dirty.incrementAndGet();
+        if (scheduler == null) {
+            flushQuietly();
+        } else if (pending == dirtyThreshold) {
+            try {
+                scheduler.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                // closing, close() flushes what is left
+            }
+        }
+    }
+
+    // Number of changes not flushed yet
+    public int pending() {
+        return dirty.get();
+    }
+
+    // Flushes the pending changes on the calling thread
+    public void flushNow() throws IOException {
+        synchronized (flushLock) {
+            int flushed = dirty.getAndSet(0);
+            if (flushed == 0) {
+                return;
+            }
+            try {
+                flush.run();
+            } catch (IOException | RuntimeException e) {
+                dirty.addAndGet(flushed); // retried by the next flush
+                throw e;
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flushNow();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Write-behind flush failed, will retry: " + e.getMessage());
+        }
+    }
+
+    // Stops the background thread and flushes what is left
+    @Override
+    public void close() throws IOException {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushNow();
+    }
+}
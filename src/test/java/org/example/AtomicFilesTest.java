@@ -0,0 +1,93 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AtomicFilesTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void write_ExistingFile_Replaced() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("users.txt");
+        Files.writeString(file, "old:old:0\n");
+
+        // Act
+        AtomicFiles.write(file, out -> out.write("new:new:1\n".getBytes(StandardCharsets.UTF_8)));
+
+        // Assert
+        assertEquals("new:new:1\n", Files.readString(file));
+        assertEquals(1, countFiles());
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    void write_ExistingFile_PermissionsKept() throws IOException {
+        // Arrange
+        Path target = tempDir.resolve("users.txt");
+        Files.writeString(target, "old");
+        Files.setPosixFilePermissions(target, PosixFilePermissions.fromString("rw-r-----"));
+
+        // Act
+        AtomicFiles.write(target, out -> out.write("new".getBytes(StandardCharsets.UTF_8)));
+
+        // Assert
+        assertEquals("new", Files.readString(target));
+        assertEquals("rw-r-----", PosixFilePermissions.toString(Files.getPosixFilePermissions(target)));
+    }
+
+    @Test
+    void write_FailsHalfway_OldFileKeptAndTempRemoved() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("products.txt");
+        Files.writeString(file, "E001,Laptop,8,150000.0,Dell,12\n");
+
+        // Act
+        IOException error = assertThrows(IOException.class, () -> AtomicFiles.write(file, out -> {
+            out.write("E002,Phone,3,".getBytes(StandardCharsets.UTF_8));
+            throw new IOException("disk full");
+        }));
+
+        // Assert
+        assertEquals("disk full", error.getMessage());
+        assertEquals("E001,Laptop,8,150000.0,Dell,12\n", Files.readString(file));
+        assertEquals(1, countFiles());
+    }
+
+    @Test
+    void productFileWriter_Write_ReadableByReader() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("products.txt");
+        List<Product> products = List.of(
+                new Electronics("E001", "Laptop", 8, 150000.0, "Dell", 12),
+                new Clothing("C001", "Jeans", 15, 2000.0, "L", "Blue"));
+
+        // Act
+        ProductFileWriter.write(file, products);
+        ProductCatalog catalog = new ProductCatalog();
+        ProductFileReader.read(file, catalog::add);
+
+        // Assert
+        assertEquals(2, catalog.size());
+        assertEquals("Blue", ((Clothing) catalog.get("C001")).getColor());
+    }
+
+    private long countFiles() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.example.TestCatalogs.catalog;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogColumnsTest {
+    private ProductCatalog sampleCatalog() {
+        return catalog(
+                new Electronics("E001", "Laptop", 2, 1500.0, "Dell", 12),
+                new Clothing("C001", "Shirt", 10, 19.99, "M", "Blue"),
+                new Books("B001", "1984", 4, 15.5, "George Orwell", "Dystopian"),
+                new Electronics("E002", "Phone", 1, 900.0, "Apple", 6));
+    }
+
+    @Test
+    void totalStockValue_SumsQuantityTimesPriceInMinorUnits() {
+        // Arrange
+        ProductCatalog catalog = sampleCatalog();
+
+        // Act
+        long total = catalog.columns().totalStockValue();
+
+        // Assert
+        assertEquals(2 * 150000 + 10 * 1999 + 4 * 1550 + 90000, total);
+    }
+
+    @Test
+    void countsByCategory_RemovedProductNotCounted() {
+        // Arrange
+        ProductCatalog catalog = sampleCatalog();
+
+        // Act
+        catalog.remove("E002");
+        int[] counts = catalog.columns().countsByCategory();
+
+        // Assert
+        assertEquals(1, counts[CatalogColumns.ELECTRONICS]);
+        assertEquals(1, counts[CatalogColumns.CLOTHING]);
+        assertEquals(1, counts[CatalogColumns.BOOKS]);
+        assertEquals(0, counts[CatalogColumns.HOME_GARDEN]);
+    }
+
+    @Test
+    void filterByPrice_CategoryAndRange_ReturnsMatchingOrdinals() {
+        // Arrange
+        ProductCatalog catalog = sampleCatalog();
+
+        // Act
+        int[] electronics = catalog.columns().filterByPrice(0, 100000, CatalogColumns.ELECTRONICS);
+        int[] any = catalog.columns().filterByPrice(1000, 2000, CatalogColumns.NONE);
+
+        // Assert
+        assertArrayEquals(new int[]{catalog.ordinalOf("E002")}, electronics);
+        assertArrayEquals(new int[]{catalog.ordinalOf("C001"), catalog.ordinalOf("B001")}, any);
+    }
+
+    @Test
+    void sortByPrice_AscendingAndDescending() {
+        // Arrange
+        ProductCatalog catalog = sampleCatalog();
+        int[] ordinals = {0, 1, 2, 3};
+
+        // Act
+        catalog.columns().sortByPrice(ordinals, true);
+        int[] descending = {0, 1, 2, 3};
+        catalog.columns().sortByPrice(descending, false);
+
+        // Assert
+        assertArrayEquals(new int[]{2, 1, 3, 0}, ordinals);
+        assertArrayEquals(new int[]{0, 3, 1, 2}, descending);
+    }
+
+    @Test
+    void refresh_DirectProductChange_ColumnUpdated() {
+        // Arrange
+        ProductCatalog catalog = sampleCatalog();
+        Product laptop = catalog.get("E001");
+
+        // Act
+        laptop.decreaseQuantity(2);
+        catalog.refresh("E001");
+        catalog.addQuantity("C001", 5);
+
+        // Assert
+        assertEquals(0, catalog.columns().quantityAt(catalog.ordinalOf("E001")));
+        assertEquals(15, catalog.columns().quantityAt(catalog.ordinalOf("C001")));
+    }
+}
@@ -0,0 +1,88 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Loads synthetic catalogs of 1M, 5M and 10M products and reports heap usage and lookup latency.
+ * Skipped by default, run it with:
+ * mvn test -Dtest=CatalogScalingTest -Dcatalog.scaling=true -DargLine=-Xmx4g
+ * The sizes can be changed with -Dcatalog.scaling.sizes=1000000,5000000
+ */
+@EnabledIfSystemProperty(named = "catalog.scaling", matches = "true")
+class CatalogScalingTest {
+    private static final String[] BRANDS = {"Dell", "Apple", "Sony", "Fitbit", "Samsung"};
+    private static final String[] SIZES = {"S", "M", "L", "XL"};
+    private static final String[] COLORS = {"Black", "Blue", "Red", "White"};
+    private static final int LOOKUPS = 1_000_000;
+
+    @Test
+    void loadSyntheticCatalogs_ReportHeapAndLookupLatency() {
+        String sizes = System.getProperty("catalog.scaling.sizes", "1000000,5000000,10000000");
+        for (String size : sizes.split(",")) {
+            runScale(Integer.parseInt(size.trim()));
+        }
+    }
+
+    private void runScale(int productCount) {
+        long heapBefore = usedHeap();
+
+        // Load
+        long loadStart = System.nanoTime();
+        ProductCatalog catalog = new ProductCatalog(productCount);
+        for (int i = 0; i < productCount; i++) {
+            catalog.add(syntheticProduct(i));
+        }
+        long loadNanos = System.nanoTime() - loadStart;
+        long heapAfter = usedHeap();
+
+        // Random lookups, restocks on every 10th lookup
+        Random random = new Random(42);
+        String[] ids = new String[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            ids[i] = idOf(random.nextInt(productCount));
+        }
+        long lookupStart = System.nanoTime();
+        int found = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (catalog.get(ids[i]) != null) {
+                found++;
+            }
+            if (i % 10 == 0) {
+                catalog.addQuantity(ids[i], 1);
+            }
+        }
+        long lookupNanos = System.nanoTime() - lookupStart;
+
+        assertEquals(productCount, catalog.size());
+        assertEquals(LOOKUPS, found);
+
+        long bytesPerProduct = (heapAfter - heapBefore) / productCount;
+        System.out.printf("%,d products: load %d ms, heap %,d MB (%d bytes/product), lookup %d ns/op%n",
+                productCount, loadNanos / 1_000_000, (heapAfter - heapBefore) / (1024 * 1024),
+                bytesPerProduct, lookupNanos / LOOKUPS);
+    }
+
+    private static Product syntheticProduct(int i) {
+        if (i % 2 == 0) {
+            return new Electronics(idOf(i), "Product " + i, i % 100, 100 + i % 5000, BRANDS[i % BRANDS.length], 12);
+        }
+        return new Clothing(idOf(i), "Product " + i, i % 100, 100 + i % 5000, SIZES[i % SIZES.length], COLORS[i % COLORS.length]);
+    }
+
+    private static String idOf(int i) {
+        return ProductIds.format(i % 2 == 0 ? 'E' : 'C', i, 9);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,110 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotTest {
+    @TempDir
+    Path tempDir;
+
+    private List<Product> sampleProducts() {
+        List<Product> products = new ArrayList<>();
+        products.add(new Electronics("E001", "Laptop", 8, 150000.0, "Dell", 12));
+        products.add(new Clothing("C001", "Casual T-Shirt", 20, 40.5, "M", "Black"));
+        products.add(new Books("B001", "L'Étranger", 7, 1500.0, "Albert Camus", "Classic"));
+        products.add(new HomeGarden("H001", "Wooden Chair", 10, 6500.0, "Wood", "Living Room"));
+        return products;
+    }
+
+    @Test
+    void writeThenRead_AllCategories_RoundTrip() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("products.bin");
+        List<Product> products = sampleProducts();
+
+        // Act
+        CatalogSnapshot.write(file, products);
+        List<Product> restored = new ArrayList<>();
+        int count = CatalogSnapshot.read(file, restored::add);
+
+        // Assert
+        assertEquals(4, count);
+        for (int i = 0; i < products.size(); i++) {
+            assertEquals(ProductFileWriter.toLine(products.get(i)), ProductFileWriter.toLine(restored.get(i)));
+            assertEquals(products.get(i).getClass(), restored.get(i).getClass());
+        }
+    }
+
+    @Test
+    void read_CorruptedRecord_ChecksumMismatch() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("products.bin");
+        CatalogSnapshot.write(file, sampleProducts());
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[30] ^= 0x01;
+        Files.write(file, bytes);
+
+        // Act + Assert
+        IOException error = assertThrows(IOException.class, () -> CatalogSnapshot.read(file, product -> { }));
+        assertTrue(error.getMessage().contains("checksum"));
+    }
+
+    @Test
+    void read_NotASnapshot_Rejected() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("products.bin");
+        Files.writeString(file, "E001,Laptop,8,150000,Dell,12\nC001,Jeans,15,2000,L,Blue\n");
+
+        // Act + Assert
+        assertThrows(IOException.class, () -> CatalogSnapshot.read(file, product -> { }));
+    }
+
+    @Test
+    void loadProducts_SnapshotPresent_PreferredOverText() throws IOException {
+        // Arrange
+        WestminsterShoppingManager manager = new WestminsterShoppingManager(tempDir, 0);
+        sampleProducts().forEach(manager::addProduct);
+        manager.saveProducts();
+        Path text = tempDir.resolve(WestminsterShoppingManager.PRODUCTS_FILE);
+        FileTime saved = Files.getLastModifiedTime(text);
+        Files.writeString(text, "E999,Other,1,1,Brand,1\n");
+        Files.setLastModifiedTime(text, saved);
+
+        // Act
+        WestminsterShoppingManager reloaded = new WestminsterShoppingManager(tempDir, 0);
+        reloaded.loadProducts();
+
+        // Assert
+        assertEquals(4, reloaded.getTotalProducts());
+        assertEquals("L'Étranger", reloaded.getProductByID("B001").getProductName());
+    }
+
+    @Test
+    void loadProducts_TextEditedAfterSave_TextWins() throws IOException {
+        // Arrange
+        WestminsterShoppingManager manager = new WestminsterShoppingManager(tempDir, 0);
+        sampleProducts().forEach(manager::addProduct);
+        manager.saveProducts();
+        Path text = tempDir.resolve(WestminsterShoppingManager.PRODUCTS_FILE);
+        Files.writeString(text, "E999,Other,1,1,Brand,1\n");
+        Path snapshot = tempDir.resolve(WestminsterShoppingManager.SNAPSHOT_FILE);
+        Files.setLastModifiedTime(text, FileTime.fromMillis(Files.getLastModifiedTime(snapshot).toMillis() + 5_000));
+
+        // Act
+        WestminsterShoppingManager reloaded = new WestminsterShoppingManager(tempDir, 0);
+        reloaded.loadProducts();
+
+        // Assert
+        assertEquals(1, reloaded.getTotalProducts());
+        assertNotNull(reloaded.getProductByID("E999"));
+    }
+}
@@ -0,0 +1,157 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PagedShoppingManagerTest {
+    @TempDir
+    Path tempDir;
+
+    private static Product product(int i) {
+        String id = ProductIds.format('E', i, 6);
+        return new Electronics(id, "Phone " + i, i % 50, 100.0 + i, "Brand" + (i % 7), 12);
+    }
+
+    @Test
+    void addProduct_ManyProductsSmallCache_AllRetrievable() throws IOException {
+        // Arrange
+        try (PagedShoppingManager manager = new PagedShoppingManager(tempDir.resolve("products.db"), 512, 8)) {
+            // Act
+            for (int i = 4999; i >= 0; i--) {
+                manager.addProduct(product(i * 7919 % 5000));
+            }
+
+            // Assert
+            assertEquals(5000, manager.getTotalProducts());
+            assertTrue(manager.getCachedPages() <= 8);
+            for (int i = 0; i < 5000; i += 97) {
+                assertEquals("Phone " + i, manager.getProductByID(ProductIds.format('E', i, 6)).getProductName());
+            }
+            assertNull(manager.getProductByID("E999999"));
+        }
+    }
+
+    @Test
+    void getAllProducts_InsertedOutOfOrder_SortedById() throws IOException {
+        // Arrange
+        try (PagedShoppingManager manager = new PagedShoppingManager(tempDir.resolve("products.db"), 512, 8)) {
+            for (int i = 0; i < 1000; i++) {
+                manager.addProduct(product(i * 7 % 1000));
+            }
+
+            // Act
+            List<Product> products = manager.getAllProducts();
+
+            // Assert
+            assertEquals(1000, products.size());
+            for (int i = 1; i < products.size(); i++) {
+                assertTrue(products.get(i - 1).getProductID().compareTo(products.get(i).getProductID()) < 0);
+            }
+        }
+    }
+
+    @Test
+    void addProduct_DuplicateId_NotAdded() throws IOException {
+        // Arrange
+        try (PagedShoppingManager manager = new PagedShoppingManager(tempDir.resolve("products.db"))) {
+            manager.addProduct(new Clothing("C001", "Jeans", 15, 2000.0, "L", "Blue"));
+
+            // Act
+            manager.addProduct(new Clothing("C001", "Shirt", 3, 900.0, "M", "Red"));
+
+            // Assert
+            assertEquals(1, manager.getTotalProducts());
+            assertEquals("Jeans", manager.getProductByID("C001").getProductName());
+        }
+    }
+
+    @Test
+    void removeAndUpdate_ThenReopen_ChangesPersisted() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("products.db");
+        try (PagedShoppingManager manager = new PagedShoppingManager(file, 512, 8)) {
+            for (int i = 0; i < 2000; i++) {
+                manager.addProduct(product(i));
+            }
+
+            // Act
+            for (int i = 0; i < 2000; i += 2) {
+                manager.removeProductFromSystem(ProductIds.format('E', i, 6));
+            }
+            assertTrue(manager.updateProductQuantity("E000001", 100));
+            assertFalse(manager.updateProductQuantity("E000002", 100));
+        }
+
+        // Assert
+        try (PagedShoppingManager reopened = new PagedShoppingManager(file, 512, 8)) {
+            assertEquals(1000, reopened.getTotalProducts());
+            assertNull(reopened.getProductByID("E000002"));
+            assertEquals(101, reopened.getProductByID("E000001").getQuantity());
+            assertEquals(1000, reopened.getAllProducts().size());
+        }
+    }
+
+    @Test
+    void crash_AfterEvictionsWithoutCheckpoint_FileHoldsConsistentTree() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("products.db");
+        PagedShoppingManager crashed = new PagedShoppingManager(file, 512, 8);
+        for (int i = 0; i < 1000; i++) {
+            crashed.addProduct(product(i * 2));
+        }
+        crashed.saveProducts();
+        // Node splits and page evictions, then the process dies without a checkpoint
+        for (int i = 0; i < 1000; i++) {
+            crashed.addProduct(product(i * 2 + 1));
+        }
+
+        // Act
+        try (PagedShoppingManager reopened = new PagedShoppingManager(file, 512, 8)) {
+            List<Product> products = reopened.getAllProducts();
+
+            // Assert
+            assertEquals(reopened.getTotalProducts(), products.size());
+            for (int i = 0; i < 1000; i++) {
+                assertNotNull(reopened.getProductByID(ProductIds.format('E', i * 2, 6)), "lost E" + i * 2);
+            }
+            for (int i = 1; i < products.size(); i++) {
+                assertTrue(products.get(i - 1).getProductID().compareTo(products.get(i).getProductID()) < 0);
+            }
+        } finally {
+            crashed.close();
+        }
+    }
+
+    @Test
+    void importProducts_TextFile_AllImported() throws IOException {
+        // Arrange
+        Path text = tempDir.resolve("products.txt");
+        Files.writeString(text, "E001,Laptop,8,150000,Dell,12\nC001,Jeans,15,2000,L,Blue\nB001,Dune,5,1200,Frank Herbert,Sci-Fi\n");
+
+        // Act
+        try (PagedShoppingManager manager = new PagedShoppingManager(tempDir.resolve("products.db"))) {
+            int imported = manager.importProducts(text);
+
+            // Assert
+            assertEquals(3, imported);
+            assertEquals("Frank Herbert", ((Books) manager.getProductByID("B001")).getAuthor());
+        }
+    }
+
+    @Test
+    void open_NotAPageFile_Rejected() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("products.db");
+        Files.writeString(file, "E001,Laptop,8,150000,Dell,12\n");
+
+        // Act + Assert
+        assertThrows(IOException.class, () -> new PagedShoppingManager(file));
+    }
+}
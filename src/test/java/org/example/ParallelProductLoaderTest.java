@@ -0,0 +1,85 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelProductLoaderTest {
+    @TempDir
+    Path tempDir;
+
+    private Path writeProducts(int count) throws IOException {
+        Path file = tempDir.resolve("products.txt");
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < count; i++) {
+                if (i % 3 == 0) {
+                    writer.write(ProductIds.format('E', i, 8) + ",Laptop " + i + "," + (i % 50) + "," + (100 + i) + ".5,Dell,12\n");
+                } else if (i % 3 == 1) {
+                    writer.write(ProductIds.format('C', i, 8) + ",Shirt é " + i + ",3,19.99,M,Blue\n");
+                } else {
+                    writer.write("# comment " + i + "\n" + ProductIds.format('B', i, 8) + ",Book " + i + ",1,12,Author,Genre\n");
+                }
+            }
+        }
+        return file;
+    }
+
+    @Test
+    void load_ManyChunks_SameProductsInFileOrderAsStreamingReader() throws IOException {
+        // Arrange
+        Path file = writeProducts(20_000);
+        List<Product> expected = new ArrayList<>();
+        ProductFileReader.read(file, expected::add);
+
+        // Act
+        List<Product> loaded = new ArrayList<>();
+        int count = new ParallelProductLoader(7, 0).load(file, loaded::add);
+
+        // Assert
+        assertEquals(20_000, count);
+        assertEquals(expected.size(), loaded.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getProductID(), loaded.get(i).getProductID());
+            assertEquals(expected.get(i).getProductName(), loaded.get(i).getProductName());
+            assertEquals(expected.get(i).getPrice(), loaded.get(i).getPrice());
+        }
+    }
+
+    @Test
+    void load_MoreChunksThanLines_AllProductsLoadedOnce() throws IOException {
+        // Arrange
+        Path file = writeProducts(3);
+
+        // Act
+        List<Product> loaded = new ArrayList<>();
+        new ParallelProductLoader(16, 0).load(file, loaded::add);
+
+        // Assert
+        assertEquals(3, loaded.size());
+        assertEquals("E00000000", loaded.get(0).getProductID());
+        assertEquals("B00000002", loaded.get(2).getProductID());
+    }
+
+    @Test
+    void load_SmallFile_FallsBackToStreamingReader() throws IOException {
+        // Arrange
+        Path file = writeProducts(10);
+
+        // Act
+        List<Product> loaded = new ArrayList<>();
+        int count = new ParallelProductLoader(4, ParallelProductLoader.DEFAULT_PARALLEL_THRESHOLD).load(file, loaded::add);
+
+        // Assert
+        assertEquals(10, count);
+        assertEquals(10, loaded.size());
+    }
+}
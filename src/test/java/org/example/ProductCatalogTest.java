@@ -0,0 +1,129 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCatalogTest {
+    @Test
+    void add_NewProduct_IndexedByIdAndCategory() {
+        // Arrange
+        ProductCatalog catalog = new ProductCatalog();
+        Product laptop = new Electronics("E001", "Laptop", 5, 1200.0, "Dell", 12);
+        Product shirt = new Clothing("C001", "Shirt", 10, 20.0, "M", "Blue");
+
+        // Act
+        catalog.add(laptop);
+        catalog.add(shirt);
+
+        // Assert
+        assertSame(laptop, catalog.get("E001"));
+        assertSame(shirt, catalog.get("C001"));
+        assertEquals(List.of(laptop), catalog.getByCategory("Electronics"));
+        assertEquals(1, catalog.countByCategory("Clothing"));
+        assertEquals(2, catalog.size());
+    }
+
+    @Test
+    void add_DuplicateId_Rejected() {
+        // Arrange
+        ProductCatalog catalog = new ProductCatalog();
+        catalog.add(new Electronics("E001", "Laptop", 5, 1200.0, "Dell", 12));
+
+        // Act
+        boolean added = catalog.add(new Electronics("E001", "Tablet", 2, 500.0, "Apple", 6));
+
+        // Assert
+        assertFalse(added);
+        assertEquals("Laptop", catalog.get("E001").getProductName());
+        assertEquals(1, catalog.countByCategory("Electronics"));
+    }
+
+    @Test
+    void remove_ExistingProduct_RemovedFromAllIndexes() {
+        // Arrange
+        ProductCatalog catalog = new ProductCatalog();
+        Product laptop = new Electronics("E001", "Laptop", 5, 1200.0, "Dell", 12);
+        catalog.add(laptop);
+
+        // Act
+        Product removed = catalog.remove("E001");
+
+        // Assert
+        assertSame(laptop, removed);
+        assertNull(catalog.get("E001"));
+        assertTrue(catalog.getByCategory("Electronics").isEmpty());
+        assertNull(catalog.remove("E001"));
+    }
+
+    @Test
+    void addQuantity_ExistingProduct_StockIncreased() {
+        // Arrange
+        ProductCatalog catalog = new ProductCatalog();
+        Product laptop = new Electronics("E001", "Laptop", 5, 1200.0, "Dell", 12);
+        catalog.add(laptop);
+
+        // Act
+        boolean found = catalog.addQuantity("E001", 7);
+
+        // Assert
+        assertTrue(found);
+        assertEquals(12, laptop.getQuantity());
+        assertFalse(catalog.addQuantity("E999", 1));
+    }
+
+    @Test
+    void getAll_PreservesInsertionOrder() {
+        // Arrange
+        ProductCatalog catalog = new ProductCatalog();
+        Product first = new Clothing("C002", "Jeans", 3, 40.0, "L", "Blue");
+        Product second = new Electronics("E001", "Laptop", 5, 1200.0, "Dell", 12);
+        Product third = new Clothing("C001", "Shirt", 10, 20.0, "M", "Red");
+
+        // Act
+        catalog.add(first);
+        catalog.add(second);
+        catalog.add(third);
+
+        // Assert
+        assertEquals(List.of(first, second, third), catalog.getAll());
+    }
+
+    @Test
+    void topK_PriceOrderWithFilter_KBestInOrder() {
+        // Arrange
+        ProductCatalog catalog = new ProductCatalog();
+        for (int i = 0; i < 100; i++) {
+            catalog.add(new Clothing("C" + i, "Shirt " + i, i, (i * 37) % 100, "M", i % 2 == 0 ? "Blue" : "Red"));
+        }
+
+        // Act
+        List<Product> cheapestBlue = catalog.topK(3, java.util.Comparator.comparingDouble(Product::getPrice),
+                product -> ((Clothing) product).getColor().equals("Blue"));
+
+        // Assert: the even i with the lowest (i * 37) % 100 are 0, 46 and 92
+        assertEquals(List.of("C0", "C46", "C92"), cheapestBlue.stream().map(Product::getProductID).toList());
+        assertTrue(catalog.topK(0, java.util.Comparator.comparingDouble(Product::getPrice), product -> true).isEmpty());
+    }
+
+    @Test
+    void newest_AfterRemove_LatestAddedFirst() {
+        // Arrange
+        ProductCatalog catalog = new ProductCatalog();
+        Product first = new Books("B1", "First", 1, 10.0, "A", "G");
+        Product second = new Books("B2", "Second", 1, 10.0, "A", "G");
+        Product third = new Books("B3", "Third", 1, 10.0, "A", "G");
+        catalog.add(first);
+        catalog.add(second);
+        catalog.add(third);
+        catalog.remove("B3");
+
+        // Act
+        List<Product> newest = catalog.newest(5, product -> true);
+
+        // Assert
+        assertEquals(List.of(second, first), newest);
+    }
+}
@@ -0,0 +1,86 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.example.TestCatalogs.bits;
+import static org.example.TestCatalogs.catalog;
+import static org.example.TestCatalogs.dune;
+import static org.example.TestCatalogs.gamingLaptop;
+import static org.example.TestCatalogs.laptopPro;
+import static org.example.TestCatalogs.tShirt;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductFacetsTest {
+
+    private ProductCatalog sampleCatalog() {
+        return catalog(
+                laptopPro(),
+                gamingLaptop(),
+                tShirt(),
+                new Clothing("C002", "Hoodie", 7, 55.0, "L", "black"),
+                new Clothing("C003", "Rain Jacket", 2, 80.0, "M", "Yellow"),
+                dune());
+    }
+
+    @Test
+    void matching_OrWithinFacetAndAcross_ExpectedOrdinals() {
+        // Arrange
+        ProductFacets facets = new ProductFacets(sampleCatalog());
+
+        // Act
+        BitSet mediumOrBlack = facets.matching(Map.of(
+                ProductFacets.SIZE, List.of("M", "L"),
+                ProductFacets.COLOR, List.of("Black")));
+
+        // Assert ("black" and "Black" are the same value)
+        assertEquals(bits(2, 3), mediumOrBlack);
+        assertEquals(bits(0, 1, 2, 3, 4, 5), facets.matching(Map.of()));
+        assertEquals(bits(), facets.matching(Map.of(ProductFacets.BRAND, List.of("Sony"))));
+    }
+
+    @Test
+    void counts_WithinResult_CountsPerValue() {
+        // Arrange
+        ProductFacets facets = new ProductFacets(sampleCatalog());
+
+        // Act
+        Map<String, Integer> categories = facets.counts(ProductFacets.CATEGORY, null);
+        Map<String, Integer> colors = facets.counts(ProductFacets.COLOR, bits(2, 3, 4, 5));
+        Map<String, Integer> sizes = facets.counts(ProductFacets.SIZE, bits(3));
+
+        // Assert
+        assertEquals(Map.of("Books", 1, "Clothing", 3, "Electronics", 2), categories);
+        assertEquals(Map.of("Black", 2, "Yellow", 1), colors);
+        assertEquals(Map.of("L", 1), sizes);
+    }
+
+    @Test
+    void catalogChanges_AddRemoveEdit_FacetsFollow() {
+        // Arrange
+        ProductCatalog catalog = sampleCatalog();
+        ProductFacets facets = new ProductFacets(catalog);
+
+        // Act
+        catalog.add(new Electronics("E003", "Monitor", 4, 30000.0, "Dell", 36));
+        catalog.remove("E001");
+        ((Clothing) catalog.get("C003")).setColor("Black");
+        catalog.refresh("C003");
+
+        // Assert
+        assertEquals(1, facets.count(ProductFacets.BRAND, "Dell"));
+        assertEquals(List.of("Asus", "Dell"), facets.values(ProductFacets.BRAND));
+        assertEquals(3, facets.count(ProductFacets.COLOR, "Black"));
+        assertEquals(List.of("Black"), facets.values(ProductFacets.COLOR));
+    }
+
+    @Test
+    void attributeFacets_Category_FacetsOfThatCategory() {
+        // Act + Assert
+        assertEquals(List.of(ProductFacets.SIZE, ProductFacets.COLOR), ProductFacets.attributeFacets("Clothing"));
+        assertEquals(7, ProductFacets.attributeFacets("All").size());
+    }
+}
@@ -0,0 +1,119 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductFileReaderTest {
+    @TempDir
+    Path tempDir;
+
+    private List<Product> readAll(String content) throws IOException {
+        Path file = tempDir.resolve("products.txt");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        List<Product> products = new ArrayList<>();
+        ProductFileReader.read(file, products::add);
+        return products;
+    }
+
+    @Test
+    void read_AllCategories_ProductsCreatedWithAttributes() throws IOException {
+        // Act
+        List<Product> products = readAll(
+                "E001,Laptop,8,150000,Dell,12\n" +
+                "C001, Casual T-Shirt , 20, 40.5, M, Black\n" +
+                "B001,1984,7,1500,George Orwell,Dystopian\n" +
+                "H001,Wooden Chair,10,6500,Wood,Living Room\n");
+
+        // Assert
+        assertEquals(4, products.size());
+        Electronics laptop = (Electronics) products.get(0);
+        assertEquals("E001", laptop.getProductID());
+        assertEquals(150000.0, laptop.getPrice());
+        assertEquals("Dell", laptop.getBrand());
+        assertEquals(12, laptop.getWarrantyPeriod());
+        Clothing shirt = (Clothing) products.get(1);
+        assertEquals("Casual T-Shirt", shirt.getProductName());
+        assertEquals(20, shirt.getQuantity());
+        assertEquals(40.5, shirt.getPrice());
+        assertEquals("M", shirt.getSize());
+        assertEquals("Black", shirt.getColor());
+        assertEquals("George Orwell", ((Books) products.get(2)).getAuthor());
+        assertEquals("Living Room", ((HomeGarden) products.get(3)).getRoom());
+    }
+
+    @Test
+    void read_BlankLinesCommentsAndCrLf_Ignored() throws IOException {
+        // Act
+        List<Product> products = readAll("E001,Laptop,8,150000,Dell,12\r\n\r\n# New arrivals, some, more\r\nE005,Headphones,10,12400,Sony,12");
+
+        // Assert
+        assertEquals(2, products.size());
+        assertEquals("Dell", ((Electronics) products.get(0)).getBrand());
+        assertEquals("E005", products.get(1).getProductID());
+    }
+
+    @Test
+    void read_LegacySaveToStringLines_Accepted() throws IOException {
+        // Arrange
+        Electronics laptop = new Electronics("E001", "Laptop", 5, 999.99, "Dell", 12);
+        Clothing shirt = new Clothing("C123", "Shirt", 8, 29.99, "Large", "Blue");
+
+        // Act
+        List<Product> products = readAll(laptop.saveToString() + "\n" + shirt.saveToString() + "\n");
+
+        // Assert
+        assertEquals(2, products.size());
+        assertEquals("E001", products.get(0).getProductID());
+        assertEquals(999.99, products.get(0).getPrice());
+        Clothing read = (Clothing) products.get(1);
+        assertEquals("Large", read.getSize());
+        assertEquals("Blue", read.getColor());
+    }
+
+    @Test
+    void read_MalformedLine_SkippedAndOthersKept() throws IOException {
+        // Act
+        List<Product> products = readAll("E001,Laptop,eight,150000,Dell,12\nE002,Phone,3,900\nX001,Unknown,1,1,a,b\nC001,Jeans,15,2000,L,Blue\n");
+
+        // Assert
+        assertEquals(1, products.size());
+        assertEquals("C001", products.get(0).getProductID());
+    }
+
+    @Test
+    void read_LinesLongerThanTheBuffer_Parsed() throws IOException {
+        // Arrange
+        String longName = "N".repeat(200_000);
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 5_000; i++) {
+            content.append(ProductIds.format('C', i, 6)).append(",Shirt ").append(i).append(",1,10.25,M,Blue\n");
+        }
+        content.append("B001,").append(longName).append(",1,1,Author,Genre\n");
+
+        // Act
+        List<Product> products = readAll(content.toString());
+
+        // Assert
+        assertEquals(5_001, products.size());
+        assertEquals("Shirt 4999", products.get(4_999).getProductName());
+        assertEquals(longName, products.get(5_000).getProductName());
+    }
+
+    @Test
+    void parseDouble_PlainDecimals_MatchDoubleParseDouble() {
+        String[] values = {"0", "29.99", "999.99", "1200.0", "-3.5", "0.1", "123456789.123456", "1e3", "19.990"};
+        for (String value : values) {
+            byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+            assertEquals(Double.parseDouble(value), ProductFileReader.parseDouble(bytes, 0, bytes.length), value);
+        }
+    }
+}
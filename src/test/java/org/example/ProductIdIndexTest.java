@@ -0,0 +1,92 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductIdIndexTest {
+    @Test
+    void put_ManyIds_AllRetrievable() {
+        // Arrange
+        ProductIdIndex index = new ProductIdIndex(0);
+
+        // Act
+        for (int i = 0; i < 10_000; i++) {
+            index.put(ProductIds.format('E', i, 9), i);
+        }
+
+        // Assert
+        assertEquals(10_000, index.size());
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, index.get(ProductIds.format('E', i, 9)));
+        }
+        assertEquals(-1, index.get("E999999999"));
+    }
+
+    @Test
+    void get_SameNumberDifferentPadding_DistinctKeys() {
+        // Arrange
+        ProductIdIndex index = new ProductIdIndex(4);
+
+        // Act
+        index.put("E001", 1);
+        index.put("E01", 2);
+        index.put("C001", 3);
+
+        // Assert
+        assertEquals(1, index.get("E001"));
+        assertEquals(2, index.get("E01"));
+        assertEquals(3, index.get("C001"));
+    }
+
+    @Test
+    void remove_HalfOfTheIds_RemainingStillFound() {
+        // Arrange
+        ProductIdIndex index = new ProductIdIndex(16);
+        for (int i = 0; i < 5_000; i++) {
+            index.put(ProductIds.format('C', i, 6), i);
+        }
+
+        // Act
+        for (int i = 0; i < 5_000; i += 2) {
+            assertEquals(i, index.remove(ProductIds.format('C', i, 6)));
+        }
+
+        // Assert
+        assertEquals(2_500, index.size());
+        for (int i = 0; i < 5_000; i++) {
+            int expected = i % 2 == 0 ? -1 : i;
+            assertEquals(expected, index.get(ProductIds.format('C', i, 6)));
+        }
+    }
+
+    @Test
+    void put_NonSchemeIds_StoredInFallbackMap() {
+        // Arrange
+        ProductIdIndex index = new ProductIdIndex(4);
+
+        // Act
+        index.put("P-123", 7);
+        index.put("laptop", 8);
+
+        // Assert
+        assertEquals(7, index.get("P-123"));
+        assertEquals(8, index.remove("laptop"));
+        assertEquals(-1, index.get("laptop"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void pack_ValidIds_KeepsPrefixAndNumber() {
+        // Act
+        long packed = ProductIds.pack("H000123456");
+
+        // Assert
+        assertEquals('H', ProductIds.prefixOf(packed));
+        assertEquals(123456, ProductIds.numberOf(packed));
+        assertEquals(ProductIds.NOT_PACKABLE, ProductIds.pack("E12a"));
+        assertTrue(ProductIds.isValid("E000000000001"));
+        assertFalse(ProductIds.isValid("X001"));
+        assertFalse(ProductIds.isValid("E01"));
+    }
+}
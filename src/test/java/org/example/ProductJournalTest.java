@@ -0,0 +1,153 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductJournalTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void replay_AppendedChanges_AppliedInOrder() throws IOException {
+        // Arrange
+        try (ProductJournal journal = ProductJournal.open(tempDir)) {
+            journal.appendAdd(new Electronics("E001", "Laptop", 8, 150000.0, "Dell", 12));
+            journal.appendAdd(new Clothing("C001", "Jeans", 15, 2000.0, "L", "Blue"));
+            journal.appendQuantity("E001", 3);
+            journal.appendRemove("C001");
+        }
+        ProductCatalog catalog = new ProductCatalog();
+
+        // Act
+        int applied = ProductJournal.replay(tempDir, catalog);
+
+        // Assert
+        assertEquals(4, applied);
+        assertEquals(1, catalog.size());
+        assertEquals(3, catalog.get("E001").getQuantity());
+        assertEquals(3, catalog.columns().quantityAt(catalog.ordinalOf("E001")));
+    }
+
+    @Test
+    void replay_TornLastRecord_EarlierRecordsKept() throws IOException {
+        // Arrange
+        try (ProductJournal journal = ProductJournal.open(tempDir)) {
+            journal.appendAdd(new Books("B001", "Dune", 5, 1200.0, "Frank Herbert", "Sci-Fi"));
+            journal.appendQuantity("B001", 9);
+        }
+        Path segment = ProductJournal.segmentPath(tempDir, 1);
+        long size = Files.size(segment);
+        try (var channel = Files.newByteChannel(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+        ProductCatalog catalog = new ProductCatalog();
+
+        // Act
+        int applied = ProductJournal.replay(tempDir, catalog);
+
+        // Assert
+        assertEquals(1, applied);
+        assertEquals(5, catalog.get("B001").getQuantity());
+    }
+
+    @Test
+    void open_DirectoryAlreadyOpen_ReturnsNull() throws IOException {
+        // Arrange
+        try (ProductJournal first = ProductJournal.open(tempDir)) {
+            // Act
+            ProductJournal second = ProductJournal.open(tempDir);
+
+            // Assert
+            assertNotNull(first);
+            assertNull(second);
+        }
+    }
+
+    @Test
+    void loadProducts_UnsavedChanges_RestoredFromJournal() throws IOException {
+        // Arrange
+        WestminsterShoppingManager manager = new WestminsterShoppingManager(tempDir, 0);
+        manager.loadProducts();
+        manager.addProduct(new Electronics("E001", "Laptop", 8, 150000.0, "Dell", 12));
+        manager.addProduct(new HomeGarden("H001", "Chair", 10, 6500.0, "Wood", "Living Room"));
+        manager.updateProductQuantity("E001", 5);
+        manager.removeProductFromSystem("H001");
+        manager.close();
+
+        // Act
+        WestminsterShoppingManager reloaded = new WestminsterShoppingManager(tempDir, 0);
+        reloaded.loadProducts();
+        reloaded.close();
+
+        // Assert
+        assertEquals(1, reloaded.getTotalProducts());
+        assertEquals(13, reloaded.getProductByID("E001").getQuantity());
+        assertFalse(Files.exists(tempDir.resolve(WestminsterShoppingManager.PRODUCTS_FILE)));
+    }
+
+    @Test
+    void compaction_ThresholdReached_SnapshotWrittenAndOldSegmentsDeleted() throws IOException {
+        // Arrange
+        WestminsterShoppingManager manager = new WestminsterShoppingManager(tempDir, 0);
+        manager.loadProducts();
+        manager.setCompactionThreshold(1);
+
+        // Act
+        manager.addProduct(new Electronics("E001", "Laptop", 8, 150000.0, "Dell", 12));
+        manager.updateProductQuantity("E001", 2);
+        manager.close();
+
+        // Assert
+        assertTrue(Files.exists(tempDir.resolve(WestminsterShoppingManager.SNAPSHOT_FILE)));
+        WestminsterShoppingManager reloaded = new WestminsterShoppingManager(tempDir, 0);
+        reloaded.loadProducts();
+        reloaded.close();
+        assertEquals(10, reloaded.getProductByID("E001").getQuantity());
+        assertTrue(ProductJournal.generations(tempDir).size() <= 2);
+    }
+
+    @Test
+    void saveProducts_WithJournal_JournalStartsOver() throws IOException {
+        // Arrange
+        WestminsterShoppingManager manager = new WestminsterShoppingManager(tempDir, 0);
+        manager.loadProducts();
+        manager.addProduct(new Electronics("E001", "Laptop", 8, 150000.0, "Dell", 12));
+
+        // Act
+        manager.saveProducts();
+        manager.close();
+
+        // Assert
+        assertEquals(1, ProductJournal.generations(tempDir).size());
+        assertEquals(0, Files.size(ProductJournal.segmentPath(tempDir, ProductJournal.generations(tempDir).get(0))));
+    }
+
+    @Test
+    void saveProducts_WriteFails_ChangesKeptInJournal() throws IOException {
+        // Arrange
+        WestminsterShoppingManager manager = new WestminsterShoppingManager(tempDir, 0);
+        manager.setWriteBehind(60_000, 1000);
+        manager.loadProducts();
+        manager.addProduct(new Electronics("E001", "Laptop", 8, 150000.0, "Dell", 12));
+        manager.updateProductQuantity("E001", 4);
+        // A directory where products.txt should go makes the export fail
+        Files.createDirectories(tempDir.resolve(WestminsterShoppingManager.PRODUCTS_FILE).resolve("blocker"));
+
+        // Act
+        manager.saveProducts();
+        ProductCatalog recovered = new ProductCatalog();
+        ProductJournal.replay(tempDir, recovered);
+        manager.close();
+
+        // Assert
+        assertFalse(Files.exists(tempDir.resolve(WestminsterShoppingManager.SNAPSHOT_FILE)));
+        assertEquals(12, recovered.get("E001").getQuantity());
+    }
+}
@@ -0,0 +1,71 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.example.TestCatalogs.bits;
+import static org.example.TestCatalogs.catalog;
+import static org.example.TestCatalogs.gamingLaptop;
+import static org.example.TestCatalogs.laptopPro;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductRangeIndexTest {
+
+    // The shirt ties with the book on price and the book is out of stock
+    private ProductCatalog sampleCatalog() {
+        return catalog(
+                laptopPro(),
+                gamingLaptop(),
+                new Clothing("C001", "Casual T-Shirt", 20, 1200.0, "M", "Black"),
+                new Books("B001", "Dune", 0, 1200.0, "Frank Herbert", "Sci-Fi"));
+    }
+
+    @Test
+    void countAndMatching_InclusiveRanges() {
+        // Arrange
+        ProductRangeIndex index = new ProductRangeIndex(sampleCatalog());
+
+        // Act + Assert
+        assertEquals(2, index.count(ProductRangeIndex.Field.PRICE, 1200.0, 1200.0));
+        assertEquals(bits(0, 2, 3), index.matching(ProductRangeIndex.Field.PRICE, 0, 150000.0));
+        assertEquals(bits(1), index.matching(ProductRangeIndex.Field.WARRANTY, 13, Double.POSITIVE_INFINITY));
+        assertEquals(2, index.count(ProductRangeIndex.Field.WARRANTY, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY));
+        assertEquals(bits(3), index.matching(ProductRangeIndex.Field.QUANTITY, 0, 0));
+        assertEquals(0, index.count(ProductRangeIndex.Field.PRICE, 5000.0, 100.0));
+        assertEquals(1200.0, index.min(ProductRangeIndex.Field.PRICE));
+        assertEquals(210000.0, index.max(ProductRangeIndex.Field.PRICE));
+    }
+
+    @Test
+    void catalogChanges_AddRemoveRestock_IndexesFollow() {
+        // Arrange
+        ProductCatalog catalog = sampleCatalog();
+        ProductRangeIndex index = new ProductRangeIndex(catalog);
+
+        // Act
+        catalog.add(new Electronics("E003", "Monitor", 4, 30000.0, "Dell", 36));
+        catalog.remove("E002");
+        catalog.addQuantity("B001", 5);
+        catalog.get("C001").setPrice(99.0);
+        catalog.refresh("C001");
+
+        // Assert
+        assertEquals(bits(0, 4), index.matching(ProductRangeIndex.Field.WARRANTY, 0, 100));
+        assertEquals(bits(3, 4), index.matching(ProductRangeIndex.Field.QUANTITY, 4, 5));
+        assertEquals(bits(2, 3), index.matching(ProductRangeIndex.Field.PRICE, 0, 1200.0));
+        assertEquals(150000.0, index.max(ProductRangeIndex.Field.PRICE));
+    }
+
+    @Test
+    void sortedValues_Subset_CountInRangeByBinarySearch() {
+        // Arrange
+        ProductRangeIndex index = new ProductRangeIndex(sampleCatalog());
+
+        // Act
+        double[] prices = index.sortedValues(ProductRangeIndex.Field.PRICE, bits(1, 2, 3));
+
+        // Assert
+        assertArrayEquals(new double[]{1200.0, 1200.0, 210000.0}, prices);
+        assertEquals(2, ProductRangeIndex.countInRange(prices, 0, 2000.0));
+        assertEquals(1, ProductRangeIndex.countInRange(prices, 2000.0, Double.POSITIVE_INFINITY));
+    }
+}
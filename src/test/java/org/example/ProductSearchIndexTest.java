@@ -0,0 +1,186 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.example.TestCatalogs.sampleCatalog;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+
+    @Test
+    void tokenize_MixedText_LowerCasedWords() {
+        // Act
+        List<String> tokens = ProductSearchIndex.tokenize("Casual T-Shirt, M");
+
+        // Assert
+        assertEquals(List.of("casual", "t", "shirt", "m"), tokens);
+    }
+
+    @Test
+    void search_WordPrefixes_IntersectsPostings() {
+        // Arrange
+        ProductSearchIndex index = new ProductSearchIndex(sampleCatalog());
+
+        // Act + Assert
+        assertArrayEquals(new int[]{0, 1}, index.search("lap"));
+        assertArrayEquals(new int[]{0}, index.search("LAPTOP dell"));
+        assertArrayEquals(new int[]{2}, index.search("black shirt"));
+        assertArrayEquals(new int[]{3}, index.search("herbert"));
+        assertArrayEquals(new int[]{0}, index.search("e001"));
+        assertArrayEquals(new int[0], index.search("laptop black"));
+    }
+
+    @Test
+    void search_BlankQuery_MatchesEverything() {
+        // Arrange
+        ProductSearchIndex index = new ProductSearchIndex(sampleCatalog());
+
+        // Act + Assert
+        assertArrayEquals(new int[]{0, 1, 2, 3}, index.search("  "));
+    }
+
+    @Test
+    void catalogChanges_AddRemoveEdit_IndexFollows() {
+        // Arrange
+        ProductCatalog catalog = sampleCatalog();
+        ProductSearchIndex index = new ProductSearchIndex(catalog);
+
+        // Act
+        catalog.add(new HomeGarden("H001", "Garden Chair", 10, 6500.0, "Wood", "Patio"));
+        catalog.remove("E002");
+        Product dune = catalog.get("B001");
+        dune.setProductName("Dune Messiah");
+        catalog.refresh("B001");
+
+        // Assert
+        assertArrayEquals(new int[]{4}, index.search("chair wood"));
+        assertArrayEquals(new int[]{0}, index.search("laptop"));
+        assertEquals(0, index.search("asus").length);
+        assertArrayEquals(new int[]{3}, index.search("messiah"));
+    }
+
+    @Test
+    void catalogCleared_IndexEmptied() {
+        // Arrange
+        ProductCatalog catalog = sampleCatalog();
+        ProductSearchIndex index = new ProductSearchIndex(catalog);
+
+        // Act
+        catalog.clear();
+        catalog.add(new Books("B002", "Emma", 2, 900.0, "Jane Austen", "Classic"));
+
+        // Assert
+        assertEquals(0, index.search("laptop").length);
+        assertArrayEquals(new int[]{0}, index.search("austen"));
+    }
+
+    @Test
+    void correctQuery_MistypedWords_ClosestTerms() {
+        // Arrange
+        ProductSearchIndex index = new ProductSearchIndex(sampleCatalog());
+
+        // Act + Assert
+        assertEquals("laptop dell", index.correctQuery("lpatop dell"));
+        assertEquals("gaming", index.correctQuery("gamng"));
+        assertEquals("dune herbert", index.correctQuery("dunne herbret"));
+        assertNull(index.correctQuery("laptop"));
+        assertNull(index.correctQuery("xyzzy"));
+    }
+
+    @Test
+    void correctQuery_TermsAddedAfterFirstUse_Found() {
+        // Arrange
+        ProductCatalog catalog = sampleCatalog();
+        ProductSearchIndex index = new ProductSearchIndex(catalog);
+        assertNull(index.correctQuery("chiar"));
+
+        // Act
+        catalog.add(new HomeGarden("H001", "Garden Chair", 10, 6500.0, "Wood", "Patio"));
+        catalog.remove("B001");
+
+        // Assert
+        assertEquals("chair", index.correctQuery("chiar"));
+        assertNull(index.correctQuery("dunne"));
+    }
+
+    @Test
+    void bkTreeDistance_Levenshtein_BoundedByLimit() {
+        // Act + Assert
+        assertEquals(3, TermBkTree.distance("kitten", "sitting", Integer.MAX_VALUE));
+        assertEquals(0, TermBkTree.distance("dell", "dell", 1));
+        assertTrue(TermBkTree.distance("kitten", "sitting", 1) > 1);
+    }
+
+    @Test
+    void searchInto_ReusedBitmap_SameMatchesAsSearch() {
+        // Arrange
+        ProductSearchIndex index = new ProductSearchIndex(sampleCatalog());
+        java.util.BitSet out = new java.util.BitSet();
+
+        // Act + Assert
+        for (String query : new String[]{"lap", "LAPTOP dell", "black shirt", "", "laptop black"}) {
+            index.searchInto(query, out);
+            assertArrayEquals(index.search(query), out.stream().toArray(), query);
+        }
+    }
+
+    @Test
+    void topByRelevance_NameMatchBeatsAttributeMatch() {
+        // Arrange
+        ProductCatalog catalog = new ProductCatalog();
+        catalog.add(new Books("B001", "Garden Design Ideas", 5, 900.0, "Ann Lee", "Design"));
+        catalog.add(new Books("B002", "The Garden", 5, 900.0, "Sam Roe", "Novel"));
+        catalog.add(new Books("B003", "Cooking", 5, 900.0, "Max Garden", "Food"));
+        catalog.add(new Books("B004", "Birds", 5, 900.0, "Ann Lee", "Nature"));
+        ProductSearchIndex index = new ProductSearchIndex(catalog);
+
+        // Act + Assert: a short name with the word ranks first, a match only in the author last
+        assertArrayEquals(new int[]{1, 0, 2}, index.topByRelevance("garden", null, 10));
+        assertArrayEquals(new int[]{1}, index.topByRelevance("garden", null, 1));
+        java.util.BitSet filter = new java.util.BitSet();
+        filter.set(0);
+        filter.set(2);
+        assertArrayEquals(new int[]{0, 2}, index.topByRelevance("garden", filter, 10));
+        assertArrayEquals(new int[0], index.topByRelevance("garden birds", null, 10));
+    }
+
+    @Test
+    void topByRelevance_RareWordOutweighsCommonWord() {
+        // Arrange
+        ProductCatalog catalog = new ProductCatalog();
+        for (int i = 0; i < 20; i++) {
+            catalog.add(new Electronics("E" + i, "Laptop " + i, 1, 1000.0, i == 7 ? "Razer" : "Dell", 12));
+        }
+        ProductSearchIndex index = new ProductSearchIndex(catalog);
+
+        // Act
+        int[] ranked = index.topByRelevance("laptop razer", null, 5);
+        int[] all = index.topByRelevance("laptop", null, 50);
+
+        // Assert: one match; equal scores keep insertion order and the heap keeps the k best
+        assertArrayEquals(new int[]{7}, ranked);
+        assertEquals(20, all.length);
+        assertArrayEquals(java.util.Arrays.copyOf(all, 5), index.topByRelevance("laptop", null, 5));
+    }
+
+    @Test
+    void topByRelevance_StatisticsFollowCatalogChanges() {
+        // Arrange
+        ProductCatalog catalog = new ProductCatalog();
+        catalog.add(new Books("B001", "Garden Garden Garden", 5, 900.0, "Ann Lee", "Garden"));
+        catalog.add(new Books("B002", "Garden", 5, 900.0, "Sam Roe", "Novel"));
+        ProductSearchIndex index = new ProductSearchIndex(catalog);
+        int before = index.topByRelevance("garden", null, 1)[0];
+
+        // Act: the repeated-word book is renamed, a third matching book arrives
+        catalog.get("B001").setProductName("Birds");
+        catalog.refresh("B001");
+        catalog.add(new Books("B003", "Garden Tools", 5, 900.0, "Ann Lee", "Howto"));
+
+        // Assert
+        assertEquals(0, before);
+        assertArrayEquals(new int[]{1, 2, 0}, index.topByRelevance("garden", null, 10));
+    }
+}
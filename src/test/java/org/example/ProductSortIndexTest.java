@@ -0,0 +1,142 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static org.example.TestCatalogs.catalog;
+import static org.example.TestCatalogs.dune;
+import static org.example.TestCatalogs.gamingLaptop;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSortIndexTest {
+
+    // Lower-case "laptop" checks that name order ignores case; the shirt ties with the book on price
+    private ProductCatalog sampleCatalog() {
+        return catalog(
+                new Electronics("E001", "laptop Pro", 8, 150000.0, "Dell", 12),
+                gamingLaptop(),
+                new Clothing("C001", "Casual T-Shirt", 20, 1200.0, "M", "Black"),
+                dune());
+    }
+
+    private static BitSet all(int count) {
+        BitSet filter = new BitSet();
+        filter.set(0, count);
+        return filter;
+    }
+
+    @Test
+    void sorted_EveryOrder_MatchesStableSort() {
+        // Arrange
+        ProductSortIndex index = new ProductSortIndex(sampleCatalog());
+
+        // Act + Assert (ties on price keep insertion order both ways)
+        assertArrayEquals(new int[]{2, 3, 0, 1}, index.sorted(ProductSortIndex.Order.PRICE_ASCENDING, all(4)));
+        assertArrayEquals(new int[]{1, 0, 2, 3}, index.sorted(ProductSortIndex.Order.PRICE_DESCENDING, all(4)));
+        assertArrayEquals(new int[]{2, 3, 1, 0}, index.sorted(ProductSortIndex.Order.NAME_ASCENDING, all(4)));
+        assertArrayEquals(new int[]{0, 1, 3, 2}, index.sorted(ProductSortIndex.Order.NAME_DESCENDING, all(4)));
+    }
+
+    @Test
+    void sorted_Filter_KeepsOnlyMatchesInOrder() {
+        // Arrange
+        ProductSortIndex index = new ProductSortIndex(sampleCatalog());
+        BitSet filter = new BitSet();
+        filter.set(0);
+        filter.set(3);
+
+        // Act
+        int[] sorted = index.sorted(ProductSortIndex.Order.PRICE_DESCENDING, filter);
+
+        // Assert
+        assertArrayEquals(new int[]{0, 3}, sorted);
+        assertEquals(2, filter.cardinality());
+    }
+
+    @Test
+    void catalogChanges_AddRemoveEdit_OrderingsFollow() {
+        // Arrange
+        ProductCatalog catalog = sampleCatalog();
+        ProductSortIndex index = new ProductSortIndex(catalog);
+
+        // Act
+        catalog.add(new HomeGarden("H001", "Armchair", 10, 6500.0, "Wood", "Living room"));
+        catalog.remove("E002");
+        Product dune = catalog.get("B001");
+        dune.setPrice(99.0);
+        dune.setProductName("Zen");
+        catalog.refresh("B001");
+
+        // Assert
+        assertArrayEquals(new int[]{3, 2, 4, 0}, index.sorted(ProductSortIndex.Order.PRICE_ASCENDING, all(5)));
+        assertArrayEquals(new int[]{4, 2, 0, 3}, index.sorted(ProductSortIndex.Order.NAME_ASCENDING, all(5)));
+    }
+
+    @Test
+    void sorted_LargeCatalogSmallFilter_SameOrderAsFullPass() {
+        // Arrange
+        ProductCatalog catalog = new ProductCatalog();
+        for (int i = 0; i < 2000; i++) {
+            catalog.add(new Books("B" + i, "Book " + (i * 7919 % 2000), 1, (i * 31) % 500, "Author", "Genre"));
+        }
+        ProductSortIndex index = new ProductSortIndex(catalog);
+        BitSet few = new BitSet();
+        for (int i = 0; i < 2000; i += 400) {
+            few.set(i);
+        }
+
+        // Act
+        int[] sorted = index.sorted(ProductSortIndex.Order.PRICE_DESCENDING, few);
+        int[] full = index.sorted(ProductSortIndex.Order.PRICE_DESCENDING, all(2000));
+
+        // Assert
+        int[] expected = java.util.Arrays.stream(full).filter(few::get).toArray();
+        assertArrayEquals(expected, sorted);
+    }
+
+    @Test
+    void sortedInto_ReusedBuffer_SameOrderAsSorted() {
+        // Arrange
+        ProductSortIndex index = new ProductSortIndex(sampleCatalog());
+        int[] buffer = new int[8];
+
+        // Act
+        int count = index.sortedInto(ProductSortIndex.Order.NAME_DESCENDING, all(4), buffer);
+
+        // Assert
+        assertEquals(4, count);
+        assertArrayEquals(index.sorted(ProductSortIndex.Order.NAME_DESCENDING, all(4)), java.util.Arrays.copyOf(buffer, count));
+    }
+
+    @Test
+    void sorted_ById_IgnoresCase() {
+        // Arrange
+        ProductCatalog catalog = sampleCatalog();
+        catalog.add(new Books("b000", "Atlas", 1, 900.0, "Various", "Reference"));
+        ProductSortIndex index = new ProductSortIndex(catalog);
+
+        // Act + Assert
+        assertArrayEquals(new int[]{4, 3, 2, 0, 1}, index.sorted(ProductSortIndex.Order.ID_ASCENDING, all(5)));
+        assertArrayEquals(new int[]{1, 0, 2, 3, 4}, index.first(ProductSortIndex.Order.ID_DESCENDING, null, 10));
+    }
+
+    @Test
+    void pageInto_DescendingThroughTies_SameAsSortedSlice() {
+        // Arrange
+        ProductCatalog catalog = new ProductCatalog();
+        for (int i = 0; i < 20; i++) {
+            catalog.add(new Books("B" + i, "Book " + i, 1, 100.0 * (i % 3), "Author", "Drama"));
+        }
+        ProductSortIndex index = new ProductSortIndex(catalog);
+        int[] expected = index.sorted(ProductSortIndex.Order.PRICE_DESCENDING, all(20));
+        int[] page = new int[5];
+
+        // Act
+        int count = index.pageInto(ProductSortIndex.Order.PRICE_DESCENDING, null, 4, page);
+
+        // Assert
+        assertEquals(5, count);
+        assertArrayEquals(java.util.Arrays.copyOfRange(expected, 4, 9), page);
+    }
+}
@@ -0,0 +1,197 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryPlannerTest {
+    private static final String[] BRANDS = {"Dell", "Asus", "Sony"};
+    private static final String[] COLORS = {"Black", "White"};
+
+    private ProductCatalog catalog;
+    private QueryPlanner planner;
+    private ProductSortIndex sortIndex;
+
+    // 300 products over three categories, with many price ties
+    private void buildCatalog() {
+        catalog = new ProductCatalog();
+        for (int i = 0; i < 300; i++) {
+            double price = 100.0 * (i % 17);
+            if (i % 3 == 0) {
+                catalog.add(new Electronics("E" + i, "Laptop " + i, i % 5, price, BRANDS[i % BRANDS.length], 12));
+            } else if (i % 3 == 1) {
+                catalog.add(new Clothing("C" + i, "Shirt " + i, i % 5, price, "M", COLORS[i % COLORS.length]));
+            } else {
+                catalog.add(new Books("B" + i, "Novel " + i, i % 5, price, "Author " + i % 4, "Drama"));
+            }
+        }
+        sortIndex = new ProductSortIndex(catalog);
+        planner = new QueryPlanner(catalog, new ProductSearchIndex(catalog), new ProductFacets(catalog),
+                new ProductRangeIndex(catalog), sortIndex);
+    }
+
+    // What the query should return, computed product by product without the planner
+    private int[] expected(ProductQuery query) {
+        BitSet matches = new BitSet();
+        for (int ordinal = 0; ordinal < catalog.ordinalLimit(); ordinal++) {
+            Product product = catalog.productAt(ordinal);
+            if (product != null && accepts(query, product)) {
+                matches.set(ordinal);
+            }
+        }
+        int[] all = query.order() == null ? matches.stream().toArray() : sortIndex.sorted(query.order(), matches);
+        int from = Math.min(all.length, query.offset());
+        return Arrays.copyOfRange(all, from, (int) Math.min(all.length, (long) from + query.limit()));
+    }
+
+    private static boolean accepts(ProductQuery query, Product product) {
+        if (!ProductSearchIndex.matches(query.text(), product)) {
+            return false;
+        }
+        if (query.category() != null && !query.category().equalsIgnoreCase(product.getProductCategory())) {
+            return false;
+        }
+        for (String value : query.attributes().getOrDefault(ProductFacets.BRAND, java.util.Set.of())) {
+            if (!(product instanceof Electronics electronics) || !electronics.getBrand().equalsIgnoreCase(value)) {
+                return false;
+            }
+        }
+        return product.getPrice() >= query.minPrice() && product.getPrice() <= query.maxPrice();
+    }
+
+    private List<ProductQuery> sampleQueries() {
+        List<ProductQuery> queries = new ArrayList<>();
+        ProductQuery[] filters = {
+                ProductQuery.all(),
+                ProductQuery.all().withText("laptop"),
+                ProductQuery.all().withText("laptop 12"),
+                ProductQuery.all().withCategory("Clothing"),
+                ProductQuery.all().withCategory("Electronics").withAttribute(ProductFacets.BRAND, "Dell"),
+                ProductQuery.all().withPriceRange(300.0, 800.0),
+                ProductQuery.all().withPriceRange(Double.NEGATIVE_INFINITY, 100.0),
+                ProductQuery.all().withCategory("Books").withPriceRange(500.0, 500.0),
+                ProductQuery.all().withText("novel 29").withPriceRange(0.0, 1000.0),
+                ProductQuery.all().withText("nothing"),
+        };
+        ProductSortIndex.Order[] orders = {null, ProductSortIndex.Order.PRICE_ASCENDING, ProductSortIndex.Order.PRICE_DESCENDING,
+                ProductSortIndex.Order.NAME_DESCENDING, ProductSortIndex.Order.ID_ASCENDING};
+        for (ProductQuery filter : filters) {
+            for (ProductSortIndex.Order order : orders) {
+                queries.add(filter.sortedBy(order));
+                queries.add(filter.sortedBy(order).page(0, 7));
+                queries.add(filter.sortedBy(order).page(5, 10));
+                queries.add(filter.sortedBy(order).page(500, 10));
+            }
+        }
+        return queries;
+    }
+
+    @Test
+    void execute_EveryPlan_SameAsFilteringAndSortingEachProduct() {
+        // Arrange
+        buildCatalog();
+
+        // Act + Assert
+        for (ProductQuery query : sampleQueries()) {
+            assertArrayEquals(expected(query), planner.execute(query), query.toString());
+            assertEquals(expected(query.page(0, Integer.MAX_VALUE)).length, planner.count(query), query.toString());
+        }
+    }
+
+    @Test
+    void execute_AfterCatalogChanges_FollowsIndexes() {
+        // Arrange
+        buildCatalog();
+        catalog.remove("E0");
+        catalog.remove("C1");
+        catalog.add(new Electronics("E900", "Laptop Max", 1, 150.0, "Dell", 24));
+
+        // Act + Assert
+        for (ProductQuery query : sampleQueries()) {
+            assertArrayEquals(expected(query), planner.execute(query), query.toString());
+        }
+    }
+
+    @Test
+    void executeWithBase_TextMatchesOrCandidates_SameAsLookingUpTheText() {
+        // Arrange
+        buildCatalog();
+        ProductSearchIndex searchIndex = new ProductSearchIndex(catalog);
+        BitSet textMatches = new BitSet();
+        BitSet candidates = new BitSet();
+        BitSet out = new BitSet();
+
+        // Act + Assert
+        for (ProductQuery query : sampleQueries()) {
+            searchIndex.searchInto(query.text(), textMatches);
+            BitSet base = query.hasText() ? textMatches : null;
+            planner.filterInto(query.withPriceRange(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY), base, candidates);
+            assertArrayEquals(expected(query), planner.execute(query, base), query.toString());
+            assertArrayEquals(expected(query), planner.execute(query, candidates), query.toString());
+            planner.filterInto(query.withCategory(null), base, out);
+            assertArrayEquals(expected(query.withCategory(null).sortedBy(null).page(0, Integer.MAX_VALUE)), out.stream().toArray(), query.toString());
+        }
+    }
+
+    @Test
+    void plan_Choice_CheapestWalkForTheQuery() {
+        // Arrange
+        buildCatalog();
+        ProductQuery byPrice = ProductQuery.all().sortedBy(ProductSortIndex.Order.PRICE_ASCENDING);
+
+        // Act + Assert
+        assertEquals(QueryPlanner.Plan.RANGE_WALK, planner.plan(byPrice.withPriceRange(200.0, 600.0).page(0, 10)));
+        assertEquals(QueryPlanner.Plan.RANGE_WALK, planner.plan(byPrice.withPriceRange(200.0, 600.0).withCategory("Books")));
+        assertEquals(QueryPlanner.Plan.SORT_MATCHES, planner.plan(byPrice.withPriceRange(200.0, 600.0).withText("novel 299")));
+        assertEquals(QueryPlanner.Plan.ORDERING_WALK, planner.plan(byPrice.withCategory("Books")));
+        assertEquals(QueryPlanner.Plan.SORT_MATCHES, planner.plan(byPrice.withText("laptop 129")));
+        assertEquals(QueryPlanner.Plan.BITMAP_SCAN, planner.plan(ProductQuery.all().withText("laptop")));
+    }
+
+    @Test
+    void filterInto_IgnoresOrderAndPage() {
+        // Arrange
+        buildCatalog();
+        ProductQuery query = ProductQuery.all().withCategory("Clothing").withPriceRange(0.0, 300.0)
+                .sortedBy(ProductSortIndex.Order.NAME_ASCENDING).page(3, 2);
+        BitSet out = new BitSet();
+        out.set(999);
+
+        // Act
+        planner.filterInto(query, out);
+
+        // Assert
+        assertArrayEquals(expected(query.sortedBy(null).page(0, Integer.MAX_VALUE)), out.stream().toArray());
+    }
+
+    @Test
+    void productQuery_InvalidPage_Rejected() {
+        // Act + Assert
+        assertThrows(IllegalArgumentException.class, () -> ProductQuery.all().page(-1, 10));
+        assertThrows(IllegalArgumentException.class, () -> ProductQuery.all().withPriceRange(Double.NaN, 10.0));
+        assertNull(ProductQuery.all().withCategory("All").category());
+    }
+
+    @Test
+    void execute_ByRelevance_PagesOfTheRanking() {
+        // Arrange
+        buildCatalog();
+        ProductSearchIndex searchIndex = new ProductSearchIndex(catalog);
+        ProductQuery query = ProductQuery.all().withText("laptop").withPriceRange(200.0, 900.0).rankedByRelevance();
+        BitSet filter = new BitSet();
+        planner.filterInto(query, filter);
+        int[] ranking = searchIndex.topByRelevance("laptop", filter, Integer.MAX_VALUE);
+
+        // Act + Assert
+        assertEquals(QueryPlanner.Plan.RELEVANCE_TOP_K, planner.plan(query));
+        assertArrayEquals(ranking, planner.execute(query));
+        assertArrayEquals(Arrays.copyOfRange(ranking, 4, 9), planner.execute(query.page(4, 5)));
+        assertEquals(QueryPlanner.Plan.BITMAP_SCAN, planner.plan(ProductQuery.all().rankedByRelevance()));
+        assertNull(query.sortedBy(ProductSortIndex.Order.NAME_ASCENDING).rankedByRelevance().order());
+    }
+}
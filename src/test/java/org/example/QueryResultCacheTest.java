@@ -0,0 +1,102 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static org.example.TestCatalogs.catalog;
+import static org.example.TestCatalogs.dune;
+import static org.example.TestCatalogs.gamingLaptop;
+import static org.example.TestCatalogs.laptopPro;
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryResultCacheTest {
+
+    private ProductCatalog sampleCatalog() {
+        return catalog(laptopPro(), gamingLaptop(), dune());
+    }
+
+    // Caches the result of a text query the way the shop does
+    private void cacheSearch(QueryResultCache<String, int[]> cache, ProductSearchIndex index, String query) {
+        long version = cache.version();
+        int[] ordinals = index.search(query);
+        BitSet used = new BitSet();
+        for (int ordinal : ordinals) {
+            used.set(ordinal);
+        }
+        cache.put(query, ordinals, version, used, product -> ProductSearchIndex.matches(query, product));
+    }
+
+    @Test
+    void get_AfterPut_Hit() {
+        // Arrange
+        ProductCatalog catalog = sampleCatalog();
+        ProductSearchIndex index = new ProductSearchIndex(catalog);
+        QueryResultCache<String, int[]> cache = new QueryResultCache<>(8);
+        catalog.addListener(cache);
+        cacheSearch(cache, index, "laptop");
+
+        // Act
+        int[] cached = cache.get("laptop");
+
+        // Assert
+        assertArrayEquals(new int[]{0, 1}, cached);
+        assertNull(cache.get("dune"));
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    void catalogChanges_OnlyTouchedEntriesDropped() {
+        // Arrange
+        ProductCatalog catalog = sampleCatalog();
+        ProductSearchIndex index = new ProductSearchIndex(catalog);
+        QueryResultCache<String, int[]> cache = new QueryResultCache<>(8);
+        catalog.addListener(cache);
+        cacheSearch(cache, index, "laptop");
+        cacheSearch(cache, index, "dune");
+        cacheSearch(cache, index, "chair");
+
+        // Act: restock a laptop, add a chair
+        catalog.addQuantity("E001", 5);
+        catalog.add(new HomeGarden("H001", "Garden Chair", 10, 6500.0, "Wood", "Patio"));
+
+        // Assert
+        assertNull(cache.get("laptop"));
+        assertNull(cache.get("chair"));
+        assertArrayEquals(new int[]{2}, cache.get("dune"));
+    }
+
+    @Test
+    void put_CatalogChangedWhileComputing_NotStored() {
+        // Arrange
+        ProductCatalog catalog = sampleCatalog();
+        QueryResultCache<String, int[]> cache = new QueryResultCache<>(8);
+        catalog.addListener(cache);
+        long version = cache.version();
+
+        // Act
+        catalog.remove("B001");
+        cache.put("dune", new int[]{2}, version, new BitSet(), product -> false);
+
+        // Assert
+        assertNull(cache.get("dune"));
+    }
+
+    @Test
+    void put_OverCapacity_LeastRecentlyUsedEvicted() {
+        // Arrange
+        QueryResultCache<String, int[]> cache = new QueryResultCache<>(2);
+        cache.put("a", new int[]{1}, cache.version(), new BitSet(), product -> false);
+        cache.put("b", new int[]{2}, cache.version(), new BitSet(), product -> false);
+        cache.get("a");
+
+        // Act
+        cache.put("c", new int[]{3}, cache.version(), new BitSet(), product -> false);
+
+        // Assert
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+    }
+}
@@ -0,0 +1,74 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures time and heap allocation of the search kernel (text match, facet and price filters,
+ * sort into a reused buffer) over a synthetic catalog. Skipped by default, run it with:
+ * mvn test -Dtest=SearchKernelBenchmarkTest -Dsearch.benchmark=true -DargLine=-Xmx2g
+ * The catalog size can be changed with -Dsearch.benchmark.size=1000000
+ */
+@EnabledIfSystemProperty(named = "search.benchmark", matches = "true")
+class SearchKernelBenchmarkTest {
+    private static final String[] BRANDS = {"Dell", "Apple", "Sony", "Fitbit", "Samsung"};
+    private static final String[] NAMES = {"Laptop", "Phone", "Watch", "Tablet", "Monitor"};
+    private static final String[] QUERIES = {"laptop", "dell", "sam pho", "", "watch fit"};
+    private static final int WARMUP = 200;
+    private static final int RUNS = 500;
+
+    @Test
+    void searchKernel_WarmBuffers_NoAllocationPerProduct() {
+        int productCount = Integer.parseInt(System.getProperty("search.benchmark.size", "1000000"));
+        ProductCatalog catalog = new ProductCatalog(productCount);
+        for (int i = 0; i < productCount; i++) {
+            catalog.add(new Electronics("E" + i, NAMES[i % NAMES.length] + " " + i % 1000, i % 50,
+                    (i * 7919) % 100_000 / 100.0, BRANDS[(i / 5) % BRANDS.length], 12));
+        }
+        ProductSearchIndex searchIndex = new ProductSearchIndex(catalog);
+        ProductFacets facets = new ProductFacets(catalog);
+        ProductRangeIndex rangeIndex = new ProductRangeIndex(catalog);
+        ProductSortIndex sortIndex = new ProductSortIndex(catalog);
+
+        BitSet matches = new BitSet();
+        BitSet priceBand = new BitSet();
+        int[] buffer = new int[productCount];
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        long checksum = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            checksum += runKernel(i, searchIndex, facets, rangeIndex, sortIndex, matches, priceBand, buffer);
+        }
+        long bytesBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            checksum += runKernel(i, searchIndex, facets, rangeIndex, sortIndex, matches, priceBand, buffer);
+        }
+        long nanos = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(thread) - bytesBefore;
+
+        double bytesPerQuery = (double) bytes / RUNS;
+        double bytesPerProduct = bytesPerQuery / productCount;
+        System.out.printf("%,d products: %.3f ms/query, %,.0f bytes/query, %.5f bytes/product/query (checksum %d)%n",
+                productCount, nanos / 1e6 / RUNS, bytesPerQuery, bytesPerProduct, checksum);
+        // Per-query garbage (query tokens, map views) is a few hundred bytes, whatever the catalog size
+        assertTrue(bytesPerProduct < 0.01, "allocates per product: " + bytesPerProduct + " bytes/product/query");
+    }
+
+    private static int runKernel(int run, ProductSearchIndex searchIndex, ProductFacets facets,
+                                 ProductRangeIndex rangeIndex, ProductSortIndex sortIndex,
+                                 BitSet matches, BitSet priceBand, int[] buffer) {
+        searchIndex.searchInto(QUERIES[run % QUERIES.length], matches);
+        facets.retain(ProductFacets.BRAND, BRANDS[run % BRANDS.length], matches);
+        rangeIndex.matchingInto(ProductRangeIndex.Field.PRICE, 100.0, 600.0, priceBand);
+        matches.and(priceBand);
+        ProductSortIndex.Order order = ProductSortIndex.Order.values()[run % ProductSortIndex.Order.values().length];
+        return sortIndex.sortedInto(order, matches, buffer);
+    }
+}
@@ -0,0 +1,75 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchPipelineTest {
+
+    @Test
+    void submit_BurstOfKeystrokes_OnlyLastQueryRunsAndPublishes() throws InterruptedException {
+        // Arrange
+        AtomicInteger runs = new AtomicInteger();
+        List<String> published = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        try (SearchPipeline<String, String> pipeline = new SearchPipeline<>(100, (query, cancelled) -> {
+            runs.incrementAndGet();
+            return query.toUpperCase();
+        }, result -> {
+            published.add(result);
+            done.countDown();
+        }, Runnable::run)) {
+
+            // Act
+            for (String text : new String[]{"l", "la", "lap", "lapt", "lapto", "laptop"}) {
+                pipeline.submit(text);
+            }
+
+            // Assert
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            Thread.sleep(200);
+            assertEquals(1, runs.get());
+            assertEquals(List.of("LAPTOP"), published);
+        }
+    }
+
+    @Test
+    void submitNow_WhileSlowQueryRuns_StaleResultDropped() throws InterruptedException {
+        // Arrange
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        List<String> published = new CopyOnWriteArrayList<>();
+        AtomicInteger cancelledRuns = new AtomicInteger();
+        try (SearchPipeline<String, String> pipeline = new SearchPipeline<>(0, (query, cancelled) -> {
+            if (query.equals("slow")) {
+                slowStarted.countDown();
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (!cancelled.getAsBoolean() && System.nanoTime() < deadline) {
+                    Thread.onSpinWait();
+                }
+                cancelledRuns.incrementAndGet();
+            }
+            return query;
+        }, result -> {
+            published.add(result);
+            done.countDown();
+        }, Runnable::run)) {
+
+            // Act
+            pipeline.submitNow("slow");
+            assertTrue(slowStarted.await(5, TimeUnit.SECONDS));
+            pipeline.submitNow("fast");
+
+            // Assert
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of("fast"), published);
+            assertEquals(1, cancelledRuns.get());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.example.TestCatalogs.catalog;
+import static org.example.TestCatalogs.dune;
+import static org.example.TestCatalogs.laptopPro;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchSuggestionsTest {
+
+    private ProductCatalog sampleCatalog() {
+        return catalog(
+                laptopPro(),
+                new Electronics("E002", "Gaming Laptop", 30, 210000.0, "Asus", 24),
+                new Electronics("E003", "Desk Lamp", 2, 3000.0, "Dell", 6),
+                dune());
+    }
+
+    private static List<String> texts(List<SearchSuggestions.Suggestion> suggestions) {
+        return suggestions.stream().map(SearchSuggestions.Suggestion::text).toList();
+    }
+
+    @Test
+    void complete_Prefix_RankedByStock() {
+        // Arrange
+        SearchSuggestions suggestions = new SearchSuggestions(sampleCatalog());
+
+        // Act
+        List<SearchSuggestions.Suggestion> result = suggestions.complete("la", 10);
+
+        // Assert
+        assertEquals(List.of("Gaming Laptop", "Laptop Pro", "Desk Lamp"), texts(result));
+    }
+
+    @Test
+    void complete_BrandAndCategory_AggregateStock() {
+        // Arrange
+        SearchSuggestions suggestions = new SearchSuggestions(sampleCatalog());
+
+        // Act
+        List<SearchSuggestions.Suggestion> result = suggestions.complete("d", 2);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals("Dell", result.get(0).text());
+        assertEquals(SearchSuggestions.BRAND, result.get(0).kind());
+        assertEquals(10, result.get(0).stock());
+        assertEquals(2, result.get(0).products());
+        assertEquals("Dune", result.get(1).text());
+    }
+
+    @Test
+    void complete_Limit_TopNOnly() {
+        // Arrange
+        SearchSuggestions suggestions = new SearchSuggestions(sampleCatalog());
+
+        // Act
+        List<SearchSuggestions.Suggestion> result = suggestions.complete("elec", 1);
+
+        // Assert
+        assertEquals(List.of("Electronics"), texts(result));
+        assertEquals(40, result.get(0).stock());
+    }
+
+    @Test
+    void catalogChanges_StockAndRemoval_RankingFollows() {
+        // Arrange
+        ProductCatalog catalog = sampleCatalog();
+        SearchSuggestions suggestions = new SearchSuggestions(catalog);
+
+        // Act
+        catalog.addQuantity("E001", 100);
+        catalog.remove("E003");
+
+        // Assert
+        assertEquals(List.of("Laptop Pro", "Gaming Laptop"), texts(suggestions.complete("la", 10)));
+        assertEquals(108, suggestions.complete("dell", 1).get(0).stock());
+        assertTrue(suggestions.complete("desk", 5).isEmpty());
+    }
+
+    @Test
+    void complete_UnknownPrefix_Empty() {
+        // Arrange
+        SearchSuggestions suggestions = new SearchSuggestions(sampleCatalog());
+
+        // Act + Assert
+        assertTrue(suggestions.complete("zzz", 5).isEmpty());
+        assertTrue(suggestions.complete("  ", 5).isEmpty());
+    }
+}
@@ -0,0 +1,51 @@
+package org.example;
+
+import java.util.BitSet;
+
+/**
+ * Products and helpers shared by the catalog and index tests. A test that needs other
+ * values builds those rows inline and mixes them with these.
+ */
+final class TestCatalogs {
+
+    private TestCatalogs() {
+    }
+
+    static Electronics laptopPro() {
+        return new Electronics("E001", "Laptop Pro", 8, 150000.0, "Dell", 12);
+    }
+
+    static Electronics gamingLaptop() {
+        return new Electronics("E002", "Gaming Laptop", 3, 210000.0, "Asus", 24);
+    }
+
+    static Clothing tShirt() {
+        return new Clothing("C001", "Casual T-Shirt", 20, 40.5, "M", "Black");
+    }
+
+    static Books dune() {
+        return new Books("B001", "Dune", 5, 1200.0, "Frank Herbert", "Sci-Fi");
+    }
+
+    // Ordinals 0 to 3: Laptop Pro, Gaming Laptop, Casual T-Shirt, Dune
+    static ProductCatalog sampleCatalog() {
+        return catalog(laptopPro(), gamingLaptop(), tShirt(), dune());
+    }
+
+    // Products get their ordinals in argument order
+    static ProductCatalog catalog(Product... products) {
+        ProductCatalog catalog = new ProductCatalog();
+        for (Product product : products) {
+            catalog.add(product);
+        }
+        return catalog;
+    }
+
+    static BitSet bits(int... ordinals) {
+        BitSet bits = new BitSet();
+        for (int ordinal : ordinals) {
+            bits.set(ordinal);
+        }
+        return bits;
+    }
+}
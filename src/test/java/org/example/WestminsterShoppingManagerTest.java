@@ -22,7 +22,7 @@ public class WestminsterShoppingManagerTest extends TestCase {
     }
 
     @Test
-    void addProduct_ProductListFull_LimitReached() {
+    void addProduct_MoreThanFiftyProducts_AllAdded() {
         // Arrange
         WestminsterShoppingManager shoppingManager = new WestminsterShoppingManager();
         for (int i = 0; i < 50; i++) {
@@ -36,8 +36,8 @@ public class WestminsterShoppingManagerTest extends TestCase {
 
         // Assert
         List<Product> productList = shoppingManager.getAllProducts();
-        assertEquals(50, productList.size());
-        assertFalse(productList.contains(newProduct));
+        assertEquals(51, productList.size());
+        assertTrue(productList.contains(newProduct));
     }
 
     @Test
@@ -140,4 +140,26 @@ public class WestminsterShoppingManagerTest extends TestCase {
         // Assert
         assertNull(foundProduct);
     }
-}
\ No newline at end of file
+
+    @Test
+    void topKListings_MixedCatalog_IndexBackedResults() {
+        // Arrange
+        WestminsterShoppingManager shoppingManager = new WestminsterShoppingManager();
+        shoppingManager.addProduct(new Electronics("E1", "Laptop", 5, 1200.0, "Dell", 12));
+        shoppingManager.addProduct(new Electronics("E2", "Phone", 30, 800.0, "Sony", 24));
+        shoppingManager.addProduct(new Clothing("C1", "Shirt", 50, 20.0, "M", "Blue"));
+        shoppingManager.addProduct(new Electronics("E3", "Tablet", 2, 500.0, "Asus", 12));
+
+        // Act
+        List<Product> cheapestElectronics = shoppingManager.getCheapestProducts("Electronics", 2);
+        List<Product> mostStocked = shoppingManager.getMostStockedProducts(2);
+        shoppingManager.updateProductQuantity("E3", 100);
+        List<Product> mostStockedAfterRestock = shoppingManager.getMostStockedProducts(1);
+
+        // Assert
+        assertEquals(List.of("E3", "E2"), cheapestElectronics.stream().map(Product::getProductID).toList());
+        assertEquals(List.of("C1", "E2"), mostStocked.stream().map(Product::getProductID).toList());
+        assertEquals("E3", mostStockedAfterRestock.get(0).getProductID());
+        assertEquals("E3", shoppingManager.getNewestProducts(1).get(0).getProductID());
+    }
+}
@@ -0,0 +1,113 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void markDirty_BurstBelowThreshold_FlushedOnceOnClose() throws IOException {
+        // Arrange
+        AtomicInteger flushes = new AtomicInteger();
+        WriteBehind writeBehind = new WriteBehind("test", 60_000, 1000, flushes::incrementAndGet);
+
+        // Act
+        for (int i = 0; i < 500; i++) {
+            writeBehind.markDirty();
+        }
+        writeBehind.close();
+
+        // Assert
+        assertEquals(1, flushes.get());
+        assertEquals(0, writeBehind.pending());
+    }
+
+    @Test
+    void markDirty_ThresholdReached_FlushedInBackground() throws Exception {
+        // Arrange
+        CountDownLatch flushed = new CountDownLatch(1);
+        WriteBehind writeBehind = new WriteBehind("test", 60_000, 10, flushed::countDown);
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            writeBehind.markDirty();
+        }
+
+        // Assert
+        assertTrue(flushed.await(5, TimeUnit.SECONDS));
+        writeBehind.close();
+    }
+
+    @Test
+    void flushNow_FlushFails_ChangesKeptForRetry() {
+        // Arrange
+        WriteBehind writeBehind = new WriteBehind("test", 0, 1, () -> {
+            throw new IOException("disk full");
+        });
+
+        // Act
+        writeBehind.markDirty();
+        writeBehind.markDirty();
+
+        // Assert
+        assertEquals(2, writeBehind.pending());
+        assertThrows(IOException.class, writeBehind::flushNow);
+    }
+
+    @Test
+    void manager_RepeatedRestocks_CoalescedIntoOneJournalRecord() throws IOException {
+        // Arrange
+        WestminsterShoppingManager manager = new WestminsterShoppingManager(tempDir, 0);
+        manager.setWriteBehind(60_000, 1_000_000);
+        manager.loadProducts();
+        manager.addProduct(new Electronics("E001", "Laptop", 8, 150000.0, "Dell", 12));
+        manager.addProduct(new Clothing("C001", "Jeans", 15, 2000.0, "L", "Blue"));
+        manager.removeProductFromSystem("C001");
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            manager.updateProductQuantity("E001", 1);
+        }
+        int unsaved = manager.getUnsavedChanges();
+        manager.close();
+
+        // Assert
+        assertEquals(1, unsaved);
+        ProductCatalog catalog = new ProductCatalog();
+        assertEquals(1, ProductJournal.replay(tempDir, catalog));
+        assertEquals(1008, catalog.get("E001").getQuantity());
+        assertNull(catalog.get("C001"));
+    }
+
+    @Test
+    void manager_ProductChangedInPlace_JournaledWithCurrentState() throws IOException {
+        // Arrange
+        WestminsterShoppingManager manager = new WestminsterShoppingManager(tempDir, 0);
+        manager.setWriteBehind(0, 1);
+        manager.loadProducts();
+        manager.addProduct(new Books("B001", "Dune", 5, 1200.0, "Frank Herbert", "Sci-Fi"));
+
+        // Act
+        manager.getProductByID("B001").decreaseQuantity(2);
+        manager.markProductChanged("B001");
+        manager.close();
+
+        // Assert
+        WestminsterShoppingManager reloaded = new WestminsterShoppingManager(tempDir, 0);
+        reloaded.loadProducts();
+        reloaded.close();
+        assertEquals(3, reloaded.getProductByID("B001").getQuantity());
+        assertTrue(Files.exists(tempDir.resolve(WestminsterShoppingManager.SNAPSHOT_FILE)));
+    }
+}